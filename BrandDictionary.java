@@ -0,0 +1,295 @@
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * A dictionary of the brands used by Clothing. Every spelling of a brand is stored once and shared by all the
+ * clothing of that brand, and every brand gets an int id that ignores case, so that two brands are equal ignoring
+ * case exactly when their ids are equal. The dictionary only holds its entries weakly: each piece of clothing keeps
+ * the entry of its brand alive, and once no clothing uses any spelling of a brand, the brand is dropped from the
+ * dictionary, so memory stays bounded by the brands in use however many wardrobes come and go. Ids are not reused,
+ * so a brand that is dropped and seen again gets a new id, which no clothing still holds the old one of. The
+ * dictionary is safe to use from several threads.
+ * For use in the Wardrobe Manager project.
+ */
+class BrandDictionary {
+
+  /**
+   * The dictionary shared by all Clothing.
+   */
+  static final BrandDictionary GLOBAL = new BrandDictionary();
+
+  /**
+   * One spelling of a brand in the dictionary.
+   */
+  static final class Brand {
+    final String name; //the shared instance of this spelling
+    final int id; //the same for every spelling of the brand that is equal ignoring case
+    private final Id owner; //keeps the id in the dictionary for as long as any spelling of the brand is in use
+
+    /**
+     * Creates a new brand entry.
+     *
+     * @param name - the spelling of the brand
+     * @param owner - the case-insensitive id of the brand
+     */
+    private Brand(String name, Id owner) {
+      this.name = name;
+      this.id = owner.id;
+      this.owner = owner;
+    }
+  }
+
+  /**
+   * The id of a brand, shared by all of its spellings.
+   */
+  private static final class Id {
+    final int id;
+
+    /**
+     * Creates a new brand id.
+     *
+     * @param id - the id
+     */
+    Id(int id) {
+      this.id = id;
+    }
+  }
+
+  /**
+   * A weak reference to an entry of one of the maps of the dictionary, which remembers its key so that the entry can
+   * be removed once the referent has been collected.
+   *
+   * @param <T> - the type of the referent
+   */
+  private static final class Entry<T> extends WeakReference<T> {
+    final Object key; //the key of the entry in its map
+
+    /**
+     * Creates a new weak entry.
+     *
+     * @param referent - the value of the entry
+     * @param key - the key of the entry in its map
+     * @param queue - where the entry is queued once the referent has been collected
+     */
+    Entry(T referent, Object key, ReferenceQueue<Object> queue) {
+      super(referent, queue);
+      this.key = key;
+    }
+  }
+
+  /**
+   * A mutable view of a range of characters that can be used to look up a spelling without first copying the range
+   * into a String. It hashes and compares equal to a String with the same characters, so it finds the String keys
+   * of the spellings map. It is only ever used for lookups, never stored as a key.
+   */
+  static final class Probe implements CharSequence {
+    private CharSequence text;
+    private int start;
+    private int length;
+    private int hash;
+
+    /**
+     * Points this probe at a range of characters.
+     *
+     * @param text - the text holding the characters
+     * @param start - the index of the first character
+     * @param end - the index after the last character
+     * @return this probe
+     */
+    Probe set(CharSequence text, int start, int end) {
+      this.text = text;
+      this.start = start;
+      this.length = end - start;
+      int h = 0;
+      for (int i = start; i < end; i++) {
+        h = 31 * h + text.charAt(i); //the same hash as String.hashCode()
+      }
+      this.hash = h;
+      return this;
+    }
+
+    @Override
+    public int length() {
+      return this.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return this.text.charAt(this.start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      return this.text.subSequence(this.start + from, this.start + to);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof CharSequence)) return false;
+      CharSequence other = (CharSequence) o;
+      if (other.length() != this.length) return false;
+      for (int i = 0; i < this.length; i++) {
+        if (other.charAt(i) != this.text.charAt(this.start + i)) return false;
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return this.text.subSequence(this.start, this.start + this.length).toString();
+    }
+  }
+
+  //data fields
+  private final ConcurrentHashMap<CharSequence, Entry<Brand>> spellings; //every spelling in use, keyed by String
+  private final ConcurrentHashMap<String, Entry<Id>> ids; //the id of every brand in use, keyed by its folded name
+  private final ReferenceQueue<Object> collected; //the entries of both maps whose referents have been collected
+  private final AtomicInteger nextId;
+
+  /**
+   * Creates a new empty dictionary.
+   */
+  BrandDictionary() {
+    spellings = new ConcurrentHashMap<>();
+    ids = new ConcurrentHashMap<>();
+    collected = new ReferenceQueue<>();
+    nextId = new AtomicInteger();
+  }
+
+  /**
+   * Getter for the number of distinct spellings in this dictionary, which may still count spellings that are no
+   * longer in use until the garbage collector has noticed.
+   *
+   * @return the number of spellings
+   */
+  int size() {
+    purge();
+    return spellings.size();
+  }
+
+  /**
+   * Finds the given spelling of a brand, adding it to the dictionary if it is not there yet.
+   *
+   * @param name - the spelling of the brand
+   * @return the dictionary entry of the spelling
+   */
+  Brand intern(String name) {
+    Brand brand = get(spellings.get(name));
+    return (brand != null) ? brand : add(name);
+  }
+
+  /**
+   * Finds the spelling of a brand held in a range of the given text, adding it to the dictionary if it is not there
+   * yet. A String is only created for spellings that are new to the dictionary.
+   *
+   * @param probe - a probe owned by the caller, used to look up the range
+   * @param text - the text holding the brand
+   * @param start - the index of the first character of the brand
+   * @param end - the index after the last character of the brand
+   * @return the dictionary entry of the spelling
+   */
+  Brand intern(Probe probe, CharSequence text, int start, int end) {
+    Brand brand = get(spellings.get(probe.set(text, start, end)));
+    return (brand != null) ? brand : add(text.subSequence(start, end).toString());
+  }
+
+  /**
+   * Finds the given spelling of a brand, or a spelling equal to it ignoring case, without adding anything to the
+   * dictionary.
+   *
+   * @param name - the spelling of the brand
+   * @return a dictionary entry with the same id as the given spelling, or null if no such brand has been seen
+   */
+  Brand find(String name) {
+    Brand brand = get(spellings.get(name));
+    if (brand == null) {
+      Id id = get(ids.get(fold(name)));
+      brand = (id == null) ? null : new Brand(name, id);
+    }
+    return brand;
+  }
+
+  /**
+   * Adds a new spelling to the dictionary, giving it the id of the brand it is equal to ignoring case.
+   *
+   * @param name - the spelling to add
+   * @return the dictionary entry of the spelling, which may have been added by another thread first
+   */
+  private Brand add(String name) {
+    purge();
+    Id id = canonical(ids, fold(name), () -> new Id(nextId.getAndIncrement()));
+    return canonical(spellings, name, () -> new Brand(name, id));
+  }
+
+  /**
+   * Finds the value of the given key of a map of this dictionary, putting a new one in if the key has none or its
+   * value has been collected.
+   *
+   * @param map - the map
+   * @param key - the key
+   * @param create - creates the new value
+   * @return the value of the key
+   */
+  private <K, T> T canonical(ConcurrentHashMap<K, Entry<T>> map, K key, Supplier<T> create) {
+    AtomicReference<T> value = new AtomicReference<>(); //holds the value strongly until it is returned
+    map.compute(key, (k, entry) -> {
+      T existing = get(entry);
+      if (existing != null) {
+        value.set(existing);
+        return entry;
+      }
+      value.set(create.get());
+      return new Entry<>(value.get(), k, collected);
+    });
+    return value.get();
+  }
+
+  /**
+   * Removes the entries whose values have been collected from the maps of this dictionary.
+   */
+  private void purge() {
+    Reference<?> reference;
+    while ((reference = collected.poll()) != null) {
+      Object key = ((Entry<?>) reference).key;
+      spellings.remove(key, reference);
+      ids.remove(key, reference);
+    }
+  }
+
+  /**
+   * Getter for the value of an entry.
+   *
+   * @param entry - the entry, or null
+   * @return the value of the entry, or null if there is no entry or its value has been collected
+   */
+  private static <T> T get(Entry<T> entry) {
+    return (entry == null) ? null : entry.get();
+  }
+
+  /**
+   * Folds the case of every code point of a string the same way String.equalsIgnoreCase() compares them, so that two
+   * strings are equal ignoring case exactly when their folded forms are equal.
+   *
+   * @param s - the string to fold
+   * @return the folded string
+   */
+  static String fold(String s) {
+    StringBuilder folded = new StringBuilder(s.length());
+    for (int i = 0; i < s.length(); ) {
+      int codePoint = s.codePointAt(i);
+      folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+      i += Character.charCount(codePoint);
+    }
+    return folded.toString();
+  }
+}
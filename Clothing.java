@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDate;
 
 /**
@@ -5,11 +8,32 @@ import java.time.LocalDate;
  */
 public class Clothing {
 
+  /**
+   * The value of getLastWornEpochDay() for clothing that has never been worn, smaller than the epoch day of any date.
+   */
+  public static final int NEVER_WORN = EpochDays.NEVER_WORN;
+
+  //atomic access to the wear fields, so that wears from several threads are recorded without locks
+  private static final VarHandle LAST_WORN_DAY;
+  private static final VarHandle TIMES_WORN;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      LAST_WORN_DAY = lookup.findVarHandle(Clothing.class, "lastWornDay", int.class);
+      TIMES_WORN = lookup.findVarHandle(Clothing.class, "timesWorn", int.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
   //data fields
-  private String brand;
+  private BrandDictionary.Brand brand; //the entry of this spelling in the brand dictionary, kept alive by it
+  private int brandId; //the case-insensitive id of the brand in the brand dictionary
   private String description;
-  private LocalDate lastWornDate;
+  private int lastWornDay; //the last worn date as an epoch day, NEVER_WORN if never worn
   private int timesWorn;
+  private int hash; //cached case-insensitive hash code, 0 until first computed
 
   //constructors
 
@@ -34,9 +58,9 @@ public class Clothing {
       //throw an exception with a descriptive message
       throw new IllegalArgumentException("No information provided for brand.");
     }
-    this.brand = brand;
+    setBrand(BrandDictionary.GLOBAL.intern(brand));
 
-    this.lastWornDate = null;
+    this.lastWornDay = NEVER_WORN;
 
   }
 
@@ -47,7 +71,8 @@ public class Clothing {
    * @param brand - the brand of this piece of clothing
    * @param timesWorn - the number of times this piece of clothing has been worn
    * @param lastWornDate - the date that this piece of clothing was last worn
-   * @throws IllegalArgumentException - with a descriptive message if the description or brand is a blank
+   * @throws IllegalArgumentException - with a descriptive message if the description or brand is a blank,
+   *                                    or the year of lastWornDate is too far away to be stored
    */
   public Clothing(String description, String brand, int timesWorn, LocalDate lastWornDate) {
     //check if the description is blank
@@ -62,10 +87,43 @@ public class Clothing {
       //throw an exception with a descriptive message
       throw new IllegalArgumentException("No information provided for brand.");
     }
-    this.brand = brand;
+    setBrand(BrandDictionary.GLOBAL.intern(brand));
 
     this.timesWorn = timesWorn;
-    this.lastWornDate = lastWornDate;
+    this.lastWornDay = EpochDays.of(lastWornDate);
+  }
+
+  /**
+   * Creates a new clothing object with a brand that has already been looked up in the brand dictionary. The
+   * description must already be known not to be blank.
+   *
+   * @param description - the description for this piece of clothing
+   * @param brand - the brand of this piece of clothing
+   * @param timesWorn - the number of times this piece of clothing has been worn
+   * @param lastWornDay - the epoch day that this piece of clothing was last worn, NEVER_WORN if never worn
+   */
+  Clothing(String description, BrandDictionary.Brand brand, int timesWorn, int lastWornDay) {
+    this.description = description;
+    setBrand(brand);
+    this.timesWorn = timesWorn;
+    this.lastWornDay = lastWornDay;
+  }
+
+  /**
+   * Creates a new clothing object that holds no state of its own, for subclasses that keep the description, brand,
+   * last worn date and number of times worn somewhere else and override the getters to read them from there.
+   */
+  Clothing() {
+  }
+
+  /**
+   * Sets the brand of this piece of clothing to an entry of the brand dictionary.
+   *
+   * @param brand - the brand of this piece of clothing
+   */
+  private void setBrand(BrandDictionary.Brand brand) {
+    this.brand = brand;
+    this.brandId = brand.id;
   }
 
   /**
@@ -73,7 +131,27 @@ public class Clothing {
   *
   * @return this clothing's brand
   */
-  public String getBrand() { return this.brand; }
+  public String getBrand() { return this.brand.name; }
+
+  /**
+   * Getter for the entry of the brand of this piece of clothing in the brand dictionary. Whatever keeps the brand of
+   * a piece of clothing must keep this entry, so that the brand id stays in use.
+   *
+   * @return this clothing's brand dictionary entry
+   */
+  BrandDictionary.Brand getBrandEntry() {
+    return this.brand;
+  }
+
+  /**
+   * Getter for the id of the brand of this piece of clothing. Two pieces of clothing have the same brand id exactly
+   * when their brands match ignoring case.
+   *
+   * @return this clothing's brand id
+   */
+  int getBrandId() {
+    return this.brandId;
+  }
 
   /**
   * Getter for the description of this piece of clothing.
@@ -85,12 +163,22 @@ public class Clothing {
   }
 
   /**
-   * Getter for the date that this piece of clothing was last worn.
+   * Getter for the date that this piece of clothing was last worn. The date is kept as an epoch day, so a new
+   * LocalDate is created on every call; use getLastWornEpochDay() to compare dates without creating any.
    *
-   * @return this clothing's last worn date
+   * @return this clothing's last worn date, null if it has never been worn
    */
   public LocalDate getLastWornDate() {
-    return this.lastWornDate;
+    return EpochDays.toDate(getLastWornEpochDay());
+  }
+
+  /**
+   * Getter for the date that this piece of clothing was last worn, as the number of days since 01/01/1970.
+   *
+   * @return this clothing's last worn date as an epoch day, NEVER_WORN if it has never been worn
+   */
+  public int getLastWornEpochDay() {
+    return (int) LAST_WORN_DAY.getAcquire(this);
   }
 
   /**
@@ -99,7 +187,7 @@ public class Clothing {
    * @return this clothing's number of times worn
    */
   public int getNumOfTimesWorn() {
-    return this.timesWorn;
+    return (int) TIMES_WORN.getAcquire(this);
   }
 
   /**
@@ -119,15 +207,61 @@ public class Clothing {
     // Check if the object is the same as the current instance
     if (this == o) return true;
 
-    // Check if the object is null or not of the Clothing class
-    if (o == null || getClass() != o.getClass()) return false;
+    // Check if the object is null or not a Clothing, views of clothing kept in other forms included
+    if (!(o instanceof Clothing)) return false;
 
     // Cast the object to Clothing since we've checked its type
     Clothing clothing = (Clothing) o;
 
-    // Compare brands and descriptions, ignoring case sensitivity
-    return clothing.getBrand().equalsIgnoreCase(this.brand)
-        && clothing.getDescription().equalsIgnoreCase(this.description);
+    // Compare brands and descriptions, ignoring case sensitivity; brands that match ignoring case share an id
+    return clothing.getBrandId() == this.getBrandId()
+        && clothing.getDescription().equalsIgnoreCase(this.getDescription());
+  }
+
+  /**
+   * Returns a hash code for this piece of clothing that is consistent with equals(), that is the description is
+   * hashed ignoring case and combined with the case-insensitive brand id. The description and brand never change, so
+   * the hash is computed once and cached.
+   *
+   * @return the hash code of this piece of clothing
+   */
+  @Override
+  public int hashCode() {
+    int h = this.hash;
+    if (h == 0) {
+      h = hash(getDescription(), getBrandId());
+      this.hash = h;
+    }
+    return h;
+  }
+
+  /**
+   * Computes the hash code of a piece of clothing with the given description and brand id, the same one
+   * hashCode() returns.
+   *
+   * @param description - the description of the piece of clothing
+   * @param brandId - the brand id of the piece of clothing
+   * @return the hash code of the piece of clothing
+   */
+  static int hash(String description, int brandId) {
+    return 31 * foldedHash(description) + brandId;
+  }
+
+  /**
+   * Hashes the given string ignoring case. Every code point is folded to lower case after upper case, the same way
+   * String.equalsIgnoreCase() compares them, so two strings that are equal ignoring case have the same folded hash.
+   *
+   * @param s - the string to hash
+   * @return the case-insensitive hash of s
+   */
+  static int foldedHash(String s) {
+    int h = 0;
+    for (int i = 0; i < s.length(); ) {
+      int codePoint = s.codePointAt(i);
+      h = 31 * h + Character.toLowerCase(Character.toUpperCase(codePoint));
+      i += Character.charCount(codePoint);
+    }
+    return h;
   }
 
   /**
@@ -137,27 +271,68 @@ public class Clothing {
    */
   @Override
   public String toString() {
-    String formattedDate = "";
-    if (this.lastWornDate == null) {
-      formattedDate = null;
-    } else {
-      int month = lastWornDate.getMonthValue();
-      int year = lastWornDate.getYear();
-      int day = lastWornDate.getDayOfMonth();
-      formattedDate = String.format("%02d/%02d/%d", month, day, year);
+    StringBuilder result = new StringBuilder();
+    try {
+      writeTo(result);
+    } catch (IOException e) {
+      throw new AssertionError(e); //a StringBuilder never throws an IOException
     }
+    return result.toString();
+  }
+
+  /**
+   * Writes the string representation of this Clothing object, formatted as description,brand,lastWornDate,timesWorn
+   * with the date formatted MM/DD/YYYY, to the given destination without building any intermediate strings.
+   *
+   * @param out - the destination to write to
+   * @throws IOException - if out cannot be written to
+   */
+  public void writeTo(Appendable out) throws IOException {
+    out.append(getDescription()).append(',').append(getBrand()).append(',');
+    EpochDays.appendDate(out, getLastWornEpochDay());
+    out.append(',');
+    appendNumber(out, getNumOfTimesWorn(), 1);
+  }
 
-    return this.description + "," + this.brand + "," + formattedDate + "," + this.timesWorn;
+  /**
+   * Writes the decimal digits of a number to the given destination, padded with leading zeros to at least the given
+   * number of digits.
+   *
+   * @param out - the destination to write to
+   * @param value - the number to write
+   * @param minDigits - the minimum number of digits to write
+   * @throws IOException - if out cannot be written to
+   */
+  static void appendNumber(Appendable out, int value, int minDigits) throws IOException {
+    long magnitude = value; //a long so that negating Integer.MIN_VALUE does not overflow
+    if (magnitude < 0) {
+      out.append('-');
+      magnitude = -magnitude;
+    }
+    //find the place value of the first digit to write
+    int digits = 1;
+    long place = 1;
+    while (place * 10 <= magnitude || digits < minDigits) {
+      place *= 10;
+      digits++;
+    }
+    for (; place > 0; place /= 10) {
+      out.append((char) ('0' + (magnitude / place) % 10));
+    }
   }
 
   /**
-   * Updates the number of times this piece of clothing has been worn and the last worn date
+   * Updates the number of times this piece of clothing has been worn and the last worn date. The last worn date
+   * only moves forward: a wear on a date before the last worn date is counted but keeps the later date. Several
+   * threads may wear the same piece of clothing at once without locking, and no wear is lost, including clothing
+   * returned by a Wardrobe, which keeps itself sorted by the new date and number of times worn.
    *
    * @param year - the year of the new last worn date
    * @param month - the month of the new last worn date
    * @param day - the day of the last worn date
    * @throws IllegalArgumentException - with a descriptive message if the year is less than 1,
    *                                    or the month is outside the range [1,12]
+   * @throws java.time.DateTimeException - if the day does not exist in the month
    */
   public void wearClothing(int year, int month, int day) throws IllegalArgumentException {
     //declare three variables to store the new information
@@ -182,8 +357,26 @@ public class Clothing {
     //assign the newLastWornDay with new information
     newLastWornDay = day;
 
-    this.lastWornDate = LocalDate.of(newLastWornYear, newLastWornMonth, newLastWornDay);
-    this.timesWorn++;
+    recordWears(1, EpochDays.of(newLastWornYear, newLastWornMonth, newLastWornDay));
+  }
 
+  /**
+   * Records that this piece of clothing was worn the given number of times, the latest of them on the given, already
+   * validated, date, atomically adding to the number of times worn and raising the last worn date to the given date
+   * if it is later.
+   *
+   * @param count - the number of wears
+   * @param epochDay - the date of the latest wear as an epoch day
+   */
+  void recordWears(int count, int epochDay) {
+    TIMES_WORN.getAndAdd(this, count);
+    int current = (int) LAST_WORN_DAY.getAcquire(this);
+    while (epochDay > current) {
+      int witness = (int) LAST_WORN_DAY.compareAndExchange(this, current, epochDay);
+      if (witness == current) {
+        break; //the date was raised
+      }
+      current = witness; //another thread changed the date first, try again against its date
+    }
   }
 }
@@ -0,0 +1,285 @@
+/**
+ * A reusable parser that turns text formatted "description,brand,lastWornDate,timesWorn" into Clothing. The parser
+ * works directly on a range of any CharSequence, so a line does not have to be copied out of a larger buffer first,
+ * and it reports a bad line through an error code and the column where the problem was found instead of throwing
+ * an exception. Only the description string is created for each piece of clothing; brands are looked up in the
+ * brand dictionary straight from the text, so a brand string is only created the first time a brand is seen.
+ * A ClothingParser is not thread safe; each thread should use its own. For use in the Wardrobe Manager project.
+ */
+public class ClothingParser {
+
+  /**
+   * The error code when the last parse succeeded.
+   */
+  public static final int OK = 0;
+
+  /**
+   * The error code when the text does not have exactly four comma separated fields.
+   */
+  public static final int WRONG_NUMBER_OF_FIELDS = 1;
+
+  /**
+   * The error code when the description is blank.
+   */
+  public static final int BLANK_DESCRIPTION = 2;
+
+  /**
+   * The error code when the brand is blank.
+   */
+  public static final int BLANK_BRAND = 3;
+
+  /**
+   * The error code when the last worn date is not formatted MM/DD/YYYY.
+   */
+  public static final int BAD_DATE_FORMAT = 4;
+
+  /**
+   * The error code when the last worn date is formatted MM/DD/YYYY but is not a real date.
+   */
+  public static final int INVALID_DATE = 5;
+
+  /**
+   * The error code when the number of times worn is not an int.
+   */
+  public static final int BAD_TIMES_WORN = 6;
+
+  //data fields
+  private BrandDictionary.Probe brandProbe; //looks up brands in the brand dictionary without copying them
+  private int errorCode; //the result of the last parse
+  private int errorColumn; //where the last parse failed, relative to the start of the text
+
+  /**
+   * Creates a new parser.
+   */
+  public ClothingParser() {
+    this.brandProbe = new BrandDictionary.Probe();
+    this.errorCode = OK;
+  }
+
+  /**
+   * Getter for the result of the last parse.
+   *
+   * @return OK if the last parse succeeded, otherwise one of the error codes of this class
+   */
+  public int getErrorCode() {
+    return this.errorCode;
+  }
+
+  /**
+   * Getter for where the last parse failed.
+   *
+   * @return the column, counted from the start of the parsed range, of the field that could not be parsed, or 0 if
+   *         the last parse succeeded
+   */
+  public int getErrorColumn() {
+    return this.errorColumn;
+  }
+
+  /**
+   * Describes an error code of this class.
+   *
+   * @param errorCode - the error code to describe
+   * @return a descriptive message for the error code
+   */
+  public static String describe(int errorCode) {
+    switch (errorCode) {
+      case OK:
+        return "No error";
+      case WRONG_NUMBER_OF_FIELDS:
+        return "Incorrect number of fields";
+      case BLANK_DESCRIPTION:
+        return "No information provided for description.";
+      case BLANK_BRAND:
+        return "No information provided for brand.";
+      case BAD_DATE_FORMAT:
+        return "Date format should be MM/dd/yyyy";
+      case INVALID_DATE:
+        return "Error parsing the lastWornDate";
+      case BAD_TIMES_WORN:
+        return "Times worn is not an integer";
+      default:
+        return "Unknown error: " + errorCode;
+    }
+  }
+
+  /**
+   * Parses the given text into a piece of clothing.
+   *
+   * @param text - the text to parse
+   * @return the parsed piece of clothing, or null if the text is not properly formatted
+   */
+  public Clothing parse(CharSequence text) {
+    return parse(text, 0, text.length());
+  }
+
+  /**
+   * Parses a range of the given text, formatted description,brand,lastWornDate,timesWorn, into a piece of clothing.
+   * The date must be formatted MM/DD/YYYY, or be null or empty for clothing that has never been worn. Like
+   * String.split(), trailing commas are ignored. If the range is not properly formatted null is returned, and
+   * getErrorCode() and getErrorColumn() tell what went wrong and where.
+   *
+   * @param text - the text holding the piece of clothing
+   * @param start - the index of the first character to parse
+   * @param end - the index after the last character to parse
+   * @return the parsed piece of clothing, or null if the range is not properly formatted
+   */
+  public Clothing parse(CharSequence text, int start, int end) {
+    //ignore trailing commas, then find the three commas between the four fields in one scan
+    while (end > start && text.charAt(end - 1) == ',') {
+      end--;
+    }
+    int firstComma = -1;
+    int secondComma = -1;
+    int thirdComma = -1;
+    for (int i = start; i < end; i++) {
+      if (text.charAt(i) == ',') {
+        if (firstComma < 0) {
+          firstComma = i;
+        } else if (secondComma < 0) {
+          secondComma = i;
+        } else if (thirdComma < 0) {
+          thirdComma = i;
+        } else {
+          return fail(WRONG_NUMBER_OF_FIELDS, i, start); //more than four fields
+        }
+      }
+    }
+    if (thirdComma < 0) {
+      return fail(WRONG_NUMBER_OF_FIELDS, end, start);
+    }
+
+    if (isBlank(text, start, firstComma)) {
+      return fail(BLANK_DESCRIPTION, start, start);
+    }
+    if (isBlank(text, firstComma + 1, secondComma)) {
+      return fail(BLANK_BRAND, firstComma + 1, start);
+    }
+
+    //a date of null, or no date at all, means the clothing has never been worn
+    int lastWornDay = EpochDays.NEVER_WORN;
+    int dateStart = secondComma + 1;
+    if (!isNeverWorn(text, dateStart, thirdComma)) {
+      if (thirdComma - dateStart != 10 || text.charAt(dateStart + 2) != '/' || text.charAt(dateStart + 5) != '/') {
+        return fail(BAD_DATE_FORMAT, dateStart, start);
+      }
+      int month = parseDigits(text, dateStart, dateStart + 2);
+      int day = parseDigits(text, dateStart + 3, dateStart + 5);
+      int year = parseDigits(text, dateStart + 6, thirdComma);
+      if (month < 0 || day < 0 || year < 0) {
+        return fail(BAD_DATE_FORMAT, dateStart, start);
+      }
+      if (month < 1 || month > 12 || day < 1 || day > EpochDays.lengthOfMonth(year, month)) {
+        return fail(INVALID_DATE, dateStart, start);
+      }
+      lastWornDay = EpochDays.of(year, month, day);
+    }
+
+    long timesWorn = parseInt(text, thirdComma + 1, end);
+    if (timesWorn == Long.MIN_VALUE) {
+      return fail(BAD_TIMES_WORN, thirdComma + 1, start);
+    }
+
+    this.errorCode = OK;
+    this.errorColumn = 0;
+    String description = text.subSequence(start, firstComma).toString();
+    BrandDictionary.Brand brand = BrandDictionary.GLOBAL.intern(brandProbe, text, firstComma + 1, secondComma);
+    return new Clothing(description, brand, (int) timesWorn, lastWornDay);
+  }
+
+  /**
+   * Records why the last parse failed.
+   *
+   * @param code - the error code
+   * @param index - the index in the text where the problem was found
+   * @param start - the index where the parsed range starts
+   * @return null, so that parse() can return the result directly
+   */
+  private Clothing fail(int code, int index, int start) {
+    this.errorCode = code;
+    this.errorColumn = index - start;
+    return null;
+  }
+
+  /**
+   * Checks if a range of the text holds nothing but whitespace, the same way String.isBlank() does.
+   *
+   * @param text - the text to check
+   * @param start - the index of the first character of the range
+   * @param end - the index after the last character of the range
+   * @return true if the range is empty or only whitespace, false otherwise
+   */
+  private static boolean isBlank(CharSequence text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!Character.isWhitespace(text.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if a range of the text is a never worn date, that is "null" or empty.
+   *
+   * @param text - the text to check
+   * @param start - the index of the first character of the date
+   * @param end - the index after the last character of the date
+   * @return true if the range is "null" or empty, false otherwise
+   */
+  private static boolean isNeverWorn(CharSequence text, int start, int end) {
+    return start == end || (end - start == 4 && text.charAt(start) == 'n' && text.charAt(start + 1) == 'u'
+                            && text.charAt(start + 2) == 'l' && text.charAt(start + 3) == 'l');
+  }
+
+  /**
+   * Parses a run of decimal digits from a range of the text.
+   *
+   * @param text - the text holding the digits
+   * @param start - the index of the first digit
+   * @param end - the index after the last digit
+   * @return the value of the digits, or -1 if any character in the range is not a digit
+   */
+  private static int parseDigits(CharSequence text, int start, int end) {
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  /**
+   * Parses an int, with an optional leading sign, from a range of the text. Accepts the same numbers as
+   * Integer.parseInt().
+   *
+   * @param text - the text holding the number
+   * @param start - the index of the first character of the number
+   * @param end - the index after the last character of the number
+   * @return the parsed number, or Long.MIN_VALUE if the range is not an int
+   */
+  private static long parseInt(CharSequence text, int start, int end) {
+    boolean negative = false;
+    if (start < end && (text.charAt(start) == '-' || text.charAt(start) == '+')) {
+      negative = text.charAt(start) == '-';
+      start++;
+    }
+    if (start == end) {
+      return Long.MIN_VALUE; //no digits
+    }
+    long value = 0;
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c < '0' || c > '9') {
+        return Long.MIN_VALUE;
+      }
+      value = value * 10 + (c - '0');
+      if (value > (long) Integer.MAX_VALUE + 1) {
+        return Long.MIN_VALUE; //too large to be an int
+      }
+    }
+    value = negative ? -value : value;
+    return (value > Integer.MAX_VALUE) ? Long.MIN_VALUE : value;
+  }
+}
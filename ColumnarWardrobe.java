@@ -0,0 +1,825 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * An instantiable class that represents a Wardrobe that stores its clothing column by column instead of as an array
+ * of Clothing objects. Every piece of clothing is given a slot, and each of its fields is kept in an array of its
+ * own indexed by slot: last worn dates as epoch day ints, numbers of times worn as ints, brands as brand ids next to
+ * their shared brand dictionary entries, and descriptions as references. Filters and purges by date or number of
+ * times worn scan these dense int arrays instead of following a reference to every piece of clothing and its
+ * LocalDate, and pieces of clothing are looked up by description and brand through a hash table of slot numbers.
+ * Unlike Wardrobe, this wardrobe keeps no index sorted by date or number of times worn, so that a wear only updates
+ * two ints, which ConcurrentWardrobe relies on to let many threads wear clothing at once under a shared lock. The
+ * query methods therefore scan a whole column, taking O(n) time on top of sorting what they find.
+ *
+ * The Clothing returned by this wardrobe are lightweight views that read and write the columns directly, so wearing
+ * a view wears the clothing in the wardrobe. A view stays valid for as long as its piece of clothing is in the
+ * wardrobe and throws an IllegalStateException once it has been removed. Clothing passed to addClothing() is copied
+ * into the columns, and clothing returned by removeAllClothingMatching() is copied out of them. Ties in the query
+ * methods are broken by wardrobe order. For use in the Wardrobe Manager project.
+ */
+public class ColumnarWardrobe extends Wardrobe {
+
+  private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class); //atomic column access
+
+  //data fields, every column is indexed by slot
+  private String[] descriptions;
+  private BrandDictionary.Brand[] brands; //the brand dictionary entries, which keep the brand ids in use
+  private int[] brandIds;
+  private int[] hashes; //the hash code of each piece of clothing, as returned by Clothing.hashCode()
+  private int[] epochDays; //the last worn dates, EpochDays.NEVER_WORN for clothing that has never been worn
+  private int[] timesWorn;
+  private int[] generations; //how many times each slot has been freed, so views of removed clothing can tell
+  private int[] order; //the slots of the clothing in wardrobe order
+  private int size;
+  private int[] freeSlots; //slots freed by removals, reused before slots that have never been used
+  private int freeCount;
+  private int usedSlots; //every slot at or after this one has never been used
+  private int[] table; //open addressing hash table holding slot + 1 for every piece of clothing, 0 for no entry
+
+  /**
+   * A piece of clothing in this wardrobe, read and written straight from the columns.
+   */
+  private final class View extends Clothing {
+    private final int slot;
+    private final int generation; //the generation of the slot when this view was created
+
+    /**
+     * Creates a view of the piece of clothing in the given slot.
+     *
+     * @param slot - the slot of the piece of clothing
+     */
+    View(int slot) {
+      this.slot = slot;
+      this.generation = generations[slot];
+    }
+
+    @Override
+    public String getBrand() {
+      return brandOf(slot, generation).name;
+    }
+
+    @Override
+    BrandDictionary.Brand getBrandEntry() {
+      return brandOf(slot, generation);
+    }
+
+    @Override
+    int getBrandId() {
+      return brandIdOf(slot, generation);
+    }
+
+    @Override
+    public String getDescription() {
+      return descriptionOf(slot, generation);
+    }
+
+    @Override
+    public int getLastWornEpochDay() {
+      return lastWornEpochDayOf(slot, generation);
+    }
+
+    @Override
+    public int getNumOfTimesWorn() {
+      return timesWornOf(slot, generation);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashOf(slot, generation);
+    }
+
+    @Override
+    void recordWears(int count, int epochDay) {
+      wear(slot, generation, count, epochDay);
+    }
+  }
+
+  //constructor
+
+  /**
+   * Creates a new ColumnarWardrobe object that is empty with the given capacity.
+   *
+   * @param capacity - the number of clothing that the wardrobe can fit
+   * @throws IllegalArgumentException - with a descriptive message if the capacity is non-positive
+   *                                   (less than or equal to 0)
+   */
+  public ColumnarWardrobe(int capacity) {
+    //check if the capacity is non-positive
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Invalid information about capacity: " + capacity);
+    }
+    descriptions = new String[capacity];
+    brands = new BrandDictionary.Brand[capacity];
+    brandIds = new int[capacity];
+    hashes = new int[capacity];
+    epochDays = new int[capacity];
+    timesWorn = new int[capacity];
+    generations = new int[capacity];
+    order = new int[capacity];
+    freeSlots = new int[capacity];
+    table = new int[tableSizeFor(capacity)];
+  }
+
+  @Override
+  public int capacity() {
+    return this.order.length;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets an array holding views of all the Clothing in the wardrobe, in wardrobe order, as long as the capacity of
+   * the wardrobe.
+   *
+   * @return the wardrobe array
+   */
+  @Override
+  protected Clothing[] getArray() {
+    Clothing[] array = new Clothing[capacity()];
+    for (int i = 0; i < size; i++) {
+      array[i] = clothingAt(i);
+    }
+    return array;
+  }
+
+  @Override
+  Clothing clothingAt(int position) {
+    return new View(order[position]);
+  }
+
+  @Override
+  public void addClothing(Clothing toAdd) throws IllegalArgumentException {
+    long start = System.nanoTime();
+    try {
+      //check that there is a piece of clothing to add
+      if (toAdd == null) {
+        throw new IllegalArgumentException("Cannot add a null piece of clothing to the wardrobe.");
+      }
+      String description = toAdd.getDescription();
+      int brandId = toAdd.getBrandId();
+      int hash = toAdd.hashCode();
+      if (find(description, brandId, hash) >= 0) {
+        throw new IllegalArgumentException("The item is already in the wardrobe.");
+      }
+      if (size == capacity()) {
+        ensureCapacity(size + 1);
+      }
+
+      //take a freed slot if there is one, and copy the piece of clothing into it
+      int slot = (freeCount > 0) ? freeSlots[--freeCount] : usedSlots++;
+      descriptions[slot] = description;
+      brands[slot] = toAdd.getBrandEntry();
+      brandIds[slot] = brandId;
+      hashes[slot] = hash;
+      epochDays[slot] = toAdd.getLastWornEpochDay();
+      timesWorn[slot] = toAdd.getNumOfTimesWorn();
+      order[size++] = slot;
+      insert(slot);
+      added(slot, toAdd);
+      markDirty(toAdd);
+    } finally {
+      getMetrics().record(WardrobeMetrics.ADD, start);
+    }
+  }
+
+  @Override
+  boolean addIfAbsent(Clothing toAdd) {
+    if (find(toAdd.getDescription(), toAdd.getBrandId(), toAdd.hashCode()) >= 0) {
+      return false;
+    }
+    addClothing(toAdd);
+    return true;
+  }
+
+  @Override
+  void ensureCapacity(int minCapacity) {
+    if (minCapacity <= capacity()) {
+      return;
+    }
+    long newCapacity = capacity();
+    while (newCapacity < minCapacity) {
+      newCapacity *= 2;
+    }
+    int length = (int) Math.min(newCapacity, Integer.MAX_VALUE - 8);
+    descriptions = Arrays.copyOf(descriptions, length);
+    brands = Arrays.copyOf(brands, length);
+    brandIds = Arrays.copyOf(brandIds, length);
+    hashes = Arrays.copyOf(hashes, length);
+    epochDays = Arrays.copyOf(epochDays, length);
+    timesWorn = Arrays.copyOf(timesWorn, length);
+    generations = Arrays.copyOf(generations, length);
+    order = Arrays.copyOf(order, length);
+    freeSlots = Arrays.copyOf(freeSlots, length);
+
+    //rebuild the hash table so that it stays at most half full
+    if (tableSizeFor(length) > table.length) {
+      table = new int[tableSizeFor(length)];
+      for (int i = 0; i < size; i++) {
+        insert(order[i]);
+      }
+    }
+  }
+
+  @Override
+  Clothing findClothing(String description, String brand) {
+    int slot = findSlot(description, brand);
+    return (slot < 0) ? null : new View(slot);
+  }
+
+  @Override
+  public void wearClothing(Clothing toWear, int year, int month, int day) {
+    long start = System.nanoTime();
+    try {
+      //check the validity of year and month information
+      if (year < 1 || month < 1 || month > 12) {
+        throw new IllegalArgumentException("Invalid year or month: " + year + ", " + month);
+      }
+
+      //find the clothing and wear it
+      int slot = (toWear == null) ? -1 : find(toWear.getDescription(), toWear.getBrandId(), toWear.hashCode());
+      if (slot >= 0) {
+        wear(slot, 1, EpochDays.of(year, month, day));
+      }
+    } finally {
+      getMetrics().record(WardrobeMetrics.WEAR, start);
+    }
+  }
+
+  /**
+   * Applies the given number of wears to a piece of clothing found by findClothing().
+   *
+   * @param cloth - a view of the piece of clothing, returned by findClothing()
+   * @param count - the number of wears
+   * @param epochDay - the date of the latest wear as an epoch day
+   */
+  @Override
+  void applyWears(Clothing cloth, int count, int epochDay) {
+    View view = (View) cloth;
+    wear(view.slot, view.generation, count, epochDay);
+  }
+
+  @Override
+  public void removeClothing(String description, String brand) {
+    long start = System.nanoTime();
+    try {
+      //check if the wardrobe is empty
+      if (size == 0) {
+        throw new IllegalStateException("The wardrobe is empty");
+      }
+
+      int slot = findSlot(description, brand);
+      if (slot < 0) {
+        throw new NoSuchElementException("The clothing does not exist in the wardrobe.");
+      }
+      markRemoved(slot);
+      for (int i = 0; i < size; i++) {
+        if (order[i] == slot) {
+          // Shift all slots after it down by one position
+          System.arraycopy(order, i + 1, order, i, size - 1 - i);
+          size--;
+          break;
+        }
+      }
+      free(slot);
+    } finally {
+      getMetrics().record(WardrobeMetrics.REMOVE, start);
+    }
+  }
+
+  /**
+   * Removes every piece of clothing that matches the given condition from the wardrobe in a single pass.
+   * The remaining pieces of clothing keep their original order. The condition is tested on views of the clothing.
+   *
+   * @param toRemove - the condition that a piece of clothing must meet to be removed
+   * @return copies of the pieces of clothing that were removed, in the order they appeared in the wardrobe
+   */
+  @Override
+  public Clothing[] removeAllClothingMatching(Predicate<Clothing> toRemove) {
+    ArrayList<Clothing> removed = new ArrayList<>();
+    removeSlotsMatching(slot -> toRemove.test(new View(slot)), removed);
+    return removed.toArray(new Clothing[0]);
+  }
+
+  /**
+   * remove all piece of clothing from the wardrobe whole last worn date is Before the given day, month, year.
+   * Clothing that has never been worn is removed as well. The dates are compared as epoch days in a single scan of
+   * the last worn date column.
+   *
+   * @param year - the year of the date to use to remove clothing
+   * @param month - month to use to remove cloth
+   * @param day - day to use to remove cloth
+   * @return the number of pieces of clothing removed
+   */
+  @Override
+  public int removeAllClothingWornBefore(int year, int month, int day) {
+    long start = System.nanoTime();
+    WardrobeEvents.RemoveAll event = new WardrobeEvents.RemoveAll();
+    event.begin();
+    try {
+      int before = EpochDays.of(year, month, day);
+      int removed = removeSlotsMatching(slot -> epochDays[slot] < before, null); //never worn is before every date
+      WardrobeEvents.commitRemoveWornBefore(event, before, removed, size);
+      return removed;
+    } finally {
+      getMetrics().record(WardrobeMetrics.REMOVE_WORN_BEFORE, start);
+    }
+  }
+
+  @Override
+  public Clothing[] getClothingWornBefore(LocalDate date) {
+    int before = EpochDays.clamp(date);
+    return collectSorted(epochDays, slot -> epochDays[slot] < before, false, size);
+  }
+
+  @Override
+  public Clothing[] getClothingWornBetween(LocalDate from, LocalDate to) {
+    int first = EpochDays.clamp(from);
+    int last = EpochDays.clamp(to);
+    return collectSorted(epochDays, slot -> epochDays[slot] >= first && epochDays[slot] <= last, false, size);
+  }
+
+  /**
+   * remove all pieces of clothing from the wardrobe who have been worn fewer times than the given threshold,
+   * in a single scan of the times worn column.
+   *
+   * @param threshold the upperbound(exclusive) of number of times worn
+   * @return the number of pieces of clothing removed
+   */
+  @Override
+  public int removeAllClothingWornNumTimes(int threshold) {
+    long start = System.nanoTime();
+    WardrobeEvents.RemoveAll event = new WardrobeEvents.RemoveAll();
+    event.begin();
+    try {
+      int removed = removeSlotsMatching(slot -> timesWorn[slot] < threshold, null);
+      WardrobeEvents.commitRemoveWornNumTimes(event, threshold, removed, size);
+      return removed;
+    } finally {
+      getMetrics().record(WardrobeMetrics.REMOVE_WORN_NUM_TIMES, start);
+    }
+  }
+
+  @Override
+  public Clothing[] getClothingWornFewerThan(int threshold) {
+    return collectSorted(timesWorn, slot -> timesWorn[slot] < threshold, false, size);
+  }
+
+  @Override
+  public Clothing[] getMostWornClothing(int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("Invalid number of pieces of clothing: " + k);
+    }
+    return collectSorted(timesWorn, slot -> true, true, k);
+  }
+
+  @Override
+  public Clothing[] getLeastWornClothing(int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("Invalid number of pieces of clothing: " + k);
+    }
+    return collectSorted(timesWorn, slot -> true, false, k);
+  }
+
+  /**
+   * Wears the piece of clothing a view points at the given number of times, after checking that it is still in the
+   * wardrobe. The check and the wear are made in one call so that a subclass that locks the wardrobe can make both
+   * under its lock; otherwise the piece of clothing could be removed, and its slot reused by another one, in between.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param generation - the generation of the slot when the view was created
+   * @param count - the number of wears
+   * @param epochDay - the date of the latest wear as an epoch day
+   * @throws IllegalStateException - with a descriptive message if the piece of clothing has been removed
+   */
+  void wear(int slot, int generation, int count, int epochDay) {
+    checkGeneration(slot, generation);
+    wear(slot, count, epochDay);
+  }
+
+  /**
+   * Checks that the piece of clothing a view points at is still in the wardrobe.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param generation - the generation of the slot when the view was created
+   * @throws IllegalStateException - with a descriptive message if the piece of clothing has been removed
+   */
+  private void checkGeneration(int slot, int generation) {
+    if (generations[slot] != generation) {
+      throw new IllegalStateException("The clothing has been removed from the wardrobe.");
+    }
+  }
+
+  //the readers below are what views read their clothing through. Like wear(), each one checks that the piece of
+  //clothing is still in the wardrobe and reads it in one call, so that a subclass that locks the wardrobe can make both
+  //under its lock; otherwise the slot could be reused by another piece of clothing, or its column replaced by a larger
+  //one, in between.
+
+  /**
+   * Reads the description of the piece of clothing a view points at.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param generation - the generation of the slot when the view was created
+   * @return the description of the piece of clothing
+   * @throws IllegalStateException - with a descriptive message if the piece of clothing has been removed
+   */
+  String descriptionOf(int slot, int generation) {
+    checkGeneration(slot, generation);
+    return descriptions[slot];
+  }
+
+  /**
+   * Reads the brand dictionary entry of the piece of clothing a view points at.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param generation - the generation of the slot when the view was created
+   * @return the brand dictionary entry of the piece of clothing
+   * @throws IllegalStateException - with a descriptive message if the piece of clothing has been removed
+   */
+  BrandDictionary.Brand brandOf(int slot, int generation) {
+    checkGeneration(slot, generation);
+    return brands[slot];
+  }
+
+  /**
+   * Reads the brand id of the piece of clothing a view points at.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param generation - the generation of the slot when the view was created
+   * @return the brand id of the piece of clothing
+   * @throws IllegalStateException - with a descriptive message if the piece of clothing has been removed
+   */
+  int brandIdOf(int slot, int generation) {
+    checkGeneration(slot, generation);
+    return brandIds[slot];
+  }
+
+  /**
+   * Reads the hash code of the piece of clothing a view points at.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param generation - the generation of the slot when the view was created
+   * @return the hash code of the piece of clothing
+   * @throws IllegalStateException - with a descriptive message if the piece of clothing has been removed
+   */
+  int hashOf(int slot, int generation) {
+    checkGeneration(slot, generation);
+    return hashes[slot];
+  }
+
+  /**
+   * Reads the last worn date of the piece of clothing a view points at.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param generation - the generation of the slot when the view was created
+   * @return the last worn date as an epoch day, NEVER_WORN if it has never been worn
+   * @throws IllegalStateException - with a descriptive message if the piece of clothing has been removed
+   */
+  int lastWornEpochDayOf(int slot, int generation) {
+    checkGeneration(slot, generation);
+    return (int) INTS.getAcquire(epochDays, slot);
+  }
+
+  /**
+   * Reads the number of times worn of the piece of clothing a view points at.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param generation - the generation of the slot when the view was created
+   * @return the number of times the piece of clothing has been worn
+   * @throws IllegalStateException - with a descriptive message if the piece of clothing has been removed
+   */
+  int timesWornOf(int slot, int generation) {
+    checkGeneration(slot, generation);
+    return (int) INTS.getAcquire(timesWorn, slot);
+  }
+
+  /**
+   * Wears the piece of clothing in the given slot the given number of times, the same way Clothing.wearClothing()
+   * does: the number of times worn is added to atomically, and the last worn date is raised to the date of the latest
+   * wear if it is later, so wears of the same slot from several threads are never lost.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param count - the number of wears
+   * @param epochDay - the date of the latest wear as an epoch day
+   */
+  void wear(int slot, int count, int epochDay) {
+    int[] days = epochDays;
+    INTS.getAndAdd(timesWorn, slot, count);
+    int current = (int) INTS.getAcquire(days, slot);
+    while (epochDay > current) {
+      int witness = (int) INTS.compareAndExchange(days, slot, current, epochDay);
+      if (witness == current) {
+        break; //the date was raised
+      }
+      current = witness; //another thread changed the date first, try again against its date
+    }
+    markDirty(slot);
+  }
+
+  /**
+   * Remembers that the piece of clothing in the given slot changed since the last save, the same way as
+   * markDirty(Clothing). The view markDirty(Clothing) needs is only created while changes are being tracked, so
+   * wearing and removing clothing allocate nothing otherwise.
+   *
+   * @param slot - the slot of the piece of clothing that changed
+   */
+  private void markDirty(int slot) {
+    if (isTrackingChanges()) {
+      markDirty(new View(slot));
+    }
+  }
+
+  /**
+   * Remembers that the piece of clothing in the given slot is being removed, the same way as markDirty(int).
+   *
+   * @param slot - the slot of the piece of clothing being removed
+   */
+  private void markRemoved(int slot) {
+    if (isTrackingChanges()) {
+      markRemoved(new View(slot));
+    }
+  }
+
+  /**
+   * Called after a piece of clothing has been copied into the given slot, so that a subclass that also keeps the
+   * clothing somewhere else can store it there. Does nothing here.
+   *
+   * @param slot - the slot the piece of clothing was copied into
+   * @param cloth - the piece of clothing that was added
+   */
+  void added(int slot, Clothing cloth) {
+  }
+
+  /**
+   * Called when the given slot is about to be freed because its piece of clothing was removed, so that a subclass
+   * that also keeps the clothing somewhere else can remove it there. Does nothing here.
+   *
+   * @param slot - the slot that is about to be freed
+   */
+  void freed(int slot) {
+  }
+
+  /**
+   * Getter for the number of times the piece of clothing in the given slot has been worn.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @return the number of times worn
+   */
+  int timesWornAt(int slot) {
+    return (int) INTS.getAcquire(timesWorn, slot);
+  }
+
+  /**
+   * Getter for the last worn date of the piece of clothing in the given slot.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @return the last worn date as an epoch day, EpochDays.NEVER_WORN if it has never been worn
+   */
+  int lastWornDayAt(int slot) {
+    return (int) INTS.getAcquire(epochDays, slot);
+  }
+
+  /**
+   * Removes every piece of clothing whose slot matches the given condition in a single pass over the wardrobe order,
+   * keeping the order of the rest.
+   *
+   * @param toRemove - the condition that the slot of a piece of clothing must meet for it to be removed
+   * @param removed - receives copies of the removed clothing in wardrobe order, or null if they are not needed
+   * @return the number of pieces of clothing removed
+   */
+  private int removeSlotsMatching(IntPredicate toRemove, ArrayList<Clothing> removed) {
+    int kept = 0; //the number of pieces of clothing kept so far, and where the next one goes
+    for (int i = 0; i < size; i++) {
+      int slot = order[i];
+      if (toRemove.test(slot)) {
+        if (removed != null) {
+          removed.add(copyOf(slot));
+        }
+        markRemoved(slot);
+        free(slot);
+      } else {
+        order[kept++] = slot;
+      }
+    }
+    int count = size - kept;
+    size = kept;
+    return count;
+  }
+
+  /**
+   * Finds the pieces of clothing whose slot matches the given condition, sorted by one of the int columns. The whole
+   * column is scanned, since this wardrobe keeps no sorted index, but only the matching clothing is sorted, and when
+   * fewer pieces of clothing than the wardrobe holds are asked for, only that many are kept, in a bounded heap, so
+   * finding the k most or least worn pieces of clothing takes O(n log k) time and O(k) space.
+   *
+   * @param column - the column to sort by
+   * @param matches - the condition that the slot of a piece of clothing must meet to be included
+   * @param descending - true to sort from the largest value to the smallest, false for the other way around
+   * @param limit - the maximum number of pieces of clothing to return
+   * @return views of the first limit matching pieces of clothing in sorted order, ties in wardrobe order
+   */
+  private Clothing[] collectSorted(int[] column, IntPredicate matches, boolean descending, int limit) {
+    if (limit == 0) {
+      return new Clothing[0];
+    }
+    //pack each value with the position of its clothing so that one primitive sort orders both
+    boolean bounded = limit < size; //keep only the limit smallest keys, in a heap with the largest of them on top
+    long[] found = new long[Math.min(limit, size)];
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      int slot = order[i];
+      if (matches.test(slot)) {
+        int value = descending ? ~column[slot] : column[slot]; //~ reverses the order without overflowing
+        long key = ((long) value << 32) | i;
+        if (!bounded) {
+          found[count++] = key;
+        } else if (count < found.length) {
+          siftUp(found, count++, key);
+        } else if (key < found[0]) {
+          siftDown(found, count, key); //replaces the largest key kept so far
+        }
+      }
+    }
+    Arrays.sort(found, 0, count);
+    Clothing[] result = new Clothing[count];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new View(order[(int) found[i]]);
+    }
+    return result;
+  }
+
+  /**
+   * Adds a key to a heap with the largest key on top, by moving it up from the given free position at its end.
+   *
+   * @param heap - the keys of the heap
+   * @param position - the position after the last key of the heap
+   * @param key - the key to add
+   */
+  private static void siftUp(long[] heap, int position, long key) {
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (heap[parent] >= key) {
+        break;
+      }
+      heap[position] = heap[parent];
+      position = parent;
+    }
+    heap[position] = key;
+  }
+
+  /**
+   * Replaces the top key of a heap with the largest key on top by the given key, moving it down to its place.
+   *
+   * @param heap - the keys of the heap
+   * @param count - the number of keys in the heap
+   * @param key - the key to put in place of the top key
+   */
+  private static void siftDown(long[] heap, int count, long key) {
+    int position = 0;
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= count) {
+        break;
+      }
+      if (child + 1 < count && heap[child + 1] > heap[child]) {
+        child++; //the larger of the two children
+      }
+      if (heap[child] <= key) {
+        break;
+      }
+      heap[position] = heap[child];
+      position = child;
+    }
+    heap[position] = key;
+  }
+
+  /**
+   * Copies the piece of clothing in the given slot out of the columns.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @return a new Clothing object with the same information
+   */
+  private Clothing copyOf(int slot) {
+    return new Clothing(descriptions[slot], brands[slot], timesWorn[slot], epochDays[slot]);
+  }
+
+  /**
+   * Frees the slot of a piece of clothing that has been taken out of the wardrobe order, so it can be reused.
+   *
+   * @param slot - the slot to free
+   */
+  private void free(int slot) {
+    freed(slot);
+    delete(slot);
+    descriptions[slot] = null;
+    brands[slot] = null;
+    generations[slot]++; //views of this slot are no longer valid
+    freeSlots[freeCount++] = slot;
+  }
+
+  /**
+   * Looks up the slot of the piece of clothing with the matching description and brand.
+   * The comparisons are CASE INSENSITIVE.
+   *
+   * @param description - the description of the piece of clothing to find
+   * @param brand - the brand of the piece of clothing to find
+   * @return the slot of the matching piece of clothing, or -1 if there is none
+   */
+  private int findSlot(String description, String brand) {
+    //a blank description or brand can never match, since Clothing does not allow them
+    if (description == null || description.isBlank() || brand == null || brand.isBlank()) {
+      return -1;
+    }
+    //a brand that is not in the brand dictionary cannot be in the wardrobe either
+    BrandDictionary.Brand knownBrand = BrandDictionary.GLOBAL.find(brand);
+    if (knownBrand == null) {
+      return -1;
+    }
+    return find(description, knownBrand.id, Clothing.hash(description, knownBrand.id));
+  }
+
+  /**
+   * Looks up a piece of clothing in the hash table.
+   *
+   * @param description - the description of the piece of clothing
+   * @param brandId - the brand id of the piece of clothing
+   * @param hash - the hash code of the piece of clothing
+   * @return the slot of the piece of clothing, or -1 if it is not in the wardrobe
+   */
+  private int find(String description, int brandId, int hash) {
+    int mask = table.length - 1;
+    for (int i = spread(hash) & mask; table[i] != 0; i = (i + 1) & mask) {
+      int slot = table[i] - 1;
+      if (hashes[slot] == hash && brandIds[slot] == brandId && descriptions[slot].equalsIgnoreCase(description)) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Adds the piece of clothing in the given slot to the hash table.
+   *
+   * @param slot - the slot of the piece of clothing
+   */
+  private void insert(int slot) {
+    int mask = table.length - 1;
+    int i = spread(hashes[slot]) & mask;
+    while (table[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    table[i] = slot + 1;
+  }
+
+  /**
+   * Removes the piece of clothing in the given slot from the hash table. The entries after it in the same run are
+   * shifted back where needed so that every entry can still be reached from its home position without tombstones.
+   *
+   * @param slot - the slot of the piece of clothing
+   */
+  private void delete(int slot) {
+    int mask = table.length - 1;
+    int i = spread(hashes[slot]) & mask;
+    while (table[i] != slot + 1) {
+      i = (i + 1) & mask;
+    }
+    for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+      int home = spread(hashes[table[j] - 1]) & mask;
+      //the entry at j can fill the gap at i only if the gap lies between its home and j
+      if (((j - home) & mask) >= ((j - i) & mask)) {
+        table[i] = table[j];
+        i = j;
+      }
+    }
+    table[i] = 0;
+  }
+
+  /**
+   * Mixes the high bits of a hash code into the low bits, which pick the position in the hash table.
+   *
+   * @param hash - the hash code
+   * @return the spread hash code
+   */
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Finds the size of the hash table for the given capacity, a power of two at least twice the capacity.
+   *
+   * @param capacity - the capacity of the wardrobe
+   * @return the size of the hash table
+   */
+  private static int tableSizeFor(int capacity) {
+    return Integer.highestOneBit((int) Math.min((long) capacity * 2 - 1, (1 << 30) - 1)) << 1;
+  }
+}
@@ -0,0 +1,461 @@
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * An instantiable class that represents a Wardrobe that can be shared by many threads. It keeps its clothing in the
+ * columns of a ColumnarWardrobe, where wearing a piece of clothing only updates two ints and no index, and guards them
+ * with a read/write lock over the structure of the wardrobe. Looking up, wearing, querying and saving clothing take the
+ * read lock and run in parallel; adding and removing clothing take the write lock, since they move slots around and may
+ * replace the columns with larger ones, and so do saves that swap out the changes remembered for the next incremental
+ * save, so that no wear is remembered in changes that are being dropped. Wears themselves need no further locking: the
+ * number of times worn and the last worn date of a slot are updated with atomic operations, so two threads wearing the
+ * same piece of clothing never lose a wear. Views returned by this wardrobe read and wear their clothing under the same
+ * lock, so a view never shows the information of another piece of clothing that took over its slot. Queries may run
+ * while other threads are wearing clothing, in which case they see every wear that completed before they started and
+ * possibly some of the ones made during the query. For use in the Wardrobe Manager project.
+ */
+public class ConcurrentWardrobe extends ColumnarWardrobe {
+
+  //data fields
+  private final ReentrantReadWriteLock lock; //guards the structure of the wardrobe
+
+  //constructor
+
+  /**
+   * Creates a new ConcurrentWardrobe object that is empty with the given capacity.
+   *
+   * @param capacity - the number of clothing that the wardrobe can fit
+   * @throws IllegalArgumentException - with a descriptive message if the capacity is non-positive
+   *                                   (less than or equal to 0)
+   */
+  public ConcurrentWardrobe(int capacity) {
+    super(capacity);
+    lock = new ReentrantReadWriteLock();
+  }
+
+  @Override
+  public int capacity() {
+    lock.readLock().lock();
+    try {
+      return super.capacity();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return super.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  protected Clothing[] getArray() {
+    lock.readLock().lock();
+    try {
+      return super.getArray();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void addClothing(Clothing toAdd) throws IllegalArgumentException {
+    lock.writeLock().lock();
+    try {
+      super.addClothing(toAdd);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  boolean addIfAbsent(Clothing toAdd) {
+    lock.writeLock().lock();
+    try {
+      return super.addIfAbsent(toAdd);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  void ensureCapacity(int minCapacity) {
+    lock.writeLock().lock();
+    try {
+      super.ensureCapacity(minCapacity);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Clothing getClothing(String description, String brand) {
+    lock.readLock().lock();
+    try {
+      return super.getClothing(description, brand);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void wearClothing(Clothing toWear, int year, int month, int day) {
+    lock.readLock().lock();
+    try {
+      super.wearClothing(toWear, year, month, day);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Wears the piece of clothing a view points at the given number of times, holding the read lock from checking that
+   * it is still in the wardrobe until it has been updated, so its slot cannot be freed, reused by another piece of
+   * clothing or moved to a larger column in between.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param generation - the generation of the slot when the view was created
+   * @param count - the number of wears
+   * @param epochDay - the date of the latest wear as an epoch day
+   * @throws IllegalStateException - with a descriptive message if the piece of clothing has been removed
+   */
+  @Override
+  void wear(int slot, int generation, int count, int epochDay) {
+    lock.readLock().lock();
+    try {
+      super.wear(slot, generation, count, epochDay);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  //views read their clothing through the readers below, which hold the read lock from checking that the piece of
+  //clothing is still in the wardrobe until it has been read, so its slot cannot be reused by another piece of clothing,
+  //or its column replaced by a larger one, in between.
+
+  @Override
+  String descriptionOf(int slot, int generation) {
+    lock.readLock().lock();
+    try {
+      return super.descriptionOf(slot, generation);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  BrandDictionary.Brand brandOf(int slot, int generation) {
+    lock.readLock().lock();
+    try {
+      return super.brandOf(slot, generation);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  int brandIdOf(int slot, int generation) {
+    lock.readLock().lock();
+    try {
+      return super.brandIdOf(slot, generation);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  int hashOf(int slot, int generation) {
+    lock.readLock().lock();
+    try {
+      return super.hashOf(slot, generation);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  int lastWornEpochDayOf(int slot, int generation) {
+    lock.readLock().lock();
+    try {
+      return super.lastWornEpochDayOf(slot, generation);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  int timesWornOf(int slot, int generation) {
+    lock.readLock().lock();
+    try {
+      return super.timesWornOf(slot, generation);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Wears a batch of clothing the same way Wardrobe.wearAll() does, holding the read lock for the whole batch so that
+   * no clothing is added or removed between finding the clothing and wearing it. Other threads may wear clothing at
+   * the same time.
+   *
+   * @param events - the wear events to apply
+   * @return one outcome for each distinct piece of clothing in the batch, in the order each first appeared
+   */
+  @Override
+  public List<WearOutcome> wearAll(Iterable<WearEvent> events) {
+    lock.readLock().lock();
+    try {
+      return super.wearAll(events);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void removeClothing(String description, String brand) {
+    lock.writeLock().lock();
+    try {
+      super.removeClothing(description, brand);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Clothing[] removeAllClothingMatching(Predicate<Clothing> toRemove) {
+    lock.writeLock().lock();
+    try {
+      return super.removeAllClothingMatching(toRemove);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int removeAllClothingWornBefore(int year, int month, int day) {
+    lock.writeLock().lock();
+    try {
+      return super.removeAllClothingWornBefore(year, month, day);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Clothing[] getClothingWornBefore(LocalDate date) {
+    lock.readLock().lock();
+    try {
+      return super.getClothingWornBefore(date);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Clothing[] getClothingWornBetween(LocalDate from, LocalDate to) {
+    lock.readLock().lock();
+    try {
+      return super.getClothingWornBetween(from, to);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public int removeAllClothingWornNumTimes(int threshold) {
+    lock.writeLock().lock();
+    try {
+      return super.removeAllClothingWornNumTimes(threshold);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Clothing[] getClothingWornFewerThan(int threshold) {
+    lock.readLock().lock();
+    try {
+      return super.getClothingWornFewerThan(threshold);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Clothing[] getMostWornClothing(int k) {
+    lock.readLock().lock();
+    try {
+      return super.getMostWornClothing(k);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Clothing[] getLeastWornClothing(int k) {
+    lock.readLock().lock();
+    try {
+      return super.getLeastWornClothing(k);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void writeTo(Appendable out) throws IOException {
+    lock.readLock().lock();
+    try {
+      super.writeTo(out);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public int writeTo(Appendable out, int offset, int limit) throws IOException {
+    lock.readLock().lock();
+    try {
+      return super.writeTo(out, offset, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Saves all pieces of clothing in this wardrobe to the designated file, in the same format as saveToFile(File).
+   * Clothing cannot be added or removed while the file is written, but it can still be worn, unless saveFile is the
+   * base file of saveIncremental(): saving to it swaps out the changes remembered for the next incremental save, so
+   * it takes the write lock like saveIncremental() does, and no wear can be remembered in the changes being dropped
+   * or another save swap them at the same time.
+   *
+   * @param saveFile - the File that the information should be written to
+   * @param bufferSize - the size of the write buffer, in bytes
+   * @return true if the file saved successfully, false otherwise
+   * @throws IllegalArgumentException - with a descriptive message if bufferSize is non-positive
+   */
+  @Override
+  public boolean saveToFile(File saveFile, int bufferSize) {
+    lock.readLock().lock();
+    try {
+      //the base file only changes under the write lock, so it cannot change while the read lock is held
+      if (!isBaseFile(saveFile)) {
+        return super.saveToFile(saveFile, bufferSize);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    lock.writeLock().lock();
+    try {
+      return super.saveToFile(saveFile, bufferSize);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Saves the changes made to this wardrobe since it was last saved, the same way as
+   * Wardrobe.saveIncremental(File, double). No clothing can be changed while the changes are written, which is
+   * quick as long as the delta file is not merged.
+   *
+   * @param saveFile - the base file that the information should be written to
+   * @param mergeRatio - the fraction of the size of the wardrobe that the delta file may grow to before merging
+   * @return true if the changes saved successfully, false otherwise
+   * @throws IllegalArgumentException - with a descriptive message if mergeRatio is negative
+   */
+  @Override
+  public boolean saveIncremental(File saveFile, double mergeRatio) {
+    lock.writeLock().lock();
+    try {
+      return super.saveIncremental(saveFile, mergeRatio);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public LoadReport loadIncremental(File saveFile) throws IOException {
+    lock.writeLock().lock();
+    try {
+      return super.loadIncremental(saveFile);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Loads all pieces of clothing into this wardrobe from the designated file, the same way as
+   * Wardrobe.loadFromFile(File, int). No other thread can add or remove clothing until the whole file has been
+   * loaded, so the counts in the returned report only cover this file.
+   *
+   * @param saveFile - the File that the information should be read from
+   * @param bufferSize - the size of the read buffer, in characters
+   * @return a report of how many lines were loaded, rejected and skipped, and how fast the file was read
+   * @throws IllegalArgumentException - with a descriptive message if bufferSize is non-positive
+   * @throws IOException - if the file does not exist or cannot be read
+   */
+  @Override
+  public LoadReport loadFromFile(File saveFile, int bufferSize) throws IOException {
+    lock.writeLock().lock();
+    try {
+      return super.loadFromFile(saveFile, bufferSize);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public LoadReport loadFromFileParallel(File saveFile, int parallelism) throws IOException {
+    lock.writeLock().lock();
+    try {
+      return super.loadFromFileParallel(saveFile, parallelism);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Saves all pieces of clothing in this wardrobe to the designated file in the compact binary format, the same way
+   * as Wardrobe.saveBinary(). A binary save leaves the changes remembered for saveIncremental() alone, so clothing
+   * can still be worn while the file is written.
+   *
+   * @param saveFile - the File that the information should be written to
+   * @return true if the file saved successfully, false otherwise
+   */
+  @Override
+  public boolean saveBinary(File saveFile) {
+    lock.readLock().lock();
+    try {
+      return super.saveBinary(saveFile);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Loads all pieces of clothing into this wardrobe from the designated file in the compact binary format written
+   * by saveBinary(). No other thread can add or remove clothing until the whole file has been loaded, so the counts in
+   * the returned report only cover this file.
+   *
+   * @param saveFile - the File that the information should be read from
+   * @return a report of how many pieces of clothing were loaded and skipped, and how fast the file was read
+   * @throws IOException - if the file does not exist, cannot be read, or is not a valid binary save file
+   */
+  @Override
+  public LoadReport loadBinary(File saveFile) throws IOException {
+    lock.writeLock().lock();
+    try {
+      return super.loadBinary(saveFile);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,755 @@
+import java.io.EOFException;
+import java.io.File;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A stress tester for the ConcurrentWardrobe class. Each test starts several threads that hammer the same wardrobe
+ * at the same time, then checks that no wear, piece of clothing or removal was lost.
+ */
+public class ConcurrentWardrobeTester {
+
+  private static final int THREADS = 8;
+
+  /**
+   * A piece of work run by one of the threads of a test.
+   */
+  private interface Worker {
+    /**
+     * Does the work of one thread.
+     *
+     * @param thread - the number of the thread, in the range [0,THREADS)
+     * @throws Exception - if the work fails
+     */
+    void run(int thread) throws Exception;
+  }
+
+  /**
+   * Runs the given work on THREADS threads that all start at the same time, and waits for them to finish.
+   *
+   * @param worker - the work to run on each thread
+   * @return true if no thread threw an exception, false otherwise
+   * @throws InterruptedException - if interrupted while waiting for the threads
+   */
+  private static boolean runThreads(Worker worker) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean failed = new AtomicBoolean();
+    ArrayList<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      int thread = i;
+      Thread t = new Thread(() -> {
+        try {
+          start.await();
+          worker.run(thread);
+        } catch (Exception e) {
+          e.printStackTrace();
+          failed.set(true);
+        }
+      });
+      t.start();
+      threads.add(t);
+    }
+    start.countDown();
+    for (Thread t : threads) {
+      t.join();
+    }
+    return !failed.get();
+  }
+
+  /**
+   * Tests that many threads wearing the same few pieces of clothing at once, both through the wardrobe and through
+   * views, never lose a wear.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testConcurrentWears() {
+    try {
+      ConcurrentWardrobe wardrobe = new ConcurrentWardrobe(10);
+      for (int i = 0; i < 4; i++) {
+        wardrobe.addClothing(new Clothing("Shirt " + i, "Gildan"));
+      }
+      int wears = 20000;
+      boolean ok = runThreads(thread -> {
+        for (int i = 0; i < wears; i++) {
+          Clothing cloth = wardrobe.getClothing("shirt " + (i % 4), "GILDAN");
+          if (thread % 2 == 0) {
+            wardrobe.wearClothing(cloth, 2024, 1 + i % 12, 1 + thread);
+          } else {
+            cloth.wearClothing(2024, 1 + i % 12, 1 + thread);
+          }
+        }
+      });
+      if (!ok) return false;
+
+      // the last worn date is the latest date any thread wore the shirt on
+      for (int i = 0; i < 4; i++) {
+        Clothing cloth = wardrobe.getClothing("Shirt " + i, "Gildan");
+        if (cloth.getNumOfTimesWorn() != THREADS * wears / 4) return false;
+        if (!cloth.getLastWornDate().equals(LocalDate.of(2024, 9 + i, THREADS))) return false;
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that views of clothing that is removed while other threads are wearing through them never wear the
+   * clothing that is added into the freed slot afterwards.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testStaleViewWears() {
+    try {
+      ConcurrentWardrobe wardrobe = new ConcurrentWardrobe(10);
+      wardrobe.addClothing(new Clothing("Worn shirt", "Gap"));
+      int rounds = 20000;
+      AtomicBoolean done = new AtomicBoolean();
+      AtomicBoolean stolen = new AtomicBoolean();
+      boolean ok = runThreads(thread -> {
+        if (thread == 0) {
+          // swap the worn shirt and a never worn one in and out of the same slot
+          for (int i = 0; i < rounds && !stolen.get(); i++) {
+            wardrobe.removeClothing("Worn shirt", "Gap");
+            wardrobe.addClothing(new Clothing("Unworn shirt", "Gap"));
+            if (wardrobe.getClothing("Unworn shirt", "Gap").getNumOfTimesWorn() != 0) stolen.set(true);
+            wardrobe.removeClothing("Unworn shirt", "Gap");
+            wardrobe.addClothing(new Clothing("Worn shirt", "Gap"));
+          }
+          done.set(true);
+        } else {
+          while (!done.get()) {
+            try {
+              wardrobe.getClothing("Worn shirt", "Gap").wearClothing(2024, 5, 1);
+            } catch (NoSuchElementException | IllegalStateException e) {
+              // the worn shirt was removed before it was found or before it was worn
+            }
+          }
+        }
+      });
+      if (!ok || stolen.get()) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that views of clothing that is removed while other threads are reading through them, as its slot is reused
+   * and its columns grow, never show the information of the clothing that takes over the slot.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testStaleViewReads() {
+    try {
+      ConcurrentWardrobe wardrobe = new ConcurrentWardrobe(1);
+      wardrobe.addClothing(new Clothing("Read shirt", "Gap", 3, LocalDate.of(2024, 5, 1)));
+      int rounds = 2000;
+      AtomicBoolean done = new AtomicBoolean();
+      AtomicBoolean mixedUp = new AtomicBoolean();
+      boolean ok = runThreads(thread -> {
+        if (thread == 0) {
+          // put other clothing in the slot of the read shirt, and add more so that the columns grow
+          for (int i = 0; i < rounds && !mixedUp.get(); i++) {
+            wardrobe.removeClothing("Read shirt", "Gap");
+            wardrobe.addClothing(new Clothing("Other shirt " + i, "Uniqlo"));
+            wardrobe.addClothing(new Clothing("Read shirt", "Gap", 3, LocalDate.of(2024, 5, 1)));
+          }
+          done.set(true);
+        } else {
+          while (!done.get()) {
+            try {
+              Clothing view = wardrobe.getClothing("Read shirt", "Gap");
+              if (!view.getDescription().equals("Read shirt") || !view.getBrand().equals("Gap")
+                  || view.getNumOfTimesWorn() != 3 || view.hashCode() != Clothing.hash("Read shirt", view.getBrandId())
+                  || !view.getLastWornDate().equals(LocalDate.of(2024, 5, 1))) {
+                mixedUp.set(true);
+              }
+            } catch (NoSuchElementException | IllegalStateException e) {
+              // the read shirt was removed before it was found or while it was read
+            }
+          }
+        }
+      });
+      if (!ok || mixedUp.get()) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that many threads wearing the same piece of clothing, outside of any wardrobe, never lose a wear and leave
+   * the latest date as the last worn date.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testConcurrentClothingWears() {
+    try {
+      Clothing cloth = new Clothing("Black jeans", "Dior");
+      int wears = 50000;
+      boolean ok = runThreads(thread -> {
+        for (int i = 0; i < wears; i++) {
+          cloth.wearClothing(2000 + (i * 7 + thread) % 25, 1 + i % 12, 1 + i % 28);
+        }
+      });
+      if (!ok) return false;
+
+      if (cloth.getNumOfTimesWorn() != THREADS * wears) return false;
+      if (!cloth.getLastWornDate().equals(LocalDate.of(2024, 12, 28))) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that many threads wearing the clothing of a plain Wardrobe directly, through Clothing.wearClothing(), while
+   * another thread keeps querying the wardrobe, never lose a wear and leave the wardrobe sorted by the final dates and
+   * numbers of times worn.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testDirectWearsInWardrobe() {
+    try {
+      Wardrobe wardrobe = new Wardrobe(64);
+      Clothing[] held = new Clothing[64];
+      for (int i = 0; i < held.length; i++) {
+        wardrobe.addClothing(new Clothing("Shirt " + i, "Gap"));
+        held[i] = wardrobe.getClothing("Shirt " + i, "Gap");
+      }
+
+      //the wardrobe itself is only used by one thread, which queries it while the others wear its clothing
+      AtomicBoolean done = new AtomicBoolean();
+      AtomicBoolean queryFailed = new AtomicBoolean();
+      Thread querier = new Thread(() -> {
+        try {
+          while (!done.get()) {
+            if (wardrobe.getClothingWornFewerThan(Integer.MAX_VALUE).length != held.length
+                || wardrobe.getMostWornClothing(5).length != 5) {
+              queryFailed.set(true);
+            }
+            wardrobe.getClothingWornBefore(LocalDate.of(2010, 1, 1));
+          }
+        } catch (Exception e) {
+          e.printStackTrace();
+          queryFailed.set(true);
+        }
+      });
+      querier.start();
+      int wears = 50000;
+      AtomicIntegerArray expected = new AtomicIntegerArray(held.length);
+      boolean ok = runThreads(thread -> {
+        for (int i = 0; i < wears; i++) {
+          int item = (i * 7 + thread * 13) % (1 + i % held.length); //the first pieces are worn the most
+          held[item].wearClothing(2000 + (i + thread) % 25, 1 + i % 12, 1 + i % 28);
+          expected.incrementAndGet(item);
+        }
+      });
+      done.set(true);
+      querier.join();
+      if (!ok || queryFailed.get()) return false;
+
+      long total = 0;
+      for (int i = 0; i < held.length; i++) {
+        if (held[i].getNumOfTimesWorn() != expected.get(i)) return false;
+        total += held[i].getNumOfTimesWorn();
+      }
+      if (total != (long) THREADS * wears) return false;
+
+      //every piece of clothing is in the right place in both indexes
+      if (wardrobe.getClothingWornFewerThan(Integer.MAX_VALUE).length != held.length) return false;
+      Clothing[] mostWorn = wardrobe.getMostWornClothing(held.length);
+      for (int i = 1; i < mostWorn.length; i++) {
+        if (mostWorn[i].getNumOfTimesWorn() > mostWorn[i - 1].getNumOfTimesWorn()) return false;
+      }
+      for (Clothing cloth : held) {
+        LocalDate lastWorn = cloth.getLastWornDate();
+        Clothing[] wornThen = (lastWorn == null) ? wardrobe.getClothingWornBefore(LocalDate.of(2000, 1, 1))
+                                                 : wardrobe.getClothingWornBetween(lastWorn, lastWorn);
+        if (!Arrays.asList(wornThen).contains(cloth)) return false;
+      }
+      int threshold = held[held.length / 2].getNumOfTimesWorn();
+      int fewer = 0;
+      for (Clothing cloth : held) {
+        if (cloth.getNumOfTimesWorn() < threshold) fewer++;
+      }
+      if (wardrobe.removeAllClothingWornNumTimes(threshold) != fewer) return false;
+      if (wardrobe.size() != held.length - fewer) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that pieces of clothing added by several threads, while other threads keep looking up and wearing the
+   * clothing that is already there, all end up in the wardrobe exactly once.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testConcurrentAddsAndWears() {
+    try {
+      ConcurrentWardrobe wardrobe = new ConcurrentWardrobe(1);
+      wardrobe.addClothing(new Clothing("Favorite shirt", "Gildan"));
+      int adds = 5000;
+      boolean ok = runThreads(thread -> {
+        for (int i = 0; i < adds; i++) {
+          if (thread < THREADS / 2) {
+            // adding makes the wardrobe grow many times under the threads that are wearing
+            wardrobe.addClothing(new Clothing("Shirt " + thread + "-" + i, "Brand " + (i % 10)));
+          } else {
+            wardrobe.wearClothing(wardrobe.getClothing("Favorite shirt", "Gildan"), 2024, 5, 1);
+          }
+        }
+      });
+      if (!ok) return false;
+
+      if (wardrobe.size() != THREADS / 2 * adds + 1) return false;
+      if (wardrobe.getClothing("Favorite shirt", "Gildan").getNumOfTimesWorn() != THREADS / 2 * adds) return false;
+      for (int thread = 0; thread < THREADS / 2; thread++) {
+        for (int i = 0; i < adds; i += 97) {
+          wardrobe.getClothing("Shirt " + thread + "-" + i, "Brand " + (i % 10));
+        }
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that pieces of clothing removed by several threads, while other threads wear the clothing that is never
+   * removed, are all gone afterwards and that the rest kept all their wears.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testConcurrentRemovesAndWears() {
+    try {
+      ConcurrentWardrobe wardrobe = new ConcurrentWardrobe(10);
+      int perThread = 2000;
+      for (int thread = 0; thread < THREADS; thread++) {
+        for (int i = 0; i < perThread; i++) {
+          wardrobe.addClothing(new Clothing("Shirt " + thread + "-" + i, "Gildan"));
+        }
+      }
+      boolean ok = runThreads(thread -> {
+        for (int i = 0; i < perThread; i++) {
+          if (thread < THREADS / 2) {
+            wardrobe.removeClothing("Shirt " + thread + "-" + i, "Gildan");
+          } else {
+            wardrobe.wearClothing(wardrobe.getClothing("Shirt " + thread + "-" + i, "Gildan"), 2024, 5, 1);
+            wardrobe.wearClothing(wardrobe.getClothing("Shirt " + thread + "-" + i, "Gildan"), 2024, 6, 1);
+          }
+        }
+      });
+      if (!ok) return false;
+
+      if (wardrobe.size() != THREADS / 2 * perThread) return false;
+      try {
+        wardrobe.getClothing("Shirt 0-0", "Gildan");
+        return false; // a removed piece of clothing is still in the wardrobe
+      } catch (NoSuchElementException e) {
+        // expected
+      }
+      // every piece of clothing that is left was worn exactly twice
+      if (wardrobe.getClothingWornFewerThan(2).length != 0 || wardrobe.getMostWornClothing(1)[0].getNumOfTimesWorn()
+          != 2) return false;
+      if (wardrobe.removeAllClothingWornBefore(2024, 6, 2) != THREADS / 2 * perThread) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that many threads wearing clothing through the same journal at once, so that their wears are committed in
+   * groups, lose no wear either in the wardrobe or when it is recovered from the journal.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testConcurrentJournalWears() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("journal").toFile();
+      ConcurrentWardrobe wardrobe = new ConcurrentWardrobe(10);
+      WardrobeJournal journal = WardrobeJournal.open(directory, wardrobe, 700);
+      for (int i = 0; i < 4; i++) {
+        journal.addClothing(new Clothing("Shirt " + i, "Gildan"));
+      }
+      int wears = 300;
+      boolean ok = runThreads(thread -> {
+        for (int i = 0; i < wears; i++) {
+          journal.wearClothing(wardrobe.getClothing("Shirt " + (i % 4), "Gildan"), 2024, 1 + i % 12, 1 + thread);
+        }
+      });
+      journal.close();
+      if (!ok) return false;
+
+      Wardrobe recovered = new Wardrobe(1);
+      WardrobeJournal.open(directory, recovered).close();
+      for (int i = 0; i < 4; i++) {
+        if (recovered.getClothing("Shirt " + i, "Gildan").getNumOfTimesWorn() != THREADS * wears / 4) return false;
+        if (!recovered.getClothing("Shirt " + i, "Gildan").toString()
+            .equals(wardrobe.getClothing("Shirt " + i, "Gildan").toString())) return false;
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      if (directory != null) {
+        File[] files = directory.listFiles();
+        for (File f : (files == null) ? new File[0] : files) f.delete();
+        directory.delete();
+      }
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that wears made while other threads save the wardrobe, both incrementally and in full to the base file of
+   * the incremental saves, all end up in the saved files, so that the wardrobe loaded back from them matches.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testSavesWhileWearing() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("saves").toFile();
+      File base = new File(directory, "wardrobe.txt");
+      int items = 1000;
+      ConcurrentWardrobe wardrobe = new ConcurrentWardrobe(items);
+      for (int i = 0; i < items; i++) {
+        wardrobe.addClothing(new Clothing("Shirt " + i, "Gildan"));
+      }
+      if (!wardrobe.saveIncremental(base)) return false;
+      int wears = 3000;
+      boolean ok = runThreads(thread -> {
+        for (int i = 0; i < wears; i++) {
+          //half of the threads also save, against each other and against the wears of the rest
+          boolean saved = true;
+          if (thread == 0 && i % 10 == 0) {
+            saved = wardrobe.saveIncremental(base, 1000);
+          } else if (thread <= 3 && i % 25 == 0) {
+            saved = wardrobe.saveToFile(base);
+          }
+          if (!saved) {
+            throw new IllegalStateException("The wardrobe could not be saved.");
+          }
+          Clothing cloth = wardrobe.getClothing("Shirt " + (i * 31 + thread) % items, "Gildan");
+          cloth.wearClothing(2024, 1 + i % 12, 1 + thread);
+        }
+      });
+      if (!ok || !wardrobe.saveIncremental(base, 1000)) return false;
+
+      Wardrobe loaded = new Wardrobe(1);
+      loaded.loadIncremental(base);
+      if (loaded.size() != items) return false;
+      long total = 0;
+      for (int i = 0; i < items; i++) {
+        Clothing cloth = loaded.getClothing("Shirt " + i, "Gildan");
+        if (!cloth.toString().equals(wardrobe.getClothing("Shirt " + i, "Gildan").toString())) return false;
+        total += cloth.getNumOfTimesWorn();
+      }
+      if (total != (long) THREADS * wears) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      if (directory != null) {
+        File[] files = directory.listFiles();
+        for (File f : (files == null) ? new File[0] : files) f.delete();
+        directory.delete();
+      }
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that clients of a WardrobeServer wearing the same clothing at the same time over their own connections
+   * never lose a wear, and that every command is answered with its output and an OK or ERROR line.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testServerClients() {
+    ConcurrentWardrobe wardrobe = new ConcurrentWardrobe(10);
+    try (WardrobeServer server = WardrobeManager.startServer(wardrobe, 0)) {
+      int port = server.getPort();
+      try (WardrobeLoadTest.Client client = new WardrobeLoadTest.Client(port)) {
+        if (!client.send("A,Black jeans,Dior", null) || !client.send("A,Blue hat,Nike", null)) return false;
+        if (client.send("A,Black jeans,Dior", null)) return false; // a duplicate
+        if (client.send("X", null)) return false; // not a command
+      }
+
+      int wears = 200;
+      boolean ok = runThreads(thread -> {
+        try (WardrobeLoadTest.Client client = new WardrobeLoadTest.Client(port)) {
+          for (int i = 0; i < wears; i++) {
+            String key = (thread % 2 == 0) ? "black jeans,dior" : "Black jeans,Dior";
+            if (!client.send("W," + key + ",2024," + (1 + i % 12) + ",1", null)) {
+              throw new IllegalStateException("A wear was not carried out.");
+            }
+          }
+        }
+      });
+      if (!ok) return false;
+      if (wardrobe.getClothing("Black jeans", "Dior").getNumOfTimesWorn() != THREADS * wears) return false;
+
+      try (WardrobeLoadTest.Client client = new WardrobeLoadTest.Client(port)) {
+        StringBuilder answer = new StringBuilder();
+        if (!client.send("F,Black jeans,Dior", answer)) return false;
+        if (!answer.toString().equals("Black jeans,Dior,12/01/2024," + THREADS * wears + "\n")) return false;
+        answer.setLength(0);
+        if (!client.send("V", answer) || !answer.toString().contains("[Blue hat,Nike,null,0]")) return false;
+        try {
+          client.send("Q", null);
+          return false; // the server did not end the session
+        } catch (EOFException e) {
+          // expected
+        }
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that a client that asks the server for the whole wardrobe and never reads the answer does not keep other
+   * clients from changing the wardrobe.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testSlowViewClient() {
+    ConcurrentWardrobe wardrobe = new ConcurrentWardrobe(10);
+    for (int i = 0; i < 200_000; i++) { // far more than the socket buffers hold
+      wardrobe.addClothing(new Clothing("Shirt " + i, "Gap"));
+    }
+    try (WardrobeServer server = WardrobeManager.startServer(wardrobe, 0);
+         Socket stalled = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+      stalled.getOutputStream().write("V\n".getBytes(StandardCharsets.UTF_8));
+      stalled.getOutputStream().flush();
+      Thread.sleep(200); // let the server start writing the view
+
+      AtomicBoolean added = new AtomicBoolean();
+      Thread adder = new Thread(() -> {
+        try (WardrobeLoadTest.Client client = new WardrobeLoadTest.Client(server.getPort())) {
+          added.set(client.send("A,Black jeans,Dior", null));
+        } catch (Exception e) {
+          e.printStackTrace();
+        }
+      });
+      adder.setDaemon(true);
+      adder.start();
+      adder.join(5000);
+      if (!added.get() || wardrobe.findClothing("Black jeans", "Dior") == null) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that many threads updating the wardrobes of many tenants of a TenantWardrobeManager at the same time, with
+   * wardrobes being saved and dropped from memory all along, never lose a wear.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testConcurrentTenants() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("tenants").toFile();
+      int tenants = 40;
+      int wears = 100;
+      try (TenantWardrobeManager manager = TenantWardrobeManager.open(directory, 4, 3)) {
+        boolean ok = runThreads(thread -> {
+          ArrayList<CompletableFuture<Object>> pending = new ArrayList<>();
+          for (int i = 0; i < wears; i++) {
+            for (int t = 0; t < tenants; t++) {
+              pending.add(manager.update("tenant" + t, wardrobe -> {
+                if (wardrobe.findClothing("Black jeans", "Dior") == null) {
+                  wardrobe.addClothing(new Clothing("Black jeans", "Dior"));
+                }
+                wardrobe.wearClothing(new Clothing("Black jeans", "Dior"), 2024, 1, 1 + thread);
+                return null;
+              }));
+            }
+          }
+          for (CompletableFuture<Object> future : pending) {
+            future.join();
+          }
+        });
+        if (!ok || manager.getLoadedCount() > 12 || manager.getEvictions() == 0) return false;
+      }
+      try (TenantWardrobeManager manager = TenantWardrobeManager.open(directory, 2, 50)) {
+        for (int t = 0; t < tenants; t++) {
+          int worn = manager.query("tenant" + t, w -> w.getClothing("Black jeans", "Dior").getNumOfTimesWorn())
+              .join();
+          if (worn != THREADS * wears) return false;
+        }
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      if (directory != null) {
+        File[] files = directory.listFiles();
+        for (File f : (files == null) ? new File[0] : files) f.delete();
+        directory.delete();
+      }
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that closing a TenantWardrobeManager while many threads are still submitting updates saves every update
+   * that was accepted, even when it is closed by two threads at once.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testCloseWhileUpdating() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("tenants").toFile();
+      int tenants = 4;
+      for (int round = 0; round < 20; round++) {
+        AtomicIntegerArray accepted = new AtomicIntegerArray(tenants);
+        TenantWardrobeManager manager = TenantWardrobeManager.open(directory, 2, tenants);
+        CountDownLatch started = new CountDownLatch(THREADS);
+        boolean ok = runThreads(thread -> {
+          if (thread < 2) { // two threads close the manager once the others are busy
+            started.countDown();
+            started.await();
+            manager.close();
+            return;
+          }
+          for (int i = 0; ; i++) {
+            int t = (thread + i) % tenants;
+            try {
+              manager.update("tenant" + t, wardrobe -> {
+                if (wardrobe.findClothing("Black jeans", "Dior") == null) {
+                  wardrobe.addClothing(new Clothing("Black jeans", "Dior"));
+                }
+                wardrobe.wearClothing(new Clothing("Black jeans", "Dior"), 2024, 1, 1);
+                return null;
+              });
+            } catch (IllegalStateException e) {
+              return; // closed
+            }
+            accepted.incrementAndGet(t);
+            if (i == 100) {
+              started.countDown();
+            }
+          }
+        });
+        if (!ok) return false;
+
+        try (TenantWardrobeManager reopened = TenantWardrobeManager.open(directory, 2, tenants)) {
+          for (int t = 0; t < tenants; t++) {
+            int worn = reopened.query("tenant" + t, w -> {
+              Clothing cloth = w.findClothing("Black jeans", "Dior");
+              return (cloth == null) ? 0 : cloth.getNumOfTimesWorn();
+            }).join();
+            if (worn != accepted.get(t)) return false;
+            reopened.update("tenant" + t, w -> {
+              w.removeClothing("Black jeans", "Dior");
+              return null;
+            });
+          }
+        }
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      if (directory != null) {
+        File[] files = directory.listFiles();
+        for (File f : (files == null) ? new File[0] : files) f.delete();
+        directory.delete();
+      }
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Runs all testing methods and prints out their results.
+   *
+   * @return true if and only if all the tests return true, false otherwise
+   */
+  public static boolean runAllTests() {
+    boolean test1 = testConcurrentWears();
+    System.out.println("testConcurrentWears(): " + (test1 ? "pass" : "FAIL"));
+
+    boolean test2 = testConcurrentAddsAndWears();
+    System.out.println("testConcurrentAddsAndWears(): " + (test2 ? "pass" : "FAIL"));
+
+    boolean test3 = testConcurrentRemovesAndWears();
+    System.out.println("testConcurrentRemovesAndWears(): " + (test3 ? "pass" : "FAIL"));
+
+    boolean test4 = testConcurrentClothingWears();
+    System.out.println("testConcurrentClothingWears(): " + (test4 ? "pass" : "FAIL"));
+
+    boolean test5 = testConcurrentJournalWears();
+    System.out.println("testConcurrentJournalWears(): " + (test5 ? "pass" : "FAIL"));
+    boolean test6 = testServerClients();
+    System.out.println("testServerClients(): " + (test6 ? "pass" : "FAIL"));
+    boolean test7 = testConcurrentTenants();
+    System.out.println("testConcurrentTenants(): " + (test7 ? "pass" : "FAIL"));
+    boolean test8 = testStaleViewWears();
+    System.out.println("testStaleViewWears(): " + (test8 ? "pass" : "FAIL"));
+
+    boolean test9 = testSlowViewClient();
+    System.out.println("testSlowViewClient(): " + (test9 ? "pass" : "FAIL"));
+
+    boolean test10 = testCloseWhileUpdating();
+    System.out.println("testCloseWhileUpdating(): " + (test10 ? "pass" : "FAIL"));
+
+    boolean test11 = testDirectWearsInWardrobe();
+    System.out.println("testDirectWearsInWardrobe(): " + (test11 ? "pass" : "FAIL"));
+
+    boolean test12 = testSavesWhileWearing();
+    System.out.println("testSavesWhileWearing(): " + (test12 ? "pass" : "FAIL"));
+
+    boolean test13 = testStaleViewReads();
+    System.out.println("testStaleViewReads(): " + (test13 ? "pass" : "FAIL"));
+
+    return test1 && test2 && test3 && test4 && test5 && test6 && test7 && test8 && test9 && test10 && test11
+        && test12 && test13;
+  }
+
+  public static void main(String[] args) {
+    System.out.println("runAllTests(): " + runAllTests());
+  }
+}
@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Converts between dates and epoch days, the number of days since 01/01/1970, the primitive form in which Clothing
+ * and the Wardrobe keep last worn dates. The conversions work on plain ints, so dates can be parsed, compared and
+ * printed without creating LocalDate objects. For use in the Wardrobe Manager project.
+ */
+final class EpochDays {
+
+  /**
+   * The epoch day of clothing that has never been worn. It is smaller than the epoch day of every date, so clothing
+   * that has never been worn sorts before all clothing that has.
+   */
+  static final int NEVER_WORN = Integer.MIN_VALUE;
+
+  /**
+   * The largest year whose dates can be stored as an epoch day int.
+   */
+  static final int MAX_YEAR = 5_000_000;
+
+  private static final int MIN_DAY = of(-MAX_YEAR, 1, 1); //the epoch day of the first date that can be stored
+  private static final int MAX_DAY = of(MAX_YEAR, 12, 31); //the epoch day of the last date that can be stored
+
+  private EpochDays() {
+  }
+
+  /**
+   * Finds the epoch day of the given date.
+   *
+   * @param year - the year of the date
+   * @param month - the month of the date, in the range [1,12]
+   * @param day - the day of the month of the date
+   * @return the epoch day of the date
+   * @throws DateTimeException - if the date does not exist or its year is out of the range [-MAX_YEAR,MAX_YEAR]
+   */
+  static int of(int year, int month, int day) {
+    if (year < -MAX_YEAR || year > MAX_YEAR || month < 1 || month > 12 || day < 1
+        || day > lengthOfMonth(year, month)) {
+      throw new DateTimeException("Invalid date: " + month + "/" + day + "/" + year);
+    }
+    //count from March 1st so that the leap day falls at the end of the year, in 400 year eras of 146097 days
+    long y = (month <= 2) ? year - 1 : year;
+    long era = Math.floorDiv(y, 400);
+    long yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return (int) (era * 146097 + dayOfEra - 719468);
+  }
+
+  /**
+   * Finds the epoch day of the given date.
+   *
+   * @param date - the date, or null for clothing that has never been worn
+   * @return the epoch day of the date, or NEVER_WORN if date is null
+   * @throws IllegalArgumentException - with a descriptive message if the year of the date is out of the range
+   *                                    [-MAX_YEAR,MAX_YEAR]
+   */
+  static int of(LocalDate date) {
+    if (date == null) {
+      return NEVER_WORN;
+    }
+    if (date.getYear() < -MAX_YEAR || date.getYear() > MAX_YEAR) {
+      throw new IllegalArgumentException("Invalid information about year: " + date.getYear());
+    }
+    return (int) date.toEpochDay();
+  }
+
+  /**
+   * Finds an epoch day that compares to every stored epoch day the same way the given date compares to their dates,
+   * for dates that may be too far away to be stored.
+   *
+   * @param date - the date to compare to
+   * @return the epoch day of the date, clamped to the range of epoch days of real dates
+   */
+  static int clamp(LocalDate date) {
+    return (int) Math.max(NEVER_WORN + 1, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+  }
+
+  /**
+   * Checks that an epoch day read from outside, such as from a file, is one that Clothing can hold.
+   *
+   * @param epochDay - the epoch day to check
+   * @return true if epochDay is NEVER_WORN or the epoch day of a date in the years [-MAX_YEAR,MAX_YEAR],
+   *         false otherwise
+   */
+  static boolean isValid(int epochDay) {
+    return epochDay == NEVER_WORN || (epochDay >= MIN_DAY && epochDay <= MAX_DAY);
+  }
+
+  /**
+   * Converts an epoch day back to a date.
+   *
+   * @param epochDay - the epoch day
+   * @return the date, or null if epochDay is NEVER_WORN
+   */
+  static LocalDate toDate(int epochDay) {
+    return (epochDay == NEVER_WORN) ? null : LocalDate.ofEpochDay(epochDay);
+  }
+
+  /**
+   * Writes the given epoch day formatted MM/DD/YYYY to the given destination, or "null" for NEVER_WORN.
+   *
+   * @param out - the destination to write to
+   * @param epochDay - the epoch day to write
+   * @throws IOException - if out cannot be written to
+   */
+  static void appendDate(Appendable out, int epochDay) throws IOException {
+    if (epochDay == NEVER_WORN) {
+      out.append("null");
+      return;
+    }
+    //the reverse of of(), again counting from March 1st in 400 year eras
+    long days = epochDay + 719468L;
+    long era = Math.floorDiv(days, 146097);
+    long dayOfEra = days - era * 146097;
+    long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = (int) (dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100));
+    int shiftedMonth = (5 * dayOfYear + 2) / 153; //0 is March
+    int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    int month = (shiftedMonth < 10) ? shiftedMonth + 3 : shiftedMonth - 9;
+    int year = (int) (yearOfEra + era * 400 + ((month <= 2) ? 1 : 0));
+
+    Clothing.appendNumber(out, month, 2);
+    out.append('/');
+    Clothing.appendNumber(out, day, 2);
+    out.append('/');
+    Clothing.appendNumber(out, year, 1);
+  }
+
+  /**
+   * Finds the number of days in the given month.
+   *
+   * @param year - the year the month is in
+   * @param month - the month, in the range [1,12]
+   * @return the number of days in the month
+   */
+  static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+        return leap ? 29 : 28;
+      case 4, 6, 9, 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * An instantiable class that summarizes loading a Wardrobe from a file: how many lines were read, how many pieces
+ * of clothing were loaded or rejected, and how fast the file was read. For use in the Wardrobe Manager project.
+ */
+public class LoadReport {
+
+  //data fields
+  private final long linesRead;
+  private final long itemsLoaded;
+  private final long rejectedLines;
+  private final long duplicateLines;
+  private final long bytesRead;
+  private final long elapsedNanos;
+
+  /**
+   * Creates a new report with the given counts.
+   *
+   * @param linesRead - the number of lines read from the file
+   * @param itemsLoaded - the number of pieces of clothing added to the wardrobe
+   * @param rejectedLines - the number of lines that could not be parsed to a piece of clothing
+   * @param duplicateLines - the number of lines holding clothing that was already in the wardrobe
+   * @param bytesRead - the size of the file, in bytes
+   * @param elapsedNanos - how long loading the file took, in nanoseconds
+   */
+  LoadReport(long linesRead, long itemsLoaded, long rejectedLines, long duplicateLines, long bytesRead,
+             long elapsedNanos) {
+    this.linesRead = linesRead;
+    this.itemsLoaded = itemsLoaded;
+    this.rejectedLines = rejectedLines;
+    this.duplicateLines = duplicateLines;
+    this.bytesRead = bytesRead;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Getter for the number of lines read from the file.
+   *
+   * @return the number of lines read
+   */
+  public long getLinesRead() {
+    return this.linesRead;
+  }
+
+  /**
+   * Getter for the number of pieces of clothing added to the wardrobe.
+   *
+   * @return the number of pieces of clothing loaded
+   */
+  public long getItemsLoaded() {
+    return this.itemsLoaded;
+  }
+
+  /**
+   * Getter for the number of lines that could not be parsed to a piece of clothing.
+   *
+   * @return the number of rejected lines
+   */
+  public long getRejectedLines() {
+    return this.rejectedLines;
+  }
+
+  /**
+   * Getter for the number of lines skipped because their clothing was already in the wardrobe.
+   *
+   * @return the number of duplicate lines
+   */
+  public long getDuplicateLines() {
+    return this.duplicateLines;
+  }
+
+  /**
+   * Getter for the size of the file that was read.
+   *
+   * @return the number of bytes read
+   */
+  public long getBytesRead() {
+    return this.bytesRead;
+  }
+
+  /**
+   * Getter for how long loading the file took.
+   *
+   * @return the elapsed time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  /**
+   * Calculates the throughput of the load in lines per second.
+   *
+   * @return the number of lines read per second
+   */
+  public double linesPerSecond() {
+    return this.linesRead * 1e9 / Math.max(this.elapsedNanos, 1);
+  }
+
+  /**
+   * Calculates the throughput of the load in megabytes per second.
+   *
+   * @return the number of megabytes (2^20 bytes) read per second
+   */
+  public double megabytesPerSecond() {
+    return this.bytesRead * 1e9 / (1024.0 * 1024.0) / Math.max(this.elapsedNanos, 1);
+  }
+
+  /**
+   * Creates and returns a one line summary of this report.
+   *
+   * @return the String representation of this report
+   */
+  @Override
+  public String toString() {
+    return String.format("Loaded %d pieces of clothing from %d lines (%d rejected, %d duplicates) in %.1f ms, "
+                         + "%.0f lines/s, %.1f MB/s", itemsLoaded, linesRead, rejectedLines, duplicateLines,
+                         elapsedNanos / 1e6, linesPerSecond(), megabytesPerSecond());
+  }
+}
@@ -0,0 +1,408 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * An instantiable class that represents a ColumnarWardrobe kept in a memory-mapped store file, so that every change
+ * is written to the file as it is made instead of by saving the whole wardrobe. The store is laid out as
+ * <pre>
+ *   a 32 byte header: magic "WRDM", version, number of records used, next sequence number, end of the string heap
+ *   then one 32 byte record for each piece of clothing: its sequence number (0 for a free record), the heap offsets
+ *   of its description and brand, its last worn date as an epoch day and its number of times worn
+ * </pre>
+ * with the descriptions and brands kept as length-prefixed UTF-8 strings in a string heap file next to it, named
+ * after it with ".heap" added. Each brand spelling is stored in the heap once.
+ * <p>
+ * Wearing a piece of clothing rewrites the two ints of its record in place in the mapping, removing it marks its
+ * record free for the next piece of clothing added, and adding one appends its strings to the heap. Opening the store
+ * maps it and rebuilds the columns and hash table straight from the records, in the order the clothing was added,
+ * without parsing any text. Changes reach the disk whenever the operating system writes the mapped pages back, and
+ * flush() forces them there. Descriptions of removed clothing stay in the heap. Like ColumnarWardrobe, this class is
+ * not thread-safe. For use in the Wardrobe Manager project.
+ */
+public class MappedWardrobe extends ColumnarWardrobe implements AutoCloseable {
+
+  /**
+   * The magic number every store file starts with, "WRDM".
+   */
+  static final int MAGIC = ('W' << 24) | ('R' << 16) | ('D' << 8) | 'M';
+
+  /**
+   * The version of the store layout written by this class.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * What the name of the string heap file adds to the name of its store file.
+   */
+  static final String HEAP_SUFFIX = ".heap";
+
+  //the layout of the header and of each record, in bytes
+  private static final int HEADER_SIZE = 32;
+  private static final int RECORDS_USED = 8;
+  private static final int NEXT_SEQ = 16;
+  private static final int HEAP_END = 24;
+  private static final int RECORD_SIZE = 32;
+  private static final int SEQ = 0;
+  private static final int DESCRIPTION = 8;
+  private static final int BRAND = 16;
+  private static final int LAST_WORN_DAY = 24;
+  private static final int TIMES_WORN = 28;
+  private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE; //what one mapping can hold
+
+  //data fields
+  private final FileChannel records;
+  private final FileChannel heap;
+  private MappedByteBuffer map; //the header and records, remapped larger when full
+  private int usedRecords; //every record at or after this one has never been used
+  private int[] freeRecords; //records freed by removals, reused before records that have never been used
+  private int freeCount;
+  private int[] recordOf; //the record of the clothing in each slot
+  private long nextSeq; //the sequence number of the next piece of clothing added, which keeps wardrobe order
+  private long heapEnd;
+  private final HashMap<String, Long> brandRefs; //the heap offset of every brand spelling stored so far
+  private int openingRecord; //the record being loaded while the store is opened, -1 otherwise
+
+  /**
+   * Creates a new, still empty, MappedWardrobe over the given store and heap.
+   *
+   * @param records - the store file, open for reading and writing
+   * @param heap - the string heap file, open for reading and writing
+   */
+  private MappedWardrobe(FileChannel records, FileChannel heap) {
+    super(16);
+    this.records = records;
+    this.heap = heap;
+    this.freeRecords = new int[16];
+    this.recordOf = new int[16];
+    this.brandRefs = new HashMap<>();
+    this.openingRecord = -1;
+  }
+
+  /**
+   * Opens the store in the given file, creating an empty one if the file does not exist, and maps it into a
+   * wardrobe holding all the clothing it stores, in the order it was added.
+   *
+   * @param file - the store file
+   * @return the wardrobe kept in the store
+   * @throws IOException - if the file cannot be opened or mapped, or is not a valid store file
+   */
+  public static MappedWardrobe open(File file) throws IOException {
+    FileChannel records = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    FileChannel heap = null;
+    try {
+      heap = FileChannel.open(new File(file.getPath() + HEAP_SUFFIX).toPath(), StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE);
+      MappedWardrobe wardrobe = new MappedWardrobe(records, heap);
+      wardrobe.load();
+      return wardrobe;
+    } catch (IOException | RuntimeException e) {
+      records.close();
+      if (heap != null) {
+        heap.close();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Forces every change made to the wardrobe so far to disk: first the string heap, then the mapped records.
+   *
+   * @throws IOException - if the heap cannot be forced to disk
+   */
+  public void flush() throws IOException {
+    heap.force(false);
+    map.force();
+  }
+
+  /**
+   * Flushes the wardrobe and closes its files. The wardrobe should not be used afterwards.
+   *
+   * @throws IOException - if the changes cannot be flushed or the files cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      records.close();
+      heap.close();
+    }
+  }
+
+  /**
+   * Stores a piece of clothing just added to the given slot in a record, reusing a free record if there is one, and
+   * its description and brand in the heap.
+   *
+   * @param slot - the slot the piece of clothing was copied into
+   * @param cloth - the piece of clothing that was added
+   * @throws UncheckedIOException - if the heap cannot be written, in which case the clothing stays in the wardrobe
+   *                                but is not stored
+   * @throws IllegalStateException - with a descriptive message if the store has no room for another record
+   */
+  @Override
+  void added(int slot, Clothing cloth) {
+    if (slot >= recordOf.length) {
+      recordOf = Arrays.copyOf(recordOf, Math.max(slot + 1, recordOf.length * 2));
+    }
+    if (openingRecord >= 0) { //loaded from the store, it already has its record
+      recordOf[slot] = openingRecord;
+      return;
+    }
+
+    try {
+      long description = writeString(cloth.getDescription());
+      Long brand = brandRefs.get(cloth.getBrand());
+      if (brand == null) {
+        brand = writeString(cloth.getBrand());
+        brandRefs.put(cloth.getBrand(), brand);
+      }
+      int record = (freeCount > 0) ? freeRecords[--freeCount] : newRecord();
+      int at = offsetOf(record);
+      map.putLong(at + DESCRIPTION, description);
+      map.putLong(at + BRAND, brand);
+      map.putInt(at + LAST_WORN_DAY, cloth.getLastWornEpochDay());
+      map.putInt(at + TIMES_WORN, cloth.getNumOfTimesWorn());
+      map.putLong(at + SEQ, nextSeq++); //written last, the record is in use from here on
+      map.putLong(NEXT_SEQ, nextSeq);
+      recordOf[slot] = record;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Marks the record of the clothing in the given slot free.
+   *
+   * @param slot - the slot that is about to be freed
+   */
+  @Override
+  void freed(int slot) {
+    int record = recordOf[slot];
+    map.putLong(offsetOf(record) + SEQ, 0);
+    pushFree(record);
+  }
+
+  /**
+   * Wears the piece of clothing in the given slot the given number of times and writes its new number of times worn
+   * and last worn date in place in its record.
+   *
+   * @param slot - the slot of the piece of clothing
+   * @param count - the number of wears
+   * @param epochDay - the date of the latest wear as an epoch day
+   */
+  @Override
+  void wear(int slot, int count, int epochDay) {
+    super.wear(slot, count, epochDay);
+    int at = offsetOf(recordOf[slot]);
+    map.putInt(at + LAST_WORN_DAY, lastWornDayAt(slot));
+    map.putInt(at + TIMES_WORN, timesWornAt(slot));
+  }
+
+  /**
+   * Maps the store, writing a new header if it is empty, and adds every piece of clothing in it to the columns in
+   * the order it was added. The sequence numbers are renumbered from 1 on the way, so they stay small.
+   *
+   * @throws IOException - if the store cannot be mapped or is not a valid store file
+   */
+  private void load() throws IOException {
+    if (records.size() == 0) {
+      mapRecords(16);
+      map.putInt(0, MAGIC);
+      map.putInt(4, VERSION);
+      map.putInt(RECORDS_USED, 0);
+      nextSeq = 1;
+      map.putLong(NEXT_SEQ, nextSeq);
+      heap.truncate(0);
+      map.putLong(HEAP_END, 0);
+      return;
+    }
+    if (records.size() < HEADER_SIZE || records.size() > HEADER_SIZE + (long) MAX_RECORDS * RECORD_SIZE) {
+      throw new IOException("Not a mapped wardrobe file.");
+    }
+    mapRecords((int) ((records.size() - HEADER_SIZE) / RECORD_SIZE));
+    if (map.getInt(0) != MAGIC) {
+      throw new IOException("Not a mapped wardrobe file.");
+    }
+    if (map.getInt(4) != VERSION) {
+      throw new IOException("Unsupported mapped wardrobe version: " + map.getInt(4));
+    }
+    usedRecords = map.getInt(RECORDS_USED);
+    if (usedRecords < 0 || usedRecords > capacityOfMap()) {
+      throw new IOException("Invalid number of records: " + usedRecords);
+    }
+    //heap bytes past the recorded end were never committed, and the recorded end may be ahead of a heap that had
+    //not reached the disk yet
+    heapEnd = Math.min(map.getLong(HEAP_END), heap.size());
+    if (heapEnd < 0 || heapEnd > Integer.MAX_VALUE) {
+      throw new IOException("Invalid string heap size: " + heapEnd);
+    }
+    heap.truncate(heapEnd);
+    map.putLong(HEAP_END, heapEnd);
+    ByteBuffer strings = heap.map(FileChannel.MapMode.READ_ONLY, 0, heapEnd);
+
+    //sort the records in use by sequence number, packed together with the record number
+    long[] order = new long[usedRecords];
+    int live = 0;
+    for (int record = 0; record < usedRecords; record++) {
+      long seq = map.getLong(offsetOf(record) + SEQ);
+      if (seq == 0) {
+        pushFree(record);
+      } else if (seq < 0 || seq >= 1L << 32) {
+        throw new IOException("Invalid sequence number " + seq + " in record " + record);
+      } else {
+        order[live++] = (seq << 31) | record;
+      }
+    }
+    Arrays.sort(order, 0, live);
+
+    ensureCapacity(live);
+    HashMap<Long, String> brandsByRef = new HashMap<>();
+    long seq = 1;
+    for (int i = 0; i < live; i++) {
+      int record = (int) (order[i] & Integer.MAX_VALUE);
+      int at = offsetOf(record);
+      String description = readString(strings, map.getLong(at + DESCRIPTION));
+      long brandRef = map.getLong(at + BRAND);
+      String brand = brandsByRef.get(brandRef);
+      if (brand == null) {
+        brand = readString(strings, brandRef);
+        brandsByRef.put(brandRef, brand);
+      }
+
+      //a record whose strings were lost in a crash, or that repeats another piece of clothing, is freed
+      boolean loaded = false;
+      if (description != null && brand != null && !description.isBlank() && !brand.isBlank()) {
+        Clothing cloth = new Clothing(description, BrandDictionary.GLOBAL.intern(brand),
+                                      map.getInt(at + TIMES_WORN), map.getInt(at + LAST_WORN_DAY));
+        openingRecord = record;
+        try {
+          loaded = addIfAbsent(cloth);
+        } finally {
+          openingRecord = -1;
+        }
+        brandRefs.putIfAbsent(cloth.getBrand(), brandRef);
+      }
+      if (loaded) {
+        map.putLong(at + SEQ, seq++);
+      } else {
+        map.putLong(at + SEQ, 0);
+        pushFree(record);
+      }
+    }
+    nextSeq = seq;
+    map.putLong(NEXT_SEQ, nextSeq);
+  }
+
+  /**
+   * Maps the header and the given number of records, growing the store file if needed.
+   *
+   * @param recordCount - the number of records to map
+   * @throws IOException - if the store cannot be mapped
+   */
+  private void mapRecords(int recordCount) throws IOException {
+    map = records.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordCount * RECORD_SIZE);
+  }
+
+  /**
+   * Finds the number of records the current mapping can hold.
+   *
+   * @return the number of records mapped
+   */
+  private int capacityOfMap() {
+    return (map.capacity() - HEADER_SIZE) / RECORD_SIZE;
+  }
+
+  /**
+   * Takes a record that has never been used, doubling the mapping if it is full.
+   *
+   * @return the record
+   * @throws IOException - if the store cannot be grown
+   * @throws IllegalStateException - with a descriptive message if the store already holds as many records as one
+   *                                 mapping can
+   */
+  private int newRecord() throws IOException {
+    if (usedRecords == capacityOfMap()) {
+      if (usedRecords == MAX_RECORDS) {
+        throw new IllegalStateException("The mapped wardrobe is full.");
+      }
+      mapRecords((int) Math.min(MAX_RECORDS, Math.max(16L, 2L * usedRecords)));
+    }
+    map.putInt(RECORDS_USED, usedRecords + 1);
+    return usedRecords++;
+  }
+
+  /**
+   * Adds a record to the free records.
+   *
+   * @param record - the free record
+   */
+  private void pushFree(int record) {
+    if (freeCount == freeRecords.length) {
+      freeRecords = Arrays.copyOf(freeRecords, freeCount * 2);
+    }
+    freeRecords[freeCount++] = record;
+  }
+
+  /**
+   * Finds where the given record starts in the mapping.
+   *
+   * @param record - the record
+   * @return the offset of the record, in bytes
+   */
+  private static int offsetOf(int record) {
+    return HEADER_SIZE + record * RECORD_SIZE;
+  }
+
+  /**
+   * Appends a string to the heap and records the new end of the heap in the header.
+   *
+   * @param s - the string to append
+   * @return the heap offset of the string
+   * @throws IOException - if the heap cannot be written
+   * @throws IllegalStateException - with a descriptive message if the heap has no room for the string
+   */
+  private long writeString(String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    if (heapEnd + 4 + bytes.length > Integer.MAX_VALUE) {
+      throw new IllegalStateException("The string heap of the mapped wardrobe is full.");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length);
+    buffer.putInt(bytes.length).put(bytes).flip();
+    long ref = heapEnd;
+    while (buffer.hasRemaining()) {
+      heap.write(buffer, ref + buffer.position());
+    }
+    heapEnd += 4 + bytes.length;
+    map.putLong(HEAP_END, heapEnd);
+    return ref;
+  }
+
+  /**
+   * Reads a string from the heap.
+   *
+   * @param strings - the mapped heap
+   * @param ref - the heap offset of the string
+   * @return the string, or null if ref does not point at a whole string in the heap
+   */
+  private static String readString(ByteBuffer strings, long ref) {
+    if (ref < 0 || ref > strings.limit() - 4) {
+      return null;
+    }
+    int length = strings.getInt((int) ref);
+    if (length < 0 || length > strings.limit() - ref - 4) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    strings.get((int) ref + 4, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,159 @@
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads a save file of Clothing on several threads. The file is split into chunks that each end at a line break,
+ * and the chunks are parsed in parallel on a fork-join pool. The parsed clothing is handed back chunk by chunk in
+ * file order so it can be merged into a Wardrobe. For use in the Wardrobe Manager project.
+ */
+class ParallelClothingReader {
+
+  /**
+   * The smallest chunk a file is split into, in bytes.
+   */
+  static final int MIN_CHUNK_SIZE = 1 << 20;
+
+  /**
+   * The largest chunk a file is split into, in bytes.
+   */
+  static final int MAX_CHUNK_SIZE = 64 << 20;
+
+  /**
+   * The clothing parsed from one chunk of a file.
+   */
+  static class Chunk {
+    final ArrayList<Clothing> clothing = new ArrayList<>(); //the parsed clothing, in file order
+    long linesRead;
+    long rejectedLines;
+  }
+
+  /**
+   * Reads and parses the given file in parallel.
+   *
+   * @param saveFile - the File that the information should be read from
+   * @param parallelism - the number of threads to parse the file on
+   * @return the parsed chunks of the file, in file order
+   * @throws IOException - if the file cannot be read
+   */
+  static ArrayList<Chunk> read(File saveFile, int parallelism) throws IOException {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try (FileChannel channel = FileChannel.open(saveFile.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size / (parallelism * 4L)));
+
+      //split the file into chunks that end right after a line break, and parse each of them on the pool
+      ArrayList<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+      long start = 0;
+      while (start < size) {
+        long end = nextLineStart(channel, Math.min(start + chunkSize, size), size);
+        long chunkStart = start;
+        tasks.add(pool.submit(() -> parseChunk(channel, chunkStart, end)));
+        start = end;
+      }
+
+      //collect the chunks in file order
+      ArrayList<Chunk> chunks = new ArrayList<>(tasks.size());
+      for (ForkJoinTask<Chunk> task : tasks) {
+        chunks.add(task.get());
+      }
+      return chunks;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading " + saveFile, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Could not read " + saveFile, e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Finds the start of the first line at or after the given position, that is the position right after the next
+   * line break, or the end of the file if there is none.
+   *
+   * @param channel - the file to search
+   * @param position - where to start searching
+   * @param size - the size of the file
+   * @return the position of the start of the next line
+   * @throws IOException - if the file cannot be read
+   */
+  private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+    if (position >= size || position == 0) {
+      return position;
+    }
+    //the line break that ends the previous chunk may sit right before position
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+    long pos = position - 1;
+    while (pos < size) {
+      buffer.clear();
+      int read = channel.read(buffer, pos);
+      if (read < 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return pos + i + 1;
+        }
+      }
+      pos += read;
+    }
+    return size;
+  }
+
+  /**
+   * Reads and parses the lines of one chunk of the file. A line ends at \n, \r or \r\n, like
+   * BufferedReader.readLine().
+   *
+   * @param channel - the file to read
+   * @param start - the position of the first byte of the chunk
+   * @param end - the position after the last byte of the chunk
+   * @return the clothing parsed from the chunk
+   * @throws IOException - if the file cannot be read
+   */
+  private static Chunk parseChunk(FileChannel channel, long start, long end) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, start + buffer.position()) < 0) {
+        throw new EOFException("The file was truncated while it was being read");
+      }
+    }
+    String text = new String(buffer.array(), StandardCharsets.UTF_8);
+
+    Chunk chunk = new Chunk();
+    ClothingParser parser = new ClothingParser();
+    int lineStart = 0;
+    int length = text.length();
+    while (lineStart < length) {
+      //find the end of this line
+      int lineEnd = lineStart;
+      while (lineEnd < length && text.charAt(lineEnd) != '\n' && text.charAt(lineEnd) != '\r') {
+        lineEnd++;
+      }
+      chunk.linesRead++;
+      Clothing cloth = parser.parse(text, lineStart, lineEnd);
+      if (cloth == null) {
+        chunk.rejectedLines++;
+      } else {
+        chunk.clothing.add(cloth);
+      }
+      //skip the line break, treating \r\n as one
+      if (lineEnd + 1 < length && text.charAt(lineEnd) == '\r' && text.charAt(lineEnd + 1) == '\n') {
+        lineEnd++;
+      }
+      lineStart = lineEnd + 1;
+    }
+    return chunk;
+  }
+}
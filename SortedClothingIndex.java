@@ -0,0 +1,163 @@
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.TreeMap;
+
+/**
+ * A secondary index over the Clothing in a Wardrobe, sorted by a key such as the last worn date. Clothing that shares
+ * a key is kept together in a bucket in the order it was indexed. Keys are never null; clothing that has never been
+ * worn is keyed by an epoch day that sorts before every date. The key each piece of clothing was indexed under is
+ * remembered, so it is moved and removed from the right bucket even if its key has changed since.
+ * For use in the Wardrobe Manager project.
+ *
+ * @param <K> - the type of the key the clothing is sorted by
+ */
+class SortedClothingIndex<K extends Comparable<? super K>> {
+
+  //data fields
+  private TreeMap<K, LinkedHashSet<Clothing>> buckets; //the clothing grouped by key
+  private HashMap<Clothing, K> keys; //the key each piece of clothing was indexed under
+
+  /**
+   * Creates a new empty index.
+   */
+  SortedClothingIndex() {
+    buckets = new TreeMap<>();
+    keys = new HashMap<>();
+  }
+
+  /**
+   * Getter for the number of pieces of clothing in this index.
+   *
+   * @return the number of pieces of clothing in this index
+   */
+  int size() {
+    return this.keys.size();
+  }
+
+  /**
+   * Adds a piece of clothing to the bucket of the given key, unless it is already in this index.
+   *
+   * @param key - the key of the piece of clothing
+   * @param cloth - the piece of clothing to add
+   */
+  void add(K key, Clothing cloth) {
+    if (keys.putIfAbsent(cloth, key) == null) {
+      buckets.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(cloth);
+    }
+  }
+
+  /**
+   * Removes a piece of clothing from the bucket it was indexed under. Empty buckets are dropped.
+   *
+   * @param cloth - the piece of clothing to remove
+   */
+  void remove(Clothing cloth) {
+    K key = keys.remove(cloth);
+    if (key == null) {
+      return; //not in this index
+    }
+    LinkedHashSet<Clothing> bucket = buckets.get(key);
+    bucket.remove(cloth);
+    if (bucket.isEmpty()) {
+      buckets.remove(key);
+    }
+  }
+
+  /**
+   * Moves a piece of clothing from the bucket it was indexed under to the bucket of its new key.
+   *
+   * @param cloth - the piece of clothing to move
+   * @param newKey - the new key of the piece of clothing
+   */
+  void move(Clothing cloth, K newKey) {
+    K oldKey = keys.get(cloth);
+    if (oldKey == null || oldKey.equals(newKey)) {
+      return; //not in this index, or still in the right bucket
+    }
+    remove(cloth);
+    add(newKey, cloth);
+  }
+
+  /**
+   * Adds all the clothing with a key strictly before the given key to the given collection, in key order.
+   *
+   * @param key - the exclusive upper bound of the keys
+   * @param result - the collection to add the clothing to
+   */
+  void collectBefore(K key, Collection<Clothing> result) {
+    for (LinkedHashSet<Clothing> bucket : buckets.headMap(key, false).values()) {
+      result.addAll(bucket);
+    }
+  }
+
+  /**
+   * Adds all the clothing with a key in the range [from, to] to the given collection, in key order.
+   *
+   * @param from - the inclusive lower bound of the keys
+   * @param to - the inclusive upper bound of the keys
+   * @param result - the collection to add the clothing to
+   */
+  void collectBetween(K from, K to, Collection<Clothing> result) {
+    if (from.compareTo(to) > 0) {
+      return; //empty range
+    }
+    for (LinkedHashSet<Clothing> bucket : buckets.subMap(from, true, to, true).values()) {
+      result.addAll(bucket);
+    }
+  }
+
+  /**
+   * Adds the first k pieces of clothing in key order to the given collection. Only the buckets that contribute to
+   * the result are visited.
+   *
+   * @param k - the maximum number of pieces of clothing to add
+   * @param result - the collection to add the clothing to
+   */
+  void collectFirst(int k, Collection<Clothing> result) {
+    int remaining = k;
+    Iterator<LinkedHashSet<Clothing>> it = buckets.values().iterator();
+    while (remaining > 0 && it.hasNext()) {
+      remaining = collectUpTo(it.next(), remaining, result);
+    }
+  }
+
+  /**
+   * Adds the last k pieces of clothing in key order to the given collection, starting with the greatest key. Only
+   * the buckets that contribute to the result are visited.
+   *
+   * @param k - the maximum number of pieces of clothing to add
+   * @param result - the collection to add the clothing to
+   */
+  void collectLast(int k, Collection<Clothing> result) {
+    int remaining = k;
+    Iterator<LinkedHashSet<Clothing>> it = buckets.descendingMap().values().iterator();
+    while (remaining > 0 && it.hasNext()) {
+      remaining = collectUpTo(it.next(), remaining, result);
+    }
+  }
+
+  /**
+   * Adds up to k pieces of clothing from the given bucket to the given collection.
+   *
+   * @param bucket - the bucket to take the clothing from
+   * @param k - the maximum number of pieces of clothing to add
+   * @param result - the collection to add the clothing to
+   * @return how many more pieces of clothing may still be added after this bucket
+   */
+  private static int collectUpTo(LinkedHashSet<Clothing> bucket, int k, Collection<Clothing> result) {
+    if (k <= 0) {
+      return 0;
+    }
+    if (bucket.size() <= k) {
+      result.addAll(bucket);
+      return k - bucket.size();
+    }
+    Iterator<Clothing> it = bucket.iterator();
+    for (int i = 0; i < k; i++) {
+      result.add(it.next());
+    }
+    return 0;
+  }
+}
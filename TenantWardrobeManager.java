@@ -0,0 +1,433 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * An instantiable class that manages one Wardrobe for each of many users, or tenants, of the same node. The tenants
+ * are spread over a number of shards by the hash of their name, and each shard has a single worker thread that
+ * runs every operation on the wardrobes of its tenants, one at a time. A wardrobe is only ever touched by the thread
+ * of its shard, so plain Wardrobes are used and no lock is shared between shards; the node scales with the number of
+ * shards, normally one per core.
+ * <p>
+ * A tenant's wardrobe is loaded from its save file in the manager's directory the first time an operation needs it,
+ * and kept in memory after that. The file is named after the tenant in lower case, so names that differ only in case
+ * are the same tenant on every file system. Each shard keeps at most a fixed number of wardrobes loaded: once it has
+ * more, the least recently used ones are saved back to their files, if they were changed, and dropped from memory,
+ * so memory stays bounded however many tenants there are. A wardrobe that cannot be saved is kept loaded until it
+ * can be. Closing the manager saves every changed wardrobe. The brands of the clothing of dropped wardrobes are
+ * dropped from the brand dictionary too, once no other clothing uses them. For use in the Wardrobe Manager project.
+ */
+public class TenantWardrobeManager implements AutoCloseable {
+
+  /**
+   * The number of wardrobes each shard keeps loaded, unless told otherwise.
+   */
+  public static final int DEFAULT_MAX_LOADED_PER_SHARD = 1024;
+
+  private static final Pattern TENANT_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}"); //also safe as a file name
+  private static final String SUFFIX = ".txt";
+
+  //data fields
+  private final File directory;
+  private final int maxLoadedPerShard;
+  private final Shard[] shards;
+  private final ReentrantReadWriteLock lifecycle; //held to read while submitting work, to write while closing
+  private volatile boolean closed; //only written with the write lock of lifecycle held
+
+  /**
+   * A loaded wardrobe of a tenant.
+   */
+  private static final class Tenant {
+    final Wardrobe wardrobe;
+    boolean changed; //whether the wardrobe was changed since it was loaded or last saved
+
+    /**
+     * Creates a loaded tenant holding the given wardrobe.
+     *
+     * @param wardrobe - the wardrobe of the tenant
+     */
+    Tenant(Wardrobe wardrobe) {
+      this.wardrobe = wardrobe;
+    }
+  }
+
+  /**
+   * A group of tenants whose wardrobes are only touched by the single worker thread of the shard.
+   */
+  private final class Shard {
+    final ExecutorService worker;
+    final LinkedHashMap<String, Tenant> loaded; //the loaded wardrobes, least recently used first
+    volatile int loadedCount; //the size of loaded, for other threads to read
+    volatile long loads; //the number of wardrobes loaded, only written by the worker
+    volatile long evictions; //the number of wardrobes dropped from memory, only written by the worker
+
+    /**
+     * Creates the shard with the given number and starts its worker thread.
+     *
+     * @param number - the number of the shard, used to name its thread
+     */
+    Shard(int number) {
+      worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "wardrobe-shard-" + number);
+        thread.setDaemon(true);
+        return thread;
+      });
+      loaded = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Runs an operation on the wardrobe of a tenant, loading it first if needed. Only called by the worker.
+     *
+     * @param name - the name of the tenant
+     * @param operation - the operation to run
+     * @param changes - whether the operation may change the wardrobe
+     * @return the result of the operation
+     * @throws UncheckedIOException - if the wardrobe cannot be loaded from its file
+     */
+    <T> T run(String name, Function<Wardrobe, T> operation, boolean changes) {
+      Tenant tenant = loaded.get(name);
+      if (tenant == null) {
+        tenant = load(name);
+        loaded.put(name, tenant);
+        evict(name);
+        loadedCount = loaded.size();
+      }
+      try {
+        return operation.apply(tenant.wardrobe);
+      } finally {
+        tenant.changed |= changes; //even a failed operation may have changed part of the wardrobe
+      }
+    }
+
+    /**
+     * Loads the wardrobe of a tenant from its file, or creates an empty one if the tenant has no file yet.
+     *
+     * @param name - the name of the tenant
+     * @return the loaded tenant
+     * @throws UncheckedIOException - if the file exists but cannot be read
+     */
+    private Tenant load(String name) {
+      Wardrobe wardrobe = new Wardrobe(10);
+      File file = fileOf(name);
+      if (file.exists()) {
+        try {
+          wardrobe.loadFromFile(file, Wardrobe.DEFAULT_BUFFER_SIZE);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      loads++;
+      return new Tenant(wardrobe);
+    }
+
+    /**
+     * Saves and drops the least recently used wardrobes until no more than maxLoadedPerShard are loaded, skipping
+     * the wardrobe being used and any that cannot be saved.
+     *
+     * @param current - the name of the tenant whose wardrobe is being used
+     */
+    private void evict(String current) {
+      Iterator<Map.Entry<String, Tenant>> eldest = loaded.entrySet().iterator();
+      while (loaded.size() > maxLoadedPerShard && eldest.hasNext()) {
+        Map.Entry<String, Tenant> entry = eldest.next();
+        if (!entry.getKey().equals(current) && save(entry.getKey(), entry.getValue())) {
+          eldest.remove();
+          evictions++;
+        }
+      }
+    }
+
+    /**
+     * Saves the wardrobe of a tenant to its file if it was changed since it was loaded or last saved.
+     *
+     * @param name - the name of the tenant
+     * @param tenant - the loaded tenant
+     * @return true if the file holds the wardrobe as it is now, false if it could not be saved
+     */
+    boolean save(String name, Tenant tenant) {
+      if (tenant.changed) {
+        if (!tenant.wardrobe.saveToFile(fileOf(name))) {
+          return false;
+        }
+        tenant.changed = false;
+      }
+      return true;
+    }
+
+    /**
+     * Saves every changed wardrobe of this shard. Only called by the worker.
+     *
+     * @return true if all of them saved successfully, false otherwise
+     */
+    boolean saveAll() {
+      boolean saved = true;
+      for (Map.Entry<String, Tenant> entry : loaded.entrySet()) {
+        saved &= save(entry.getKey(), entry.getValue());
+      }
+      return saved;
+    }
+  }
+
+  /**
+   * Creates a manager over the given directory with the given shards.
+   *
+   * @param directory - the directory holding the save files of the tenants
+   * @param shardCount - the number of shards
+   * @param maxLoadedPerShard - the number of wardrobes each shard keeps loaded
+   */
+  private TenantWardrobeManager(File directory, int shardCount, int maxLoadedPerShard) {
+    this.directory = directory;
+    this.maxLoadedPerShard = maxLoadedPerShard;
+    this.shards = new Shard[shardCount];
+    this.lifecycle = new ReentrantReadWriteLock();
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard(i);
+    }
+  }
+
+  /**
+   * Opens a manager over the save files in the given directory, creating the directory if needed.
+   *
+   * @param directory - the directory holding the save files of the tenants
+   * @param shardCount - the number of shards, and so of worker threads
+   * @param maxLoadedPerShard - the number of wardrobes each shard keeps loaded
+   * @return the open manager
+   * @throws IllegalArgumentException - with a descriptive message if shardCount or maxLoadedPerShard is
+   *                                    non-positive
+   * @throws IOException - if the directory cannot be created
+   */
+  public static TenantWardrobeManager open(File directory, int shardCount, int maxLoadedPerShard)
+      throws IOException {
+    if (shardCount <= 0 || maxLoadedPerShard <= 0) {
+      throw new IllegalArgumentException("Invalid number of shards or loaded wardrobes: " + shardCount + ", "
+          + maxLoadedPerShard);
+    }
+    Files.createDirectories(directory.toPath());
+    return new TenantWardrobeManager(directory, shardCount, maxLoadedPerShard);
+  }
+
+  /**
+   * Opens a manager over the save files in the given directory the same way as open(File, int, int), with one shard
+   * per available processor, each keeping DEFAULT_MAX_LOADED_PER_SHARD wardrobes loaded.
+   *
+   * @param directory - the directory holding the save files of the tenants
+   * @return the open manager
+   * @throws IOException - if the directory cannot be created
+   */
+  public static TenantWardrobeManager open(File directory) throws IOException {
+    return open(directory, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_LOADED_PER_SHARD);
+  }
+
+  /**
+   * Runs an operation that may change the wardrobe of the given tenant on the worker thread of its shard. The
+   * operation must not keep the wardrobe, or any clothing from it, once it returns, since from then on the
+   * wardrobe may be changed, saved or dropped by the worker.
+   *
+   * @param tenant - the name of the tenant, made of letters, digits, _ and -, compared ignoring case
+   * @param operation - the operation to run on the wardrobe of the tenant
+   * @return a future that completes with the result of the operation, or with the exception it threw, or with an
+   *         UncheckedIOException if the wardrobe could not be loaded
+   * @throws IllegalArgumentException - with a descriptive message if the name of the tenant is not valid
+   * @throws IllegalStateException - with a descriptive message if the manager is closed
+   */
+  public <T> CompletableFuture<T> update(String tenant, Function<Wardrobe, T> operation) {
+    return submit(tenant, operation, true);
+  }
+
+  /**
+   * Runs an operation that only reads the wardrobe of the given tenant on the worker thread of its shard, the same
+   * way as update(). Since the operation does not change the wardrobe, it does not cause the wardrobe to be saved.
+   *
+   * @param tenant - the name of the tenant, made of letters, digits, _ and -, compared ignoring case
+   * @param operation - the operation to run on the wardrobe of the tenant, which must not change it
+   * @return a future that completes with the result of the operation, or with the exception it threw, or with an
+   *         UncheckedIOException if the wardrobe could not be loaded
+   * @throws IllegalArgumentException - with a descriptive message if the name of the tenant is not valid
+   * @throws IllegalStateException - with a descriptive message if the manager is closed
+   */
+  public <T> CompletableFuture<T> query(String tenant, Function<Wardrobe, T> operation) {
+    return submit(tenant, operation, false);
+  }
+
+  /**
+   * Saves every wardrobe that was changed since it was loaded or last saved, and waits for all of them.
+   *
+   * @return true if all of them saved successfully, false otherwise
+   * @throws IllegalStateException - with a descriptive message if the manager is closed
+   */
+  public boolean saveAll() {
+    ArrayList<CompletableFuture<Boolean>> saves;
+    lifecycle.readLock().lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("The manager is closed.");
+      }
+      saves = saveShards();
+    } finally {
+      lifecycle.readLock().unlock();
+    }
+    boolean saved = true;
+    for (CompletableFuture<Boolean> save : saves) {
+      saved &= save.join();
+    }
+    return saved;
+  }
+
+  /**
+   * Getter for the number of wardrobes loaded in memory across all shards.
+   *
+   * @return the number of loaded wardrobes
+   */
+  public int getLoadedCount() {
+    int count = 0;
+    for (Shard shard : shards) {
+      count += shard.loadedCount;
+    }
+    return count;
+  }
+
+  /**
+   * Getter for the number of times a wardrobe was loaded, from its file or empty, across all shards.
+   *
+   * @return the number of loads
+   */
+  public long getLoads() {
+    long loads = 0;
+    for (Shard shard : shards) {
+      loads += shard.loads;
+    }
+    return loads;
+  }
+
+  /**
+   * Getter for the number of times a wardrobe was dropped from memory to make room for another, across all shards.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictions() {
+    long evictions = 0;
+    for (Shard shard : shards) {
+      evictions += shard.evictions;
+    }
+    return evictions;
+  }
+
+  /**
+   * Stops accepting operations, lets the ones already submitted finish, saves every changed wardrobe, and stops the
+   * worker threads. The save is the last task of every worker, so no operation can change a wardrobe after it has
+   * been saved. Closing a manager more than once has no effect.
+   *
+   * @throws UncheckedIOException - if a changed wardrobe could not be saved
+   */
+  @Override
+  public void close() {
+    ArrayList<CompletableFuture<Boolean>> saves;
+    lifecycle.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true; //no operation is being submitted now, and none will be from here on
+      saves = saveShards();
+      for (Shard shard : shards) {
+        shard.worker.shutdown();
+      }
+    } finally {
+      lifecycle.writeLock().unlock();
+    }
+    for (Shard shard : shards) {
+      try {
+        shard.worker.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    boolean saved = true;
+    for (CompletableFuture<Boolean> save : saves) {
+      saved &= save.getNow(false); //a save that has not finished yet cannot be counted on
+    }
+    if (!saved) {
+      throw new UncheckedIOException(new IOException("Not every wardrobe could be saved to " + directory));
+    }
+  }
+
+  /**
+   * Runs an operation on the wardrobe of the given tenant on the worker thread of its shard.
+   *
+   * @param tenant - the name of the tenant
+   * @param operation - the operation to run
+   * @param changes - whether the operation may change the wardrobe
+   * @return a future that completes with the result of the operation
+   * @throws IllegalArgumentException - with a descriptive message if the name of the tenant is not valid
+   * @throws IllegalStateException - with a descriptive message if the manager is closed
+   */
+  private <T> CompletableFuture<T> submit(String tenant, Function<Wardrobe, T> operation, boolean changes) {
+    if (tenant == null || !TENANT_NAME.matcher(tenant).matches()) {
+      throw new IllegalArgumentException("Invalid tenant name: " + tenant);
+    }
+    if (operation == null) {
+      throw new IllegalArgumentException("Cannot run a null operation.");
+    }
+    String name = tenant.toLowerCase(Locale.ROOT); //so that a name always maps to the same file and shard
+    Shard shard = shardOf(name);
+    lifecycle.readLock().lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("The manager is closed.");
+      }
+      return CompletableFuture.supplyAsync(() -> shard.run(name, operation, changes), shard.worker);
+    } finally {
+      lifecycle.readLock().unlock();
+    }
+  }
+
+  /**
+   * Queues a save of every changed wardrobe of every shard on the shards' own worker threads, behind the operations
+   * already submitted. Only called with a lock of lifecycle held.
+   *
+   * @return one future for each shard that completes with true if all of its wardrobes saved successfully
+   */
+  private ArrayList<CompletableFuture<Boolean>> saveShards() {
+    ArrayList<CompletableFuture<Boolean>> saves = new ArrayList<>();
+    for (Shard shard : shards) {
+      saves.add(CompletableFuture.supplyAsync(shard::saveAll, shard.worker));
+    }
+    return saves;
+  }
+
+  /**
+   * Finds the shard of the given tenant, spreading the hash of its name so that similar names land on different
+   * shards.
+   *
+   * @param tenant - the name of the tenant
+   * @return the shard
+   */
+  private Shard shardOf(String tenant) {
+    int hash = tenant.hashCode() * 0x9E3779B9;
+    return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+  }
+
+  /**
+   * Finds the save file of the given tenant.
+   *
+   * @param tenant - the name of the tenant
+   * @return the save file, which may not exist
+   */
+  private File fileOf(String tenant) {
+    return new File(directory, tenant + SUFFIX);
+  }
+}
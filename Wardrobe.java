@@ -1,12 +1,36 @@
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.time.LocalDate;
-import java.util.Scanner;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * An instantiable class that represents a Wardrobe. A Wardrobe object contains and manages Clothing.
@@ -14,9 +38,94 @@ import java.util.Scanner;
  */
 public class Wardrobe {
 
+  /**
+   * The default size, in bytes, of the buffers used to save and load a wardrobe.
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The default size, as a fraction of the size of the wardrobe, that the delta file of an incremental save may grow
+   * to before it is merged back into its base file.
+   */
+  public static final double DEFAULT_MERGE_RATIO = 0.25;
+
   //data fields
   private Clothing[] wardrobe;
   private int wardrobeSize;
+  private HashMap<Clothing, Clothing> index; //every piece of clothing in the wardrobe, keyed case-insensitively
+  private SortedClothingIndex<Integer> lastWornIndex; //the clothing sorted by last worn epoch day, never worn first
+  private SortedClothingIndex<Integer> timesWornIndex; //the clothing sorted by the number of times worn
+  private LookupKey lookupKey; //reused to look up clothing in the index without creating a Clothing each time
+  private ConcurrentLinkedQueue<Held> worn; //clothing worn since it was last moved in the sorted indexes
+  private volatile File baseFile; //the file last saved to or loaded with loadIncremental(), null if none
+  private volatile WardrobeDeltaFormat.Changes dirty; //the clothing changed since baseFile was saved
+  private long deltaEntries; //the number of entries in the delta file of baseFile
+  private volatile WardrobeMetrics metrics = WardrobeMetrics.GLOBAL; //where the time of each operation is recorded
+
+  /**
+   * A piece of clothing held by this wardrobe, copied from the clothing passed to addClothing(). Its wears are
+   * recorded without locks by whichever thread makes them, which then only queues it to be moved in the sorted
+   * indexes; the wardrobe moves it the next time the indexes are used, so threads wearing clothing never touch them.
+   */
+  private final class Held extends Clothing {
+    private final AtomicBoolean queued = new AtomicBoolean(); //whether this is waiting in the worn queue
+
+    /**
+     * Creates a copy of the given piece of clothing for this wardrobe to hold.
+     *
+     * @param cloth - the piece of clothing to copy
+     */
+    Held(Clothing cloth) {
+      super(cloth.getDescription(), cloth.getBrandEntry(), cloth.getNumOfTimesWorn(), cloth.getLastWornEpochDay());
+    }
+
+    @Override
+    void recordWears(int count, int epochDay) {
+      super.recordWears(count, epochDay);
+      //the flag is cleared before the wardrobe reads the new values, so a wear that finds it set is never missed
+      if (!queued.get() && queued.compareAndSet(false, true)) {
+        worn.add(this);
+      }
+    }
+  }
+
+  /**
+   * A Clothing that only holds a description and brand id, reused as the key to look up clothing in the index.
+   */
+  private static final class LookupKey extends Clothing {
+    private String description;
+    private int brandId;
+    private int hash;
+
+    /**
+     * Points this key at the given description and brand.
+     *
+     * @param description - the description of the piece of clothing to look up
+     * @param brandId - the brand id of the piece of clothing to look up
+     * @return this key
+     */
+    LookupKey set(String description, int brandId) {
+      this.description = description;
+      this.brandId = brandId;
+      this.hash = Clothing.hash(description, brandId);
+      return this;
+    }
+
+    @Override
+    public String getDescription() {
+      return this.description;
+    }
+
+    @Override
+    int getBrandId() {
+      return this.brandId;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
 
   //constructor
 
@@ -33,6 +142,21 @@ public class Wardrobe {
       throw new IllegalArgumentException("Invalid information about capacity: " + capacity);
     }
     wardrobe = new Clothing[capacity];
+    index = new HashMap<>();
+    lastWornIndex = new SortedClothingIndex<>();
+    timesWornIndex = new SortedClothingIndex<>();
+    lookupKey = new LookupKey();
+    worn = new ConcurrentLinkedQueue<>();
+    dirty = new WardrobeDeltaFormat.Changes();
+  }
+
+  /**
+   * Creates a new Wardrobe object for a subclass that keeps its clothing in storage of its own. Such a subclass must
+   * override every method that reads or changes the clothing, down to clothingAt(), addIfAbsent() and
+   * ensureCapacity(), so that the storage of this class stays empty.
+   */
+  Wardrobe() {
+    this(1);
   }
 
   /**
@@ -53,6 +177,29 @@ public class Wardrobe {
     return this.wardrobeSize;
   }
 
+  /**
+   * Getter for the metrics this wardrobe records the time taken by its operations to.
+   *
+   * @return the metrics, WardrobeMetrics.GLOBAL unless others were set
+   */
+  public WardrobeMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Setter for the metrics this wardrobe records the time taken by its operations to, so that the operations of
+   * one wardrobe can be measured apart from those of the others.
+   *
+   * @param metrics - the metrics to record to
+   * @throws IllegalArgumentException - with a descriptive message if metrics is null
+   */
+  public void setMetrics(WardrobeMetrics metrics) {
+    if (metrics == null) {
+      throw new IllegalArgumentException("Cannot record to null metrics.");
+    }
+    this.metrics = metrics;
+  }
+
   /**
    * Gets the array that contains all the Clothing in the wardrobe.
    *
@@ -62,38 +209,82 @@ public class Wardrobe {
     return this.wardrobe;
   }
 
+  /**
+   * Gets the piece of clothing at the given position in the wardrobe.
+   *
+   * @param position - the position of the piece of clothing, in the range [0,size())
+   * @return the piece of clothing at that position
+   */
+  Clothing clothingAt(int position) {
+    return this.wardrobe[position];
+  }
+
   /**
    * Adds a piece of clothing at the end of the wardrobe. If the wardrobe does not have room for the piece of clothing,
-   * the wardrobe expands by doubling in capacity. Then adds the new piece of clothing.
+   * the wardrobe expands by doubling in capacity. Then adds the new piece of clothing. The wardrobe holds a copy of
+   * toAdd, which getClothing() and the query methods return; wearing that copy wears the clothing in the wardrobe,
+   * while wearing toAdd itself does not.
    *
    * @param toAdd - the piece of clothing to add to the wardrobe
    * @throws IllegalArgumentException - with a descriptive message if toAdd is already in the wardrobe
    */
   public void addClothing(Clothing toAdd) throws IllegalArgumentException {
-    // check if toAdd is already in the wardrobe
-    for (int i = 0; i < wardrobe.length; i++) {
-      if (wardrobe[i] != null && wardrobe[i].equals(toAdd)) {
+    long start = System.nanoTime();
+    try {
+      //check that there is a piece of clothing to add
+      if (toAdd == null) {
+        throw new IllegalArgumentException("Cannot add a null piece of clothing to the wardrobe.");
+      }
+      // check if toAdd is already in the wardrobe, indexing a copy of it at the same time if it is not
+      Held held = new Held(toAdd);
+      if (index.putIfAbsent(held, held) != null) {
         throw new IllegalArgumentException("The item is already in the wardrobe.");
       }
-    }
-    // toAdd is not in the wardrobe, then try to add it to the wardrobe
-    //check if there is any more space to add clothing
-    if (this.size() < this.capacity()) {
-      //add the clothing to the end of the wardrobe
-      for (int i = 0; i < this.capacity(); i++) {
-        if (wardrobe[i] == null) {
-          wardrobe[i] = toAdd;
-          this.wardrobeSize++;
-          break; //exit the loop after adding the clothing successfully
-        }
+      // toAdd is not in the wardrobe, then add it to the end of the wardrobe
+      //check if there is no more space to add clothing
+      if (this.size() == this.capacity()) {
+        //double the capacity of the original wardrobe
+        ensureCapacity(wardrobeSize + 1);
       }
-      //there is no more space to add clothing
-    } else {
-      //double the capacity of the original wardrobe and add it to the end
-      wardrobe = Arrays.copyOf(wardrobe, wardrobeSize * 2);
-      wardrobe[wardrobeSize] = toAdd;
+      wardrobe[wardrobeSize] = held;
       this.wardrobeSize++;
+      lastWornIndex.add(held.getLastWornEpochDay(), held);
+      timesWornIndex.add(held.getNumOfTimesWorn(), held);
+      markDirty(held);
+    } finally {
+      metrics.record(WardrobeMetrics.ADD, start);
+    }
+  }
+
+  /**
+   * Adds a piece of clothing at the end of the wardrobe unless it is already in the wardrobe.
+   *
+   * @param toAdd - the piece of clothing to add to the wardrobe
+   * @return true if the piece of clothing was added, false if it was already in the wardrobe
+   */
+  boolean addIfAbsent(Clothing toAdd) {
+    if (index.containsKey(toAdd)) {
+      return false;
+    }
+    addClothing(toAdd);
+    return true;
+  }
+
+  /**
+   * Makes sure the wardrobe can hold at least the given number of pieces of clothing, doubling its capacity
+   * as many times as needed.
+   *
+   * @param minCapacity - the number of pieces of clothing the wardrobe must be able to hold
+   */
+  void ensureCapacity(int minCapacity) {
+    if (minCapacity <= wardrobe.length) {
+      return;
+    }
+    long newCapacity = wardrobe.length;
+    while (newCapacity < minCapacity) {
+      newCapacity *= 2;
     }
+    wardrobe = Arrays.copyOf(wardrobe, (int) Math.min(newCapacity, Integer.MAX_VALUE - 8));
   }
 
   /**
@@ -106,21 +297,46 @@ public class Wardrobe {
    * @throws NoSuchElementException - with descriptive message if the clothing does not exist in the wardrobe
    */
   public Clothing getClothing(String description, String brand) {
-    for (Clothing cloth : wardrobe) {
-      //make sure the cloth we are getting is not null
-      if (cloth != null) {
-        //search the cloth that matches the description and brand
-        if (cloth.getDescription().equalsIgnoreCase(description)
-            && cloth.getBrand().equalsIgnoreCase(brand)) {
-          return cloth;
-        }
+    long start = System.nanoTime();
+    try {
+      Clothing cloth = findClothing(description, brand);
+      if (cloth == null) {
+        throw new NoSuchElementException("The clothing does not exist in the wardrobe.");
       }
+      return cloth;
+    } finally {
+      metrics.record(WardrobeMetrics.GET, start);
+    }
+  }
+
+  /**
+   * Looks up the piece of clothing with the matching description and brand in the index of this wardrobe.
+   * The comparisons are CASE INSENSITIVE.
+   *
+   * @param description - the description of the piece of clothing to find
+   * @param brand - the brand of the piece of clothing to find
+   * @return the matching Clothing object in the Wardrobe, or null if there is none
+   */
+  Clothing findClothing(String description, String brand) {
+    //a blank description or brand can never match, since Clothing does not allow them
+    if (description == null || description.isBlank() || brand == null || brand.isBlank()) {
+      return null;
+    }
+    //a brand that is not in the brand dictionary cannot be in the wardrobe either
+    BrandDictionary.Brand knownBrand = BrandDictionary.GLOBAL.find(brand);
+    if (knownBrand == null) {
+      return null;
     }
-    throw new NoSuchElementException("The clothing does not exist in the wardrobe.");
+    Clothing cloth = index.get(lookupKey.set(description, knownBrand.id));
+    lookupKey.set("", 0); //do not hold on to the description
+    return cloth;
   }
 
   /**
-   * Wears the piece of Clothing in this Wardrobe equal to the provided Clothing on the given date.
+   * Wears the piece of Clothing in this Wardrobe equal to the provided Clothing on the given date. The clothing
+   * returned by this wardrobe may also be worn directly with Clothing.wearClothing(), from any number of threads at
+   * once, even while the wardrobe is in use; either way the wardrobe keeps it sorted by last worn date and number of
+   * times worn.
    *
    * @param toWear - the piece of clothing in the Wardrobe that we want to wear
    * @param year - the year that it will be worn
@@ -130,19 +346,172 @@ public class Wardrobe {
    *                                    or the month is outside the range [1,12]
    */
   public void wearClothing(Clothing toWear, int year, int month, int day) {
-    //check the validity of year and month information
-    if (year < 1 || month < 1 || month > 12) {
-      throw new IllegalArgumentException("Invalid year or month: " + year + ", " + month);
+    long start = System.nanoTime();
+    try {
+      //check the validity of year and month information
+      if (year < 1 || month < 1 || month > 12) {
+        throw new IllegalArgumentException("Invalid year or month: " + year + ", " + month);
+      }
+
+      //find the clothing and wear it
+      Clothing cloth = (toWear == null) ? null : index.get(toWear);
+      if (cloth != null) {
+        applyWears(cloth, 1, EpochDays.of(year, month, day));
+      }
+    } finally {
+      metrics.record(WardrobeMetrics.WEAR, start);
+    }
+  }
+
+  /**
+   * Applies a batch of wear events to the clothing in this Wardrobe in one pass. The events are grouped by the piece
+   * of clothing they are for, ignoring case like getClothing(), then each piece of clothing in the wardrobe is worn
+   * once for all of its events: its number of times worn goes up by the number of events and its last worn date
+   * becomes the latest of their dates, if that is later. Every event is looked up once, so the time taken grows with
+   * the size of the batch and not with the size of the wardrobe. Events for clothing that is not in the wardrobe are
+   * reported and otherwise ignored.
+   *
+   * @param events - the wear events to apply
+   * @return one outcome for each distinct piece of clothing in the batch, in the order each first appeared
+   */
+  public List<WearOutcome> wearAll(Iterable<WearEvent> events) {
+    HashMap<Clothing, WearOutcome> known = new HashMap<>(); //keyed by the clothing in the wardrobe
+    HashMap<List<String>, WearOutcome> unknown = new HashMap<>(); //keyed by the case-folded description and brand
+    ArrayList<WearOutcome> outcomes = new ArrayList<>();
+    for (WearEvent event : events) {
+      Clothing cloth = findClothing(event.getDescription(), event.getBrand());
+      WearOutcome outcome;
+      if (cloth != null) {
+        outcome = known.get(cloth);
+        if (outcome == null) {
+          outcome = new WearOutcome(event, cloth);
+          known.put(cloth, outcome);
+          outcomes.add(outcome);
+        }
+      } else {
+        List<String> key =
+            List.of(BrandDictionary.fold(event.getDescription()), BrandDictionary.fold(event.getBrand()));
+        outcome = unknown.get(key);
+        if (outcome == null) {
+          outcome = new WearOutcome(event, null);
+          unknown.put(key, outcome);
+          outcomes.add(outcome);
+        }
+      }
+      outcome.record(event.getEpochDay());
+    }
+
+    for (WearOutcome outcome : outcomes) {
+      if (outcome.isKnown()) {
+        applyWears(outcome.getClothing(), outcome.getWears(), outcome.getLatestEpochDay());
+      }
     }
+    return outcomes;
+  }
+
+  /**
+   * Applies a stream of wear events to the clothing in this Wardrobe in one pass, the same way as
+   * wearAll(Iterable).
+   *
+   * @param events - the wear events to apply
+   * @return one outcome for each distinct piece of clothing in the stream, in the order each first appeared
+   */
+  public List<WearOutcome> wearAll(Stream<WearEvent> events) {
+    return wearAll((Iterable<WearEvent>) events::iterator);
+  }
+
+  /**
+   * Wears a piece of clothing found by findClothing() the given number of times and keeps it sorted in the indexes.
+   *
+   * @param cloth - the piece of clothing in the wardrobe to wear
+   * @param count - the number of wears
+   * @param epochDay - the date of the latest wear as an epoch day
+   */
+  void applyWears(Clothing cloth, int count, int epochDay) {
+    cloth.recordWears(count, epochDay); //queues it to be moved in the indexes
+    reindexWorn();
+  }
 
-    //find the clothing and wear it
-    for (Clothing cloth : wardrobe) {
-      if (cloth != null && cloth.equals(toWear)) {
-        cloth.wearClothing(year, month, day);
+  /**
+   * Moves the clothing worn since it was last moved to the right place in the sorted indexes, and remembers it for
+   * the next incremental save. Clothing is worn without locks by the threads wearing it, so every method that uses
+   * the indexes or the changes since the last save calls this first, on the thread using the wardrobe.
+   */
+  void reindexWorn() {
+    Held cloth;
+    while ((cloth = worn.poll()) != null) {
+      cloth.queued.set(false); //wears from now on queue it again
+      if (index.get(cloth) == cloth) { //clothing worn after it was removed is no longer in the indexes
+        lastWornIndex.move(cloth, cloth.getLastWornEpochDay());
+        timesWornIndex.move(cloth, cloth.getNumOfTimesWorn());
+        markDirty(cloth);
       }
     }
   }
 
+  /**
+   * Checks whether the changes to this wardrobe are being remembered for the next incremental save, so that callers
+   * of markDirty() can skip describing a change when they are not.
+   *
+   * @return true if there is a base file for an incremental save to add to, false otherwise
+   */
+  boolean isTrackingChanges() {
+    return baseFile != null;
+  }
+
+  /**
+   * Checks whether the given file is the base file of incremental saves, so that saving to it starts tracking the
+   * changes to this wardrobe afresh.
+   *
+   * @param saveFile - the file to check
+   * @return true if saveFile is the base file of incremental saves, false otherwise
+   */
+  boolean isBaseFile(File saveFile) {
+    return saveFile.getAbsoluteFile().equals(baseFile);
+  }
+
+  /**
+   * Remembers that a piece of clothing was added or worn since the last save, so that the next incremental save
+   * writes it. Nothing is remembered if there is no base file for an incremental save to add to, and if more
+   * clothing has changed than is left in the wardrobe, the changes are forgotten and the next incremental save will
+   * be a full save, which is then cheaper.
+   *
+   * @param cloth - the piece of clothing that changed
+   */
+  void markDirty(Clothing cloth) {
+    if (baseFile != null) {
+      WardrobeDeltaFormat.Changes changed = dirty;
+      changed.changed(cloth);
+      forgetIfTooMany(changed);
+    }
+  }
+
+  /**
+   * Remembers that a piece of clothing was removed since the last save, the same way as markDirty().
+   *
+   * @param cloth - the piece of clothing that was removed
+   */
+  void markRemoved(Clothing cloth) {
+    if (baseFile != null) {
+      WardrobeDeltaFormat.Changes changed = dirty;
+      changed.removed(cloth);
+      forgetIfTooMany(changed);
+    }
+  }
+
+  /**
+   * Forgets the given changes, and stops tracking changes until the next incremental save, if more clothing has
+   * changed than is left in the wardrobe.
+   *
+   * @param changed - the changes remembered so far
+   */
+  private void forgetIfTooMany(WardrobeDeltaFormat.Changes changed) {
+    if (changed.size() > size()) {
+      baseFile = null;
+      dirty = new WardrobeDeltaFormat.Changes();
+    }
+  }
+
 
   /**
    * Removes the piece of clothing from the wardrobe that has a matching description and brand.
@@ -153,58 +522,214 @@ public class Wardrobe {
    * @throws NoSuchElementException - with a descriptive message if the piece of clothing is not in the wardrobe
    */
   public void removeClothing(String description, String brand) {
-    //check if the wardrobe is empty
-    if (wardrobeSize == 0) {
-      throw new IllegalStateException("The wardrobe is empty");
+    long start = System.nanoTime();
+    try {
+      //check if the wardrobe is empty
+      if (wardrobeSize == 0) {
+        throw new IllegalStateException("The wardrobe is empty");
+      }
+      reindexWorn();
+
+      //try to find the piece of clothing that matches description and brand, then remove it
+      Clothing targetClothing = findClothing(description, brand);
+      if (targetClothing == null) {
+        throw new NoSuchElementException("The clothing does not exist in the wardrobe.");
+      }
+      markRemoved(targetClothing);
+      index.remove(targetClothing);
+      lastWornIndex.remove(targetClothing);
+      timesWornIndex.remove(targetClothing);
+      for (int i = 0; i < wardrobeSize; i++) {
+        if (wardrobe[i] == targetClothing) {
+          // Shift all elements after it down by one position
+          System.arraycopy(wardrobe, i + 1, wardrobe, i, wardrobeSize - 1 - i);
+          // Set the last element to null
+          wardrobe[wardrobeSize - 1] = null;
+          // Decrease the size of the wardrobe
+          wardrobeSize--;
+          break;
+        }
+      }
+    } finally {
+      metrics.record(WardrobeMetrics.REMOVE, start);
     }
-    boolean found=false;
+  }
 
-    //try to find the piece of clothing that matches description and brand,then remove it
-    Clothing targetClothing = getClothing(description, brand);
+  /**
+   * Removes every piece of clothing that matches the given condition from the wardrobe in a single pass.
+   * The remaining pieces of clothing are moved down to fill the gaps and keep their original order.
+   *
+   * @param toRemove - the condition that a piece of clothing must meet to be removed
+   * @return the pieces of clothing that were removed, in the order they appeared in the wardrobe
+   */
+  public Clothing[] removeAllClothingMatching(Predicate<Clothing> toRemove) {
+    reindexWorn();
+    ArrayList<Clothing> removed = new ArrayList<>();
+    int kept = 0; //the number of pieces of clothing kept so far, and where the next one goes
     for (int i = 0; i < wardrobeSize; i++) {
-      if (wardrobe[i] != null && wardrobe[i].equals(targetClothing)) {
-        found=true;
-        // Shift all elements down by one position
-        for (int j = i; j < wardrobeSize - 1; j++) {
-          wardrobe[j] = wardrobe[j + 1];
-        }
-        // Set the last element to null
-        wardrobe[wardrobeSize - 1] = null;
-        // Decrease the size of the wardrobe
-        wardrobeSize--;
-        break;
+      Clothing cloth = wardrobe[i];
+      if (toRemove.test(cloth)) {
+        index.remove(cloth);
+        lastWornIndex.remove(cloth);
+        timesWornIndex.remove(cloth);
+        markRemoved(cloth);
+        removed.add(cloth);
+      } else {
+        wardrobe[kept++] = cloth;
       }
     }
-    if(! found){throw new NoSuchElementException("No such Clothing in the wardrobe");}
+    //clear the slots that are no longer used
+    Arrays.fill(wardrobe, kept, wardrobeSize, null);
+    wardrobeSize = kept;
+    return removed.toArray(new Clothing[0]);
   }
 
   /**
-   * remove all piece of clothing from the wardrobe whole last worn date is Before the given day, month, year
+   * Removes exactly the given pieces of clothing from the wardrobe in a single pass, keeping the order of the rest.
+   * The clothing to remove is found through an index in O(log n + k) time, but the purge itself is still O(n): the
+   * wardrobe keeps its clothing in one array, in the order it was added and with no gaps, which
+   * getArray(), clothingAt() and writeTo() rely on, so every piece of clothing after the first one removed has to
+   * move down. Doing so in one pass costs O(n) once, where removing k pieces one at a time would cost O(k * n).
+   *
+   * @param toRemove - the pieces of clothing in the wardrobe to remove, compared by identity
+   * @return the number of pieces of clothing removed
+   */
+  private int removeAllClothingIn(Set<Clothing> toRemove) {
+    //there is nothing to compact if nothing matched
+    if (toRemove.isEmpty()) {
+      return 0;
+    }
+    return removeAllClothingMatching(toRemove::contains).length;
+  }
+
+  /**
+   * remove all piece of clothing from the wardrobe whole last worn date is Before the given day, month, year.
+   * Clothing that has never been worn is removed as well. The clothing to remove is found through the last
+   * worn date index, keyed by epoch day so that no LocalDate is involved, and clothing worn on or after the date
+   * is never looked at. Removing it still takes O(n) time, since the clothing kept has to move down.
    *
    * @param year - the year of the date to use to remove clothing
    * @param month - month to use to remove cloth
    * @param day - day to use to remove cloth
+   * @return the number of pieces of clothing removed
    */
-  public void removeAllClothingWornBefore(int year, int month, int day) {
-    LocalDate date = LocalDate.of(year, month, day);
-    for (int i = wardrobeSize - 1; i >= 0; i--) {
-      if (wardrobe[i] != null && wardrobe[i].getLastWornDate() == null || wardrobe[i].getLastWornDate().isBefore(date)){
-        removeClothing(wardrobe[i].getDescription(), wardrobe[i].getBrand());
-      }
+  public int removeAllClothingWornBefore(int year, int month, int day) {
+    long start = System.nanoTime();
+    WardrobeEvents.RemoveAll event = new WardrobeEvents.RemoveAll();
+    event.begin();
+    try {
+      int before = EpochDays.of(year, month, day);
+      reindexWorn();
+      Set<Clothing> toRemove = Collections.newSetFromMap(new IdentityHashMap<>()); //no case-insensitive hashing
+      lastWornIndex.collectBefore(before, toRemove); //never worn clothing sorts before every date
+      int removed = removeAllClothingIn(toRemove);
+      WardrobeEvents.commitRemoveWornBefore(event, before, removed, size());
+      return removed;
+    } finally {
+      metrics.record(WardrobeMetrics.REMOVE_WORN_BEFORE, start);
     }
   }
 
   /**
-   * remove all pieces of clothing from the wardrobe who have been worn fewer times than the given threshold
+   * Finds all pieces of clothing whose last worn date is before the given date, including clothing that has never
+   * been worn, the same pieces of clothing removeAllClothingWornBefore() would remove.
+   *
+   * @param date - the date to compare the last worn dates to
+   * @return the matching pieces of clothing, never worn clothing first and then ordered by last worn date
+   */
+  public Clothing[] getClothingWornBefore(LocalDate date) {
+    reindexWorn();
+    ArrayList<Clothing> result = new ArrayList<>();
+    lastWornIndex.collectBefore(EpochDays.clamp(date), result);
+    return result.toArray(new Clothing[0]);
+  }
+
+  /**
+   * Finds all pieces of clothing that were last worn between the two given dates, inclusive.
+   *
+   * @param from - the earliest last worn date to include
+   * @param to - the latest last worn date to include
+   * @return the matching pieces of clothing ordered by last worn date
+   */
+  public Clothing[] getClothingWornBetween(LocalDate from, LocalDate to) {
+    reindexWorn();
+    ArrayList<Clothing> result = new ArrayList<>();
+    lastWornIndex.collectBetween(EpochDays.clamp(from), EpochDays.clamp(to), result);
+    return result.toArray(new Clothing[0]);
+  }
+
+  /**
+   * remove all pieces of clothing from the wardrobe who have been worn fewer times than the given threshold.
+   * The clothing to remove is found through the times worn index, but removing it still takes O(n) time, since
+   * the clothing kept has to move down.
    *
    * @param threshold the upperbound(exclusive) of number of times worn
+   * @return the number of pieces of clothing removed
    */
-  public void removeAllClothingWornNumTimes(int threshold) {
-    for (int i = wardrobeSize - 1; i >= 0; i--) {
-      if (wardrobe[i].getNumOfTimesWorn() < threshold) {
-        removeClothing(wardrobe[i].getDescription(), wardrobe[i].getBrand());
-      }
+  public int removeAllClothingWornNumTimes(int threshold) {
+    long start = System.nanoTime();
+    WardrobeEvents.RemoveAll event = new WardrobeEvents.RemoveAll();
+    event.begin();
+    try {
+      reindexWorn();
+      Set<Clothing> toRemove = Collections.newSetFromMap(new IdentityHashMap<>()); //no case-insensitive hashing
+      timesWornIndex.collectBefore(threshold, toRemove);
+      int removed = removeAllClothingIn(toRemove);
+      WardrobeEvents.commitRemoveWornNumTimes(event, threshold, removed, size());
+      return removed;
+    } finally {
+      metrics.record(WardrobeMetrics.REMOVE_WORN_NUM_TIMES, start);
+    }
+  }
+
+  /**
+   * Finds all pieces of clothing that have been worn fewer times than the given threshold, the same pieces of
+   * clothing removeAllClothingWornNumTimes() would remove.
+   *
+   * @param threshold - the upperbound(exclusive) of number of times worn
+   * @return the matching pieces of clothing, least worn first
+   */
+  public Clothing[] getClothingWornFewerThan(int threshold) {
+    reindexWorn();
+    ArrayList<Clothing> result = new ArrayList<>();
+    timesWornIndex.collectBefore(threshold, result);
+    return result.toArray(new Clothing[0]);
+  }
+
+  /**
+   * Finds the k pieces of clothing that have been worn the most times. Ties are broken by the order the clothing
+   * reached its number of times worn.
+   *
+   * @param k - the number of pieces of clothing to find
+   * @return up to k pieces of clothing, most worn first
+   * @throws IllegalArgumentException - with a descriptive message if k is negative
+   */
+  public Clothing[] getMostWornClothing(int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("Invalid number of pieces of clothing: " + k);
+    }
+    reindexWorn();
+    ArrayList<Clothing> result = new ArrayList<>(Math.min(k, wardrobeSize));
+    timesWornIndex.collectLast(k, result);
+    return result.toArray(new Clothing[0]);
+  }
+
+  /**
+   * Finds the k pieces of clothing that have been worn the fewest times. Ties are broken by the order the clothing
+   * reached its number of times worn.
+   *
+   * @param k - the number of pieces of clothing to find
+   * @return up to k pieces of clothing, least worn first
+   * @throws IllegalArgumentException - with a descriptive message if k is negative
+   */
+  public Clothing[] getLeastWornClothing(int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("Invalid number of pieces of clothing: " + k);
     }
+    reindexWorn();
+    ArrayList<Clothing> result = new ArrayList<>(Math.min(k, wardrobeSize));
+    timesWornIndex.collectFirst(k, result);
+    return result.toArray(new Clothing[0]);
   }
 
   /**
@@ -215,16 +740,52 @@ public class Wardrobe {
    */
   @Override
   public String toString() {
-    String result = "";
-    for (int i = 0; i < wardrobeSize; i++) {
-      if (wardrobe[i] != null) {
-        result += "[" + wardrobe[i].toString() + "]";
-        if (i < wardrobeSize - 1) {
-          result += "\n"; // Add newline character for all but the last item.
-        }
+    StringBuilder result = new StringBuilder();
+    try {
+      writeTo(result);
+    } catch (IOException e) {
+      throw new AssertionError(e); //a StringBuilder never throws an IOException
+    }
+    return result.toString();
+  }
+
+  /**
+   * Writes the string representation of this Wardrobe object to the given destination, in the same format as
+   * toString(), one piece of clothing at a time.
+   *
+   * @param out - the destination to write to
+   * @throws IOException - if out cannot be written to
+   */
+  public void writeTo(Appendable out) throws IOException {
+    writeTo(out, 0, size());
+  }
+
+  /**
+   * Writes one page of the string representation of this Wardrobe object to the given destination. The page starts
+   * at the piece of clothing at the given offset and holds at most limit pieces of clothing, each printed in order on
+   * a new line enclosed in [] brackets. The last line does NOT have a new line character.
+   *
+   * @param out - the destination to write to
+   * @param offset - the position in the wardrobe of the first piece of clothing to write
+   * @param limit - the maximum number of pieces of clothing to write
+   * @return the number of pieces of clothing written, 0 if offset is past the end of the wardrobe
+   * @throws IllegalArgumentException - with a descriptive message if offset or limit is negative
+   * @throws IOException - if out cannot be written to
+   */
+  public int writeTo(Appendable out, int offset, int limit) throws IOException {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("Invalid offset or limit: " + offset + ", " + limit);
+    }
+    int end = (int) Math.min((long) offset + limit, size());
+    for (int i = offset; i < end; i++) {
+      if (i > offset) {
+        out.append('\n'); // Add newline character for all but the last item.
       }
+      out.append('[');
+      clothingAt(i).writeTo(out);
+      out.append(']');
     }
-    return result;
+    return Math.max(end - offset, 0);
   }
 
   /**
@@ -233,102 +794,154 @@ public class Wardrobe {
    * @param str - the String parse to make a Clothing object
    * @return a Clothing object with the pieces of information in the given string
    * @throws ParseException - with a descriptive message if the string does not have the 4 required pieces of
-   *                      information OR if there was an issue converting pieces of information to an int or Date object
+   *                      information OR if there was an issue converting pieces of information to an int or Date object.
+   *                      The error offset is the column of the piece of information that could not be parsed.
    */
   public static Clothing parseClothing(String str) throws ParseException {
-    //split the string into four parts
-    String[] parts = str.split(",");
-    //check if there are four parts from the original string
-    if (parts.length != 4) {
-      throw new ParseException("Incorrect number of fields", 0);
-    }
-
-    String description = parts[0]; //first part is description information
-    String brand = parts[1]; //second part is brand information
-
-    // try to make the third part be parsed into LocalDate datatype
-    LocalDate lastWornDate = null;
-    if (!"null".equals(parts[2]) && !parts[2].isEmpty()) { // Check if the date string is not "null" or empty
-      String[] dateParts = parts[2].split("/"); // Split the date string into month, day, and year
-      if (dateParts.length == 3) { // Ensure the date string is split into exactly three parts: month, day, year
-        String isoDate = dateParts[2] + "-" + dateParts[0] + "-" + dateParts[1]; // Convert to yyyy-MM-dd format
-        try {
-          lastWornDate = LocalDate.parse(isoDate); // Parse the ISO-8601 formatted date string
-        } catch (Exception e) {
-          throw new ParseException("Error parsing the lastWornDate", 0);
-        }
-      } else {
-        throw new ParseException("Date format should be MM/dd/yyyy", 0);
-      }
+    ClothingParser parser = new ClothingParser();
+    Clothing cloth = parser.parse(str);
+    if (cloth == null) {
+      throw new ParseException(ClothingParser.describe(parser.getErrorCode()), parser.getErrorColumn());
     }
+    return cloth;
+  }
 
-
-    //try to make the fourth part be parsed into int type
-    int timesWorn = 0;
-    if (parts[3] != null) {
-      try {
-        timesWorn = Integer.parseInt(parts[3]);
-      } catch (Exception e) {
-        throw new ParseException("Times worn is not an integer", 0);
+  /**
+   * Loads all pieces of clothing into this wardrobe from the designated file. Each piece of clothing in the Wardrobe
+   * is written on its own line, formatted as description,brand,lastWornDate,timesWorn.
+   * The date must be formatted MM/DD/YYYY.
+   * If a line is NOT properly formatted, or holds clothing that is already in the wardrobe, it will be skipped and
+   * the method will continue to read the remaining lines. The number of skipped lines is printed out to the console
+   * once the whole file has been read.
+   *
+   * @param saveFile - the File that the information should be read from
+   * @return true if ANY of the lines from the file were parsed successfully into Clothing for this Wardrobe,
+   *         false otherwise
+   */
+  public boolean loadFromFile(File saveFile) {
+    try {
+      LoadReport report = loadFromFile(saveFile, DEFAULT_BUFFER_SIZE);
+      if (report.getRejectedLines() + report.getDuplicateLines() > 0) {
+        System.out.println("Cannot parse " + (report.getRejectedLines() + report.getDuplicateLines())
+            + " lines to Clothing objects");
       }
+      return report.getItemsLoaded() > 0;
+    } catch (FileNotFoundException e) {
+      System.out.print("No such file found"); // if cannot open the file, print no such file exist
+    } catch (IOException e) {
+      e.printStackTrace();
     }
-
-    return new Clothing(description, brand, timesWorn, lastWornDate);
+    return false;
   }
 
   /**
-   * Validates if the provided string represents a date in the format MM/DD/YYYY.
-   * The method uses regular expression to check if the input string conforms to the expected date format.
-   * This includes validating that the month ranges from 01 to 12, the day ranges from 01 to 31,
-   * and the year consists of four digits.
+   * Loads all pieces of clothing into this wardrobe from the designated file, in the same format as
+   * loadFromFile(File), reading through a buffer of the given size. Lines that are not properly formatted or that
+   * hold clothing already in the wardrobe are skipped and counted in the returned report.
    *
-   * @param s - The string representing the date to be validated.
-   * @return true if the string matches the MM/DD/YYYY format, otherwise returns false.
+   * @param saveFile - the File that the information should be read from
+   * @param bufferSize - the size of the read buffer, in characters
+   * @return a report of how many lines were loaded, rejected and skipped, and how fast the file was read
+   * @throws IllegalArgumentException - with a descriptive message if bufferSize is non-positive
+   * @throws FileNotFoundException - if the file does not exist or cannot be opened
+   * @throws IOException - if the file cannot be read
    */
-  private boolean dateMatch(String s) {
-    String regex="^(0[1-9]|1[012])/(0[1-9]|[1,2][0-9]|3[01])/\\d{4}$"; //check month(01-12), day(01-31),year(4 digit)
-    return s.matches(regex);
+  public LoadReport loadFromFile(File saveFile, int bufferSize) throws IOException {
+    long start = System.nanoTime();
+    WardrobeEvents.Load event = new WardrobeEvents.Load();
+    event.begin();
+    LoadReport report = null;
+    try {
+      if (bufferSize <= 0) {
+        throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+      }
 
+      long startTime = System.nanoTime();
+      long linesRead = 0;
+      long itemsLoaded = 0;
+      long rejectedLines = 0;
+      long duplicateLines = 0;
+      ClothingParser parser = new ClothingParser();
+      try (FileInputStream in = new FileInputStream(saveFile);
+           BufferedReader reader = new BufferedReader(
+               new InputStreamReader(in, StandardCharsets.UTF_8), bufferSize)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          linesRead++;
+          Clothing toAdd = parser.parse(line);
+          if (toAdd == null) {
+            rejectedLines++;
+          } else if (addIfAbsent(toAdd)) {
+            itemsLoaded++;
+          } else {
+            duplicateLines++;
+          }
+        }
+      }
+      report = new LoadReport(linesRead, itemsLoaded, rejectedLines, duplicateLines, saveFile.length(),
+                              System.nanoTime() - startTime);
+      return report;
+    } finally {
+      metrics.record(WardrobeMetrics.LOAD, start);
+      WardrobeEvents.commitLoad(event, saveFile, 1, report);
+    }
   }
 
   /**
-   * Loads all pieces of clothing into this wardrobe from the designated file. Each piece of clothing in the Wardrobe
-   * is written on its own line, formatted as description,brand,lastWornDate,timesWorn.
-   * The date must be formatted MM/DD/YYYY.
-   * If a line is NOT properly formatted
-   * 1) the String "Cannot parse line to Clothing object" should be printed out to the console
-   * 2) will be skipped, the method should continue to read the remaining lines.
+   * Loads all pieces of clothing into this wardrobe from the designated file, in the same format as
+   * loadFromFile(File), parsing the file on several threads. The file is split into chunks at line breaks, the
+   * chunks are parsed in parallel, and then the clothing is added to this wardrobe in the same order it appears in
+   * the file. Lines that are not properly formatted or that hold clothing already in the wardrobe (or earlier in
+   * the file) are skipped and counted in the returned report.
    *
    * @param saveFile - the File that the information should be read from
-   * @return true if ANY of the lines from the file were parsed successfully into Clothing for this Wardrobe,
-   *         false otherwise
+   * @param parallelism - the number of threads to parse the file on
+   * @return a report of how many lines were loaded, rejected and skipped, and how fast the file was read
+   * @throws IllegalArgumentException - with a descriptive message if parallelism is non-positive
+   * @throws IOException - if the file does not exist or cannot be read
    */
-  public boolean loadFromFile(File saveFile) {
-    boolean found = false;
+  public LoadReport loadFromFileParallel(File saveFile, int parallelism) throws IOException {
+    long start = System.nanoTime();
+    WardrobeEvents.Load event = new WardrobeEvents.Load();
+    event.begin();
+    LoadReport report = null;
     try {
-      Scanner scnr = new Scanner(saveFile);
-
-      while (scnr.hasNextLine()) {
-        String line = scnr.nextLine();//string of line of input
-        if (line.split(",").length == 4) { // if have 4 element
-          if (dateMatch(line.split(",")[2])) { //whether the 3rd element match style of mm/dd/yyyy
-            try { //try to add to the wardrobe of this clothing
-              Clothing toadd = parseClothing(line); //create clothing to add
-              addClothing(toadd); //add into wardrobe
-              found = true;
-            } catch (ParseException e) {
-              System.out.print("Cannot parse line to Clothing object: " + e.getErrorOffset());
-            }
+      if (parallelism <= 0) {
+        throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+      }
+
+      long startTime = System.nanoTime();
+      ArrayList<ParallelClothingReader.Chunk> chunks = ParallelClothingReader.read(saveFile, parallelism);
+
+      //merge the chunks into the wardrobe in file order
+      long linesRead = 0;
+      long itemsLoaded = 0;
+      long rejectedLines = 0;
+      long duplicateLines = 0;
+      long parsed = 0;
+      for (ParallelClothingReader.Chunk chunk : chunks) {
+        parsed += chunk.clothing.size();
+      }
+      ensureCapacity((int) Math.min(size() + parsed, Integer.MAX_VALUE - 8));
+      for (ParallelClothingReader.Chunk chunk : chunks) {
+        linesRead += chunk.linesRead;
+        rejectedLines += chunk.rejectedLines;
+        for (Clothing toAdd : chunk.clothing) {
+          if (addIfAbsent(toAdd)) {
+            itemsLoaded++;
           } else {
-            System.out.print("Cannot parse line to Clothing objec");
-          } // if 3rd element (lat-worn-date) dont match style, print information
+            duplicateLines++;
+          }
         }
+        chunk.clothing.clear(); //let the parsed clothing that was skipped be collected early
       }
-      scnr.close();
-    } catch (FileNotFoundException e) {
-      System.out.print("No such file found"); // if cannot convert into scnr, print no such file exist
+      report = new LoadReport(linesRead, itemsLoaded, rejectedLines, duplicateLines, saveFile.length(),
+                              System.nanoTime() - startTime);
+      return report;
+    } finally {
+      metrics.record(WardrobeMetrics.LOAD, start);
+      WardrobeEvents.commitLoad(event, saveFile, parallelism, report);
     }
-    return found; //update whether successfully load to file
   }
 
   /**
@@ -340,19 +953,258 @@ public class Wardrobe {
    * @return true if the file saved successfully, false otherwise
    */
   public boolean saveToFile(File saveFile) {
-    boolean save = false;// boolean indicate whether write successfully
+    return saveToFile(saveFile, DEFAULT_BUFFER_SIZE);
+  }
 
+  /**
+   * Saves all pieces of clothing in this wardrobe to the designated file, in the same format as saveToFile(File),
+   * through a buffer of the given size. The clothing is first written to a temporary file next to saveFile, which
+   * is synced to disk and then renamed over saveFile, so saveFile always holds either the old or the new wardrobe
+   * and never a partly written one. Any delta file next to saveFile is deleted, and if saveFile is the base file of
+   * saveIncremental(), its next incremental save only writes the changes made from now on.
+   *
+   * @param saveFile - the File that the information should be written to
+   * @param bufferSize - the size of the write buffer, in bytes
+   * @return true if the file saved successfully, false otherwise
+   * @throws IllegalArgumentException - with a descriptive message if bufferSize is non-positive
+   */
+  public boolean saveToFile(File saveFile, int bufferSize) {
+    long start = System.nanoTime();
+    WardrobeEvents.Save event = new WardrobeEvents.Save();
+    event.begin();
     try {
-      FileWriter fileWrite = new FileWriter(saveFile);// create new FileWriter object to write
-      for (Clothing c : wardrobe) {// for each clothing
-        fileWrite.write(c.toString() + "\n");// using Clothing method .toString()
-        save = true;
+      if (bufferSize <= 0) {
+        throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+      }
+
+      reindexWorn(); //remember the clothing worn directly before the changes are taken
+      //if saveFile is the base of incremental saves, start tracking changes afresh before writing, so that clothing
+      //worn while it is written is not missed by the next incremental save
+      boolean tracked = isBaseFile(saveFile);
+      WardrobeDeltaFormat.Changes changed = dirty;
+      if (tracked) {
+        dirty = new WardrobeDeltaFormat.Changes();
+      }
+      try {
+        writeAtomically(saveFile, channel -> {
+          Writer out = new BufferedWriter(
+              Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), bufferSize), bufferSize);
+          for (int i = 0; i < size(); i++) {// for each clothing
+            clothingAt(i).writeTo(out);
+            out.append('\n');
+          }
+          out.flush();
+        });
+        //the file now holds everything, so a delta left next to it is out of date
+        Files.deleteIfExists(WardrobeDeltaFormat.deltaFileOf(saveFile).toPath());
+        if (tracked) {
+          deltaEntries = 0;
+        }
+        WardrobeEvents.commitSave(event, saveFile, size(), true);
+        return true;
+      } catch (IOException e) {
+        e.printStackTrace();
+        if (tracked) {
+          dirty.addEarlier(changed);
+        }
+        WardrobeEvents.commitSave(event, saveFile, size(), false);
+        return false;
+      }
+    } finally {
+      metrics.record(WardrobeMetrics.SAVE, start);
+    }
+  }
+
+  /**
+   * Saves the changes made to this wardrobe since it was last saved incrementally to, or loaded with
+   * loadIncremental() from, the designated file, so that routine saves take time in proportion to the number of
+   * changes instead of the size of the wardrobe. Only the pieces of clothing added, worn or removed since then are
+   * appended to a delta file next to saveFile, named after it with ".delta" added. Once the delta file holds more
+   * entries than the given fraction of the size of the wardrobe, it is merged into saveFile instead: the whole
+   * wardrobe is saved with saveToFile(File) and the delta file is deleted. The same happens the first time this
+   * wardrobe is saved incrementally to saveFile. Changes are only tracked from then on, so a wardrobe that is never
+   * saved or loaded incrementally does no extra work when its clothing changes. A file saved this way is read back
+   * with loadIncremental().
+   *
+   * @param saveFile - the base file that the information should be written to
+   * @param mergeRatio - the fraction of the size of the wardrobe that the delta file may grow to before merging
+   * @return true if the changes saved successfully, false otherwise
+   * @throws IllegalArgumentException - with a descriptive message if mergeRatio is negative
+   */
+  public boolean saveIncremental(File saveFile, double mergeRatio) {
+    if (!(mergeRatio >= 0)) {
+      throw new IllegalArgumentException("Invalid merge ratio: " + mergeRatio);
+    }
+    reindexWorn();
+    File base = saveFile.getAbsoluteFile();
+    if (!base.equals(baseFile) || !base.exists()) {
+      //start tracking changes against saveFile, which first needs the whole wardrobe
+      File previousBase = baseFile;
+      WardrobeDeltaFormat.Changes previous = dirty;
+      long previousEntries = deltaEntries;
+      dirty = new WardrobeDeltaFormat.Changes();
+      baseFile = base;
+      if (saveToFile(saveFile)) {
+        return true;
       }
-      fileWrite.close();
+      baseFile = previousBase;
+      dirty = previous;
+      deltaEntries = previousEntries;
+      return false;
+    }
+    WardrobeDeltaFormat.Changes changed = dirty;
+    if (changed.size() == 0) {
+      return true;
+    }
+    if (deltaEntries + changed.size() > mergeRatio * size()) {
+      return saveToFile(saveFile); //fold the deltas back into the base file
+    }
+
+    dirty = new WardrobeDeltaFormat.Changes();
+    try {
+      deltaEntries += WardrobeDeltaFormat.append(this, changed, base);
+      return true;
     } catch (IOException e) {
       e.printStackTrace();
+      dirty.addEarlier(changed);
+      return false;
+    }
+  }
+
+  /**
+   * Saves the changes made to this wardrobe the same way as saveIncremental(File, double), merging the delta file
+   * into saveFile once it holds more entries than DEFAULT_MERGE_RATIO of the size of the wardrobe.
+   *
+   * @param saveFile - the base file that the information should be written to
+   * @return true if the changes saved successfully, false otherwise
+   */
+  public boolean saveIncremental(File saveFile) {
+    return saveIncremental(saveFile, DEFAULT_MERGE_RATIO);
+  }
 
+  /**
+   * Loads all pieces of clothing into this wardrobe from a file saved with saveIncremental(): the clothing in the
+   * designated file is loaded the same way as loadFromFile(File, int), and then the changes in its delta file, if
+   * there is one, are applied on top. If the wardrobe was empty, later calls to saveIncremental() with the same
+   * file only save the changes made after loading.
+   *
+   * @param saveFile - the base file that the information should be read from
+   * @return a report of how many lines of the base file were loaded, rejected and skipped
+   * @throws FileNotFoundException - if the file does not exist or cannot be opened
+   * @throws IOException - if the file or its delta file cannot be read
+   */
+  public LoadReport loadIncremental(File saveFile) throws IOException {
+    boolean wasEmpty = size() == 0;
+    reindexWorn(); //wears made before loading belong with the changes made before it
+    baseFile = null; //nothing loaded from the file has changed since it was saved
+    LoadReport report = loadFromFile(saveFile, DEFAULT_BUFFER_SIZE);
+    int entries = WardrobeDeltaFormat.apply(this, saveFile.getAbsoluteFile());
+    if (wasEmpty) {
+      dirty = new WardrobeDeltaFormat.Changes();
+      deltaEntries = entries;
+      baseFile = saveFile.getAbsoluteFile();
+    }
+    return report;
+  }
+
+  /**
+   * Saves all pieces of clothing in this wardrobe to the designated file in the compact binary format, where each
+   * brand is stored once, dates are stored as day numbers and counts as variable-length numbers. Like
+   * saveToFile(File), the file is replaced atomically.
+   *
+   * @param saveFile - the File that the information should be written to
+   * @return true if the file saved successfully, false otherwise
+   */
+  public boolean saveBinary(File saveFile) {
+    try {
+      writeAtomically(saveFile, channel -> {
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), DEFAULT_BUFFER_SIZE);
+        WardrobeBinaryFormat.write(this, out);
+        out.flush();
+      });
+      return true;
+    } catch (IOException e) {
+      e.printStackTrace();
+      return false;
+    }
+  }
+
+  /**
+   * Loads all pieces of clothing into this wardrobe from the designated file in the compact binary format written
+   * by saveBinary(). Clothing that is already in the wardrobe is skipped and counted in the returned report.
+   *
+   * @param saveFile - the File that the information should be read from
+   * @return a report of how many pieces of clothing were loaded and skipped, and how fast the file was read
+   * @throws IOException - if the file does not exist, cannot be read, or is not a valid binary save file
+   */
+  public LoadReport loadBinary(File saveFile) throws IOException {
+    long startTime = System.nanoTime();
+    int sizeBefore = size();
+    long itemsRead;
+    try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(saveFile), DEFAULT_BUFFER_SIZE)) {
+      itemsRead = WardrobeBinaryFormat.read(in, this::addIfAbsent);
+    }
+    long itemsLoaded = size() - sizeBefore;
+    return new LoadReport(itemsRead, itemsLoaded, 0, itemsRead - itemsLoaded, saveFile.length(),
+                          System.nanoTime() - startTime);
+  }
+
+  /**
+   * Checks if the given file was written by saveBinary(), rather than saveToFile().
+   *
+   * @param file - the file to check
+   * @return true if the file is a binary save file, false if it is not or cannot be read
+   */
+  public static boolean isBinaryFile(File file) {
+    return WardrobeBinaryFormat.isBinaryFile(file);
+  }
+
+  /**
+   * Writes the contents of a file through the given FileChannel.
+   */
+  interface ChannelWriter {
+    /**
+     * Writes the contents of the file.
+     *
+     * @param channel - the channel to write to
+     * @throws IOException - if the contents cannot be written
+     */
+    void write(FileChannel channel) throws IOException;
+  }
+
+  /**
+   * Replaces the contents of the target file with whatever the writer writes. The contents are written to a
+   * temporary file in the same directory, synced to disk, and then renamed over the target, atomically where the
+   * file system supports it. If anything goes wrong the temporary file is deleted and the target is left untouched.
+   *
+   * @param target - the file to replace
+   * @param writer - writes the new contents of the file
+   * @throws IOException - if the new contents cannot be written or the temporary file cannot be renamed
+   */
+  static void writeAtomically(File target, ChannelWriter writer) throws IOException {
+    Path targetPath = target.toPath().toAbsolutePath();
+    Path directory = targetPath.getParent();
+    Path temp = Files.createTempFile(directory, targetPath.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        writer.write(channel);
+        channel.force(true); //make sure the contents are on disk before the rename makes them visible
+      }
+      try {
+        Files.move(temp, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, targetPath, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+
+    //sync the directory too so the rename itself survives a crash, not every platform allows this
+    try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      //the file itself is already safely written
     }
-    return save;
   }
 }
@@ -0,0 +1,258 @@
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes the compact binary save file format of a Wardrobe. A binary save file is laid out as
+ * <pre>
+ *   magic "WRDB", version byte, record count,
+ *   brand count, then each distinct brand as a length-prefixed UTF-8 string,
+ *   then for each piece of clothing: its length-prefixed UTF-8 description, the index of its brand,
+ *   its last worn date as an epoch day (0 if never worn, otherwise the zig-zag encoded epoch day plus 1),
+ *   and its zig-zag encoded number of times worn, which is never negative
+ * </pre>
+ * where every count, length, index and number is a variable-length int of 7 bits per byte. Brands are stored once
+ * no matter how many pieces of clothing share them. Every value read is checked, so a corrupt file is reported with
+ * an IOException, and no more memory is set aside for a count or length than the data that has actually been read
+ * needs. For use in the Wardrobe Manager project.
+ */
+class WardrobeBinaryFormat {
+
+  /**
+   * The bytes every binary save file starts with.
+   */
+  static final byte[] MAGIC = {'W', 'R', 'D', 'B'};
+
+  /**
+   * The version of the format written by this class.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * Checks if the given file starts with the binary save file magic bytes.
+   *
+   * @param file - the file to check
+   * @return true if the file is a binary save file, false if it is not or cannot be read
+   */
+  static boolean isBinaryFile(File file) {
+    try (FileInputStream in = new FileInputStream(file)) {
+      byte[] start = in.readNBytes(MAGIC.length);
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (start.length != MAGIC.length || start[i] != MAGIC[i]) {
+          return false;
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Writes all the pieces of clothing in the given wardrobe in the binary format, in wardrobe order.
+   *
+   * @param wardrobe - the wardrobe to write
+   * @param out - the stream to write to, which should be buffered
+   * @throws IOException - if the stream cannot be written to, or a piece of clothing has been worn a negative number
+   *                       of times, which read() would reject
+   */
+  static void write(Wardrobe wardrobe, OutputStream out) throws IOException {
+    //number the distinct brands in the order they first appear
+    int size = wardrobe.size();
+    LinkedHashMap<String, Integer> brandIds = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      brandIds.putIfAbsent(wardrobe.clothingAt(i).getBrand(), brandIds.size());
+    }
+
+    out.write(MAGIC);
+    out.write(VERSION);
+    writeVarInt(out, size);
+    writeVarInt(out, brandIds.size());
+    for (String brand : brandIds.keySet()) {
+      writeString(out, brand);
+    }
+    for (int i = 0; i < size; i++) {
+      Clothing cloth = wardrobe.clothingAt(i);
+      if (cloth.getNumOfTimesWorn() < 0) {
+        throw new IOException("Cannot save a negative number of times worn: " + cloth);
+      }
+      writeString(out, cloth.getDescription());
+      writeVarInt(out, brandIds.get(cloth.getBrand()));
+      int lastWornDay = cloth.getLastWornEpochDay();
+      writeVarInt(out, (lastWornDay == EpochDays.NEVER_WORN) ? 0 : zigZag(lastWornDay) + 1);
+      writeVarInt(out, zigZag(cloth.getNumOfTimesWorn()));
+    }
+  }
+
+  /**
+   * Reads a binary save file and hands each piece of clothing in it to the given consumer, in file order.
+   *
+   * @param in - the stream to read from, which should be buffered
+   * @param sink - receives each piece of clothing read
+   * @return the number of pieces of clothing read
+   * @throws IOException - if the stream cannot be read or is not a valid binary save file
+   */
+  static int read(InputStream in, Consumer<Clothing> sink) throws IOException {
+    byte[] magic = in.readNBytes(MAGIC.length);
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (magic.length != MAGIC.length || magic[i] != MAGIC[i]) {
+        throw new IOException("Not a binary wardrobe file");
+      }
+    }
+    int version = in.read();
+    if (version != VERSION) {
+      throw new IOException("Unsupported binary wardrobe file version: " + version);
+    }
+
+    int count = readVarInt(in);
+    int brandCount = readVarInt(in);
+    if (count < 0 || brandCount < 0 || brandCount > count) {
+      throw new IOException("Corrupt binary wardrobe file: bad header");
+    }
+    //grown as brands are read rather than sized by the header, which may be corrupt
+    BrandDictionary.Brand[] brands = new BrandDictionary.Brand[Math.min(brandCount, 256)];
+    byte[] buffer = new byte[256]; //reused for every string, grown when a string does not fit
+    for (int i = 0; i < brandCount; i++) {
+      if (i == brands.length) {
+        brands = Arrays.copyOf(brands, (int) Math.min(brandCount, 2L * brands.length));
+      }
+      int length = readVarInt(in);
+      buffer = readBytes(in, buffer, length);
+      String brand = new String(buffer, 0, length, StandardCharsets.UTF_8);
+      if (brand.isBlank()) {
+        throw new IOException("Corrupt binary wardrobe file: blank brand");
+      }
+      brands[i] = BrandDictionary.GLOBAL.intern(brand);
+    }
+    for (int i = 0; i < count; i++) {
+      int length = readVarInt(in);
+      buffer = readBytes(in, buffer, length);
+      String description = new String(buffer, 0, length, StandardCharsets.UTF_8);
+      if (description.isBlank()) {
+        throw new IOException("Corrupt binary wardrobe file: blank description");
+      }
+      int brandId = readVarInt(in);
+      if (brandId < 0 || brandId >= brandCount) {
+        throw new IOException("Corrupt binary wardrobe file: no brand " + brandId);
+      }
+      int date = readVarInt(in);
+      int lastWornDay = (date == 0) ? EpochDays.NEVER_WORN : unZigZag(date - 1);
+      if (date != 0 && (lastWornDay == EpochDays.NEVER_WORN || !EpochDays.isValid(lastWornDay))) {
+        throw new IOException("Corrupt binary wardrobe file: bad last worn date " + lastWornDay);
+      }
+      int timesWorn = unZigZag(readVarInt(in));
+      if (timesWorn < 0) {
+        throw new IOException("Corrupt binary wardrobe file: negative number of times worn " + timesWorn);
+      }
+      sink.accept(new Clothing(description, brands[brandId], timesWorn, lastWornDay));
+    }
+    return count;
+  }
+
+  /**
+   * Writes a string as its length in UTF-8 bytes followed by the bytes.
+   *
+   * @param out - the stream to write to
+   * @param s - the string to write
+   * @throws IOException - if the stream cannot be written to
+   */
+  private static void writeString(OutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(out, bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads the bytes of a string written by writeString(), after its length has been read. The buffer is only grown
+   * as the bytes arrive, at most doubling each time, so a corrupt length larger than the rest of the file fails at
+   * the end of the file instead of setting aside memory for the whole length up front.
+   *
+   * @param in - the stream to read from
+   * @param buffer - a buffer to read the bytes into
+   * @param length - the number of bytes to read
+   * @return the buffer holding the bytes, a new larger one if they did not fit
+   * @throws IOException - if the stream cannot be read, or the length is negative or longer than the rest of it
+   */
+  private static byte[] readBytes(InputStream in, byte[] buffer, int length) throws IOException {
+    if (length < 0) {
+      throw new IOException("Corrupt binary wardrobe file: negative string length");
+    }
+    int read = 0;
+    while (true) {
+      int chunk = Math.min(length, buffer.length) - read;
+      if (in.readNBytes(buffer, read, chunk) != chunk) {
+        throw new EOFException("The binary wardrobe file ends in the middle of a string");
+      }
+      read += chunk;
+      if (read == length) {
+        return buffer;
+      }
+      buffer = Arrays.copyOf(buffer, (int) Math.min(length, 2L * buffer.length));
+    }
+  }
+
+  /**
+   * Writes a non-negative int 7 bits at a time, lowest bits first, setting the high bit of every byte but the last.
+   *
+   * @param out - the stream to write to
+   * @param value - the int to write, treated as unsigned
+   * @throws IOException - if the stream cannot be written to
+   */
+  static void writeVarInt(OutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  /**
+   * Reads an int written by writeVarInt().
+   *
+   * @param in - the stream to read from
+   * @return the int read
+   * @throws IOException - if the stream cannot be read or the int is malformed
+   */
+  static int readVarInt(InputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException("The binary wardrobe file ends in the middle of a number");
+      }
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Corrupt binary wardrobe file: number is too long");
+  }
+
+  /**
+   * Maps a signed int to an unsigned one so that small negative numbers stay small: 0, -1, 1, -2, ... become
+   * 0, 1, 2, 3, ...
+   *
+   * @param value - the int to map
+   * @return the zig-zag encoded int
+   */
+  static int zigZag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  /**
+   * Reverses zigZag().
+   *
+   * @param value - the zig-zag encoded int
+   * @return the original signed int
+   */
+  static int unZigZag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
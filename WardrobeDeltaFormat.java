@@ -0,0 +1,279 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the delta files of incremental saves. A delta file sits next to the save file it belongs to, its
+ * base, with ".delta" added to the name, and is laid out as
+ * <pre>
+ *   #delta,length of the base file,last modified time of the base file
+ *   +description,brand,lastWornDate,timesWorn    for each piece of clothing that was added or worn
+ *   -description,brand                           for each piece of clothing that was removed
+ * </pre>
+ * with one entry per line, in the same format as the base file after the first character. Entries are only ever
+ * appended, and a later entry for a piece of clothing replaces any earlier one. They are written in the order the
+ * clothing was first changed, and clothing that was removed and added again is written as removed and then added,
+ * so applying them puts every piece of clothing in the same place in the wardrobe as a full save would. The header
+ * ties the delta to the exact base file it was written against, so a delta left behind by a base file that was since
+ * replaced is ignored rather than applied to the wrong clothing. For use in the Wardrobe Manager project.
+ */
+class WardrobeDeltaFormat {
+
+  /**
+   * What the name of a delta file adds to the name of its base file.
+   */
+  static final String SUFFIX = ".delta";
+
+  /**
+   * How a piece of clothing changed since the last save.
+   */
+  private enum Change {
+    CHANGED, //added or worn, and never removed
+    REMOVED, //removed, and not added again since
+    READDED //removed and then added again, so it moved to the end of the wardrobe
+  }
+
+  /**
+   * The pieces of clothing changed since the last save, in the order they were first changed, except that clothing
+   * that is added again after it was removed moves to the end, where it now is in the wardrobe. Each piece of
+   * clothing is kept as a copy of its description and brand. Safe to use from several threads at once.
+   */
+  static final class Changes {
+    private LinkedHashMap<Clothing, Change> changes = new LinkedHashMap<>();
+
+    /**
+     * Remembers that a piece of clothing in the wardrobe was added or worn.
+     *
+     * @param cloth - the piece of clothing that changed
+     */
+    synchronized void changed(Clothing cloth) {
+      Change change = changes.get(cloth);
+      if (change == null) {
+        changes.put(copyOf(cloth), Change.CHANGED);
+      } else if (change == Change.REMOVED) { //added again, at the end of the wardrobe
+        Clothing key = copyOf(cloth);
+        changes.remove(key);
+        changes.put(key, Change.READDED);
+      }
+    }
+
+    /**
+     * Remembers that a piece of clothing was removed from the wardrobe.
+     *
+     * @param cloth - the piece of clothing that was removed
+     */
+    synchronized void removed(Clothing cloth) {
+      if (changes.replace(cloth, Change.REMOVED) == null) {
+        changes.put(copyOf(cloth), Change.REMOVED);
+      }
+    }
+
+    /**
+     * Getter for the number of pieces of clothing changed.
+     *
+     * @return the number of pieces of clothing changed
+     */
+    synchronized int size() {
+      return changes.size();
+    }
+
+    /**
+     * Puts the given changes, made before these, in front of these, as if they had all been remembered here.
+     *
+     * @param earlier - the changes made before these
+     */
+    synchronized void addEarlier(Changes earlier) {
+      LinkedHashMap<Clothing, Change> later = changes;
+      changes = new LinkedHashMap<>(earlier.snapshot());
+      for (Map.Entry<Clothing, Change> entry : later.entrySet()) {
+        if (entry.getValue() != Change.CHANGED) {
+          removed(entry.getKey());
+        }
+        if (entry.getValue() != Change.REMOVED) {
+          changed(entry.getKey());
+        }
+      }
+    }
+
+    /**
+     * Copies the changes, in order.
+     *
+     * @return a copy of the changes
+     */
+    private synchronized LinkedHashMap<Clothing, Change> snapshot() {
+      return new LinkedHashMap<>(changes);
+    }
+
+    /**
+     * Copies the description and brand of a piece of clothing, which may be a view or be removed later.
+     *
+     * @param cloth - the piece of clothing
+     * @return the copy
+     */
+    private static Clothing copyOf(Clothing cloth) {
+      return new Clothing(cloth.getDescription(), cloth.getBrand());
+    }
+  }
+
+  /**
+   * Finds the delta file of the given base file.
+   *
+   * @param base - the base save file
+   * @return the delta file, which may not exist
+   */
+  static File deltaFileOf(File base) {
+    return new File(base.getPath() + SUFFIX);
+  }
+
+  /**
+   * Appends entries for the given pieces of clothing to the delta file of the given base file, in order, creating it
+   * if needed, and forces it to disk. Each piece of clothing that was removed is written as removed, and each one
+   * that is in the wardrobe, including one that was added again, is then written with its current information. If
+   * the entries cannot all be written, the delta file is cut back to what it held before.
+   *
+   * @param wardrobe - the wardrobe the clothing is looked up in
+   * @param changed - every piece of clothing changed since the last save
+   * @param base - the base save file
+   * @return the number of entries written
+   * @throws IOException - if the delta file cannot be written
+   */
+  static int append(Wardrobe wardrobe, Changes changed, File base) throws IOException {
+    try (FileChannel channel = FileChannel.open(deltaFileOf(base).toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE)) {
+      long start = channel.size();
+      channel.position(start);
+      try {
+        Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(),
+            Wardrobe.DEFAULT_BUFFER_SIZE), Wardrobe.DEFAULT_BUFFER_SIZE);
+        if (start == 0) {
+          out.append(header(base)).append('\n');
+        }
+        int entries = 0;
+        for (Map.Entry<Clothing, Change> entry : changed.snapshot().entrySet()) {
+          Clothing key = entry.getKey();
+          Clothing cloth = wardrobe.findClothing(key.getDescription(), key.getBrand());
+          if (entry.getValue() != Change.CHANGED || cloth == null) {
+            out.append('-').append(key.getDescription()).append(',').append(key.getBrand()).append('\n');
+            entries++;
+          }
+          if (cloth != null) {
+            out.append('+');
+            cloth.writeTo(out);
+            out.append('\n');
+            entries++;
+          }
+        }
+        out.flush();
+        channel.force(false);
+        return entries;
+      } catch (IOException | RuntimeException e) {
+        channel.truncate(start); //do not leave a partly written entry for the next append to run into
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Applies every entry of the delta file of the given base file to the wardrobe, which should hold exactly the
+   * clothing of the base file. Clothing written as added or worn is added, or updated if it is already in the
+   * wardrobe, and clothing written as removed is removed. A last line that was only partly written is ignored and
+   * cut off the file. Nothing is applied if there is no delta file or it belongs to a different version of the base.
+   *
+   * @param wardrobe - the wardrobe to apply the entries to
+   * @param base - the base save file
+   * @return the number of entries in the delta file, 0 if there is none or it was ignored
+   * @throws IOException - if the delta file exists but cannot be read
+   */
+  static int apply(Wardrobe wardrobe, File base) throws IOException {
+    File delta = deltaFileOf(base);
+    if (!delta.exists()) {
+      return 0;
+    }
+    try (FileChannel channel = FileChannel.open(delta.toPath(), StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE - 8));
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        //keep reading until the buffer is full or the file ends
+      }
+      //only whole lines count, the last one may have been torn by a crash
+      int complete = 0;
+      for (int i = buffer.position() - 1; i >= 0; i--) {
+        if (buffer.get(i) == '\n') {
+          complete = i + 1;
+          break;
+        }
+      }
+      String text = new String(buffer.array(), 0, complete, StandardCharsets.UTF_8);
+      int headerEnd = text.indexOf('\n');
+      if (headerEnd < 0 || !text.substring(0, headerEnd).equals(header(base))) {
+        return 0; //written against a base file that has since been replaced
+      }
+      channel.truncate(complete);
+
+      ClothingParser parser = new ClothingParser();
+      int entries = 0;
+      for (int start = headerEnd + 1; start < complete; ) {
+        int end = text.indexOf('\n', start);
+        if (text.charAt(start) == '+') {
+          Clothing cloth = parser.parse(text, start + 1, end);
+          if (cloth != null) {
+            put(wardrobe, cloth);
+          }
+        } else if (text.charAt(start) == '-') {
+          int comma = text.lastIndexOf(',', end - 1);
+          if (comma > start && wardrobe.findClothing(text.substring(start + 1, comma),
+                                                     text.substring(comma + 1, end)) != null) {
+            wardrobe.removeClothing(text.substring(start + 1, comma), text.substring(comma + 1, end));
+          }
+        }
+        entries++;
+        start = end + 1;
+      }
+      return entries;
+    }
+  }
+
+  /**
+   * Finds the header of a delta file written against the given base file as it is now.
+   *
+   * @param base - the base save file
+   * @return the header line, without its line break
+   */
+  static String header(File base) {
+    return "#delta," + base.length() + "," + base.lastModified();
+  }
+
+  /**
+   * Puts a piece of clothing from a delta file in the wardrobe: it is added if the wardrobe does not have it yet,
+   * worn up to its information if the wardrobe has an earlier version of it, and replaced otherwise.
+   *
+   * @param wardrobe - the wardrobe to put the clothing in
+   * @param cloth - the piece of clothing, as written in the delta file
+   */
+  private static void put(Wardrobe wardrobe, Clothing cloth) {
+    Clothing existing = wardrobe.findClothing(cloth.getDescription(), cloth.getBrand());
+    if (existing == null) {
+      wardrobe.addClothing(cloth);
+      return;
+    }
+    int wears = cloth.getNumOfTimesWorn() - existing.getNumOfTimesWorn();
+    if (wears >= 0 && cloth.getLastWornEpochDay() >= existing.getLastWornEpochDay()
+        && cloth.getDescription().equals(existing.getDescription())
+        && cloth.getBrand().equals(existing.getBrand())) {
+      if (wears > 0 || cloth.getLastWornEpochDay() > existing.getLastWornEpochDay()) {
+        wardrobe.applyWears(existing, wears, cloth.getLastWornEpochDay());
+      }
+    } else { //it was removed and added again since the base file was saved
+      wardrobe.removeClothing(cloth.getDescription(), cloth.getBrand());
+      wardrobe.addClothing(cloth);
+    }
+  }
+}
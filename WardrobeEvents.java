@@ -0,0 +1,197 @@
+import java.io.File;
+import java.time.LocalDate;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Java Flight Recorder events of the wardrobe, so that a slow load, save or bulk removal can be lined up with
+ * garbage collections and file I/O in a flight recording. Every event is disabled by default and only recorded once a
+ * recording enables it by name, for example with -XX:StartFlightRecording and a .jfc file that sets
+ * wardrobe.Load#enabled=true. While an event is disabled, shouldCommit() is false and none of its fields are filled
+ * in, so the only cost is creating the event. For use in the Wardrobe Manager project.
+ */
+final class WardrobeEvents {
+
+  /**
+   * A wardrobe loaded from a text save file with loadFromFile() or loadFromFileParallel().
+   */
+  @Name("wardrobe.Load")
+  @Label("Wardrobe Load")
+  @Category("Wardrobe")
+  @Description("Clothing loaded into a wardrobe from a save file")
+  @Enabled(false)
+  @StackTrace(false)
+  static final class Load extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Threads")
+    @Description("The number of threads the file was parsed on")
+    int threads;
+
+    @Label("Succeeded")
+    @Description("Whether the whole file was read")
+    boolean succeeded;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Lines Read")
+    long linesRead;
+
+    @Label("Items Loaded")
+    long itemsLoaded;
+
+    @Label("Rejected Lines")
+    @Description("Lines that could not be parsed into clothing")
+    long rejectedLines;
+
+    @Label("Duplicate Lines")
+    @Description("Lines holding clothing that was already in the wardrobe")
+    long duplicateLines;
+  }
+
+  /**
+   * A wardrobe saved to a text save file with saveToFile().
+   */
+  @Name("wardrobe.Save")
+  @Label("Wardrobe Save")
+  @Category("Wardrobe")
+  @Description("A wardrobe saved to a save file")
+  @Enabled(false)
+  @StackTrace(false)
+  static final class Save extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Items Saved")
+    long itemsSaved;
+  }
+
+  /**
+   * Clothing removed in bulk with removeAllClothingWornBefore() or removeAllClothingWornNumTimes().
+   */
+  @Name("wardrobe.RemoveAll")
+  @Label("Wardrobe Remove All")
+  @Category("Wardrobe")
+  @Description("Clothing removed from a wardrobe in bulk")
+  @Enabled(false)
+  @StackTrace(false)
+  static final class RemoveAll extends Event {
+    @Label("Criterion")
+    @Description("wornBefore or wornNumTimes")
+    String criterion;
+
+    @Label("Threshold")
+    @Description("The date clothing was last worn before, or the number of times it was worn fewer than")
+    String threshold;
+
+    @Label("Items Removed")
+    long itemsRemoved;
+
+    @Label("Items Remaining")
+    long itemsRemaining;
+  }
+
+  /**
+   * Prevents this class from being instantiated, it only holds the event classes.
+   */
+  private WardrobeEvents() {
+  }
+
+  /**
+   * Commits a load event if it is enabled.
+   *
+   * @param event - the event, begun when the load started
+   * @param file - the file that was loaded
+   * @param threads - the number of threads the file was parsed on
+   * @param report - the report of the load, null if it failed
+   */
+  static void commitLoad(Load event, File file, int threads, LoadReport report) {
+    if (!event.shouldCommit()) {
+      return;
+    }
+    event.file = file.getPath();
+    event.threads = threads;
+    event.succeeded = report != null;
+    if (report != null) {
+      event.bytes = report.getBytesRead();
+      event.linesRead = report.getLinesRead();
+      event.itemsLoaded = report.getItemsLoaded();
+      event.rejectedLines = report.getRejectedLines();
+      event.duplicateLines = report.getDuplicateLines();
+    }
+    event.commit();
+  }
+
+  /**
+   * Commits a save event if it is enabled.
+   *
+   * @param event - the event, begun when the save started
+   * @param file - the file that was saved to
+   * @param itemsSaved - the number of pieces of clothing saved
+   * @param succeeded - whether the file saved successfully
+   */
+  static void commitSave(Save event, File file, long itemsSaved, boolean succeeded) {
+    if (!event.shouldCommit()) {
+      return;
+    }
+    event.file = file.getPath();
+    event.succeeded = succeeded;
+    event.bytes = succeeded ? file.length() : 0;
+    event.itemsSaved = succeeded ? itemsSaved : 0;
+    event.commit();
+  }
+
+  /**
+   * Commits a bulk removal event for removeAllClothingWornBefore() if it is enabled.
+   *
+   * @param event - the event, begun when the removal started
+   * @param epochDay - the date clothing was last worn before, as an epoch day
+   * @param itemsRemoved - the number of pieces of clothing removed
+   * @param itemsRemaining - the number of pieces of clothing left in the wardrobe
+   */
+  static void commitRemoveWornBefore(RemoveAll event, int epochDay, long itemsRemoved, long itemsRemaining) {
+    if (!event.shouldCommit()) {
+      return;
+    }
+    event.criterion = "wornBefore";
+    event.threshold = LocalDate.ofEpochDay(epochDay).toString();
+    event.itemsRemoved = itemsRemoved;
+    event.itemsRemaining = itemsRemaining;
+    event.commit();
+  }
+
+  /**
+   * Commits a bulk removal event for removeAllClothingWornNumTimes() if it is enabled.
+   *
+   * @param event - the event, begun when the removal started
+   * @param threshold - the number of times clothing was worn fewer than
+   * @param itemsRemoved - the number of pieces of clothing removed
+   * @param itemsRemaining - the number of pieces of clothing left in the wardrobe
+   */
+  static void commitRemoveWornNumTimes(RemoveAll event, int threshold, long itemsRemoved, long itemsRemaining) {
+    if (!event.shouldCommit()) {
+      return;
+    }
+    event.criterion = "wornNumTimes";
+    event.threshold = Integer.toString(threshold);
+    event.itemsRemoved = itemsRemoved;
+    event.itemsRemaining = itemsRemaining;
+    event.commit();
+  }
+}
@@ -0,0 +1,703 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * An instantiable class that makes the changes to a Wardrobe durable without saving the whole wardrobe after each
+ * one. Every change made through the journal is applied to the wardrobe and then appended, as one short line, to a
+ * journal file; the whole wardrobe is only written out, with saveToFile(), when the journal is compacted into a
+ * snapshot. Opening a journal loads the latest snapshot and replays the journal written after it.
+ * <p>
+ * The journal lives in its own directory as a series of generations: wardrobe-N.snapshot holds the wardrobe as it
+ * was when generation N started, and wardrobe-N.journal every change made since. Each journal line starts with the
+ * CRC32 of the change, so a line that was only partly written when the program stopped is recognized and dropped,
+ * together with anything after it.
+ * <p>
+ * Changes are made durable with group commit: a change returns once its line has been forced to disk, but when
+ * several threads make changes at the same time, the lines of all of them are written and forced together by
+ * whichever thread gets to the file first, so a burst of changes costs one sync rather than one each. All changes to
+ * the wardrobe must go through its journal; reading the wardrobe directly is fine. For use in the Wardrobe Manager
+ * project.
+ */
+public class WardrobeJournal implements AutoCloseable {
+
+  /**
+   * The number of changes after which the journal is compacted into a new snapshot, unless told otherwise.
+   */
+  public static final int DEFAULT_COMPACT_EVERY = 10_000;
+
+  private static final String SNAPSHOT_SUFFIX = ".snapshot";
+  private static final String JOURNAL_SUFFIX = ".journal";
+  private static final String PREFIX = "wardrobe-";
+
+  //data fields
+  private final Wardrobe wardrobe;
+  private final File directory;
+  private final int compactEvery;
+  private final ReentrantLock lock; //guards everything below, and serializes the changes to the wardrobe
+  private final Condition flushed; //signalled whenever a flush finishes
+  private final StringBuilder pending; //the lines appended since the last flush
+  private final CRC32 crc;
+  private long generation;
+  private FileChannel channel; //the journal of the current generation
+  private long appendedSeq; //the number of the last change appended
+  private long durableSeq; //the number of the last change forced to disk
+  private boolean flushing; //true while a thread is writing pending lines outside the lock
+  private IOException failure; //the error that broke the journal, if any
+  private int changesSinceSnapshot;
+  private final int replayed; //the number of changes replayed when the journal was opened
+  private final int skipped; //the number of journal lines that could not be replayed
+
+  /**
+   * Creates a journal for the given wardrobe that has already been recovered from the given generation.
+   *
+   * @param wardrobe - the wardrobe to journal
+   * @param directory - the directory of the journal
+   * @param compactEvery - the number of changes after which to take a snapshot
+   * @param generation - the current generation
+   * @param channel - the open journal of the current generation, positioned at its end
+   * @param replayed - the number of changes replayed
+   * @param skipped - the number of lines that could not be replayed
+   */
+  private WardrobeJournal(Wardrobe wardrobe, File directory, int compactEvery, long generation, FileChannel channel,
+                          int replayed, int skipped) {
+    this.wardrobe = wardrobe;
+    this.directory = directory;
+    this.compactEvery = compactEvery;
+    this.lock = new ReentrantLock();
+    this.flushed = lock.newCondition();
+    this.pending = new StringBuilder();
+    this.crc = new CRC32();
+    this.generation = generation;
+    this.channel = channel;
+    this.replayed = replayed;
+    this.skipped = skipped;
+    this.changesSinceSnapshot = replayed;
+  }
+
+  /**
+   * Opens the journal in the given directory, creating the directory if needed, and recovers the given wardrobe from
+   * it: the latest snapshot is loaded into the wardrobe and then every change journaled after it is replayed. A line
+   * at the end of the journal that was only partly written is dropped and cut off the file.
+   *
+   * @param directory - the directory holding the snapshots and journals
+   * @param wardrobe - the wardrobe to recover into and journal, normally empty
+   * @param compactEvery - the number of changes after which the journal is compacted into a new snapshot
+   * @return the open journal
+   * @throws IllegalArgumentException - with a descriptive message if wardrobe is null or compactEvery is
+   *                                    non-positive
+   * @throws IOException - if the directory cannot be created, or the snapshot or journal cannot be read
+   */
+  public static WardrobeJournal open(File directory, Wardrobe wardrobe, int compactEvery) throws IOException {
+    if (wardrobe == null) {
+      throw new IllegalArgumentException("Cannot journal a null wardrobe.");
+    }
+    if (compactEvery <= 0) {
+      throw new IllegalArgumentException("Invalid number of changes between snapshots: " + compactEvery);
+    }
+    Files.createDirectories(directory.toPath());
+
+    //find the latest generation, a snapshot is only ever written before the journal of its generation
+    long generation = -1;
+    String[] names = directory.list();
+    for (String name : (names == null) ? new String[0] : names) {
+      generation = Math.max(generation, generationOf(name));
+    }
+    generation = Math.max(generation, 0);
+
+    File snapshot = file(directory, generation, SNAPSHOT_SUFFIX);
+    if (snapshot.exists()) {
+      wardrobe.loadFromFile(snapshot, Wardrobe.DEFAULT_BUFFER_SIZE);
+    }
+
+    FileChannel channel = FileChannel.open(file(directory, generation, JOURNAL_SUFFIX).toPath(),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    int[] counts = new int[2];
+    try {
+      long end = replay(channel, wardrobe, counts);
+      channel.truncate(end); //cut off a torn last line so new lines are not appended after it
+      channel.position(end);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    syncDirectory(directory);
+    deleteOlderGenerations(directory, generation);
+    return new WardrobeJournal(wardrobe, directory, compactEvery, generation, channel, counts[0], counts[1]);
+  }
+
+  /**
+   * Opens the journal in the given directory the same way as open(File, Wardrobe, int), compacting it every
+   * DEFAULT_COMPACT_EVERY changes.
+   *
+   * @param directory - the directory holding the snapshots and journals
+   * @param wardrobe - the wardrobe to recover into and journal, normally empty
+   * @return the open journal
+   * @throws IllegalArgumentException - with a descriptive message if wardrobe is null
+   * @throws IOException - if the directory cannot be created, or the snapshot or journal cannot be read
+   */
+  public static WardrobeJournal open(File directory, Wardrobe wardrobe) throws IOException {
+    return open(directory, wardrobe, DEFAULT_COMPACT_EVERY);
+  }
+
+  /**
+   * Getter for the wardrobe this journal keeps durable.
+   *
+   * @return the wardrobe
+   */
+  public Wardrobe getWardrobe() {
+    return this.wardrobe;
+  }
+
+  /**
+   * Getter for the number of changes replayed from the journal when it was opened.
+   *
+   * @return the number of changes replayed
+   */
+  public int getReplayedChanges() {
+    return this.replayed;
+  }
+
+  /**
+   * Getter for the number of journal lines that were dropped when the journal was opened, because they were
+   * damaged or could no longer be applied to the wardrobe.
+   *
+   * @return the number of lines skipped
+   */
+  public int getSkippedChanges() {
+    return this.skipped;
+  }
+
+  /**
+   * Adds a piece of clothing to the wardrobe, the same way as Wardrobe.addClothing(), and journals it.
+   *
+   * @param toAdd - the piece of clothing to add to the wardrobe
+   * @throws IllegalArgumentException - with a descriptive message if toAdd is null or already in the wardrobe
+   * @throws IOException - if the change was made but could not be journaled
+   */
+  public void addClothing(Clothing toAdd) throws IOException {
+    long seq;
+    lock.lock();
+    try {
+      checkOpen();
+      wardrobe.addClothing(toAdd);
+      seq = append(record('A').append(toAdd.toString()));
+    } finally {
+      lock.unlock();
+    }
+    commit(seq);
+  }
+
+  /**
+   * Wears the piece of clothing in the wardrobe equal to the provided one on the given date, the same way as
+   * Wardrobe.wearClothing(), and journals the wear. Nothing is journaled if the clothing is not in the wardrobe.
+   *
+   * @param toWear - the piece of clothing in the wardrobe that we want to wear
+   * @param year - the year that it will be worn
+   * @param month - the month that it will be worn
+   * @param day - the day that it will be worn
+   * @throws IllegalArgumentException - with a descriptive message if the year is less than 1,
+   *                                    or the month is outside the range [1,12]
+   * @throws IOException - if the change was made but could not be journaled
+   */
+  public void wearClothing(Clothing toWear, int year, int month, int day) throws IOException {
+    long seq;
+    lock.lock();
+    try {
+      checkOpen();
+      Clothing cloth = (toWear == null) ? null : wardrobe.findClothing(toWear.getDescription(), toWear.getBrand());
+      wardrobe.wearClothing(toWear, year, month, day);
+      if (cloth == null) {
+        return;
+      }
+      seq = appendWears(cloth, 1, EpochDays.of(year, month, day));
+    } finally {
+      lock.unlock();
+    }
+    commit(seq);
+  }
+
+  /**
+   * Applies a batch of wear events to the wardrobe, the same way as Wardrobe.wearAll(), and journals one line for
+   * each piece of clothing that was worn.
+   *
+   * @param events - the wear events to apply
+   * @return one outcome for each distinct piece of clothing in the batch, in the order each first appeared
+   * @throws IOException - if the wears were made but could not be journaled
+   */
+  public List<WearOutcome> wearAll(Iterable<WearEvent> events) throws IOException {
+    long seq = 0;
+    List<WearOutcome> outcomes;
+    lock.lock();
+    try {
+      checkOpen();
+      outcomes = wardrobe.wearAll(events);
+      for (WearOutcome outcome : outcomes) {
+        if (outcome.isKnown()) {
+          seq = appendWears(outcome.getClothing(), outcome.getWears(), outcome.getLatestEpochDay());
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    commit(seq);
+    return outcomes;
+  }
+
+  /**
+   * Removes the piece of clothing with a matching description and brand from the wardrobe, the same way as
+   * Wardrobe.removeClothing(), and journals the removal.
+   *
+   * @param description - the description of the piece of clothing to remove
+   * @param brand - the brand of the piece of clothing to remove
+   * @throws IllegalStateException - with a descriptive message if the wardrobe is empty
+   * @throws java.util.NoSuchElementException - with a descriptive message if the piece of clothing is not in the
+   *                                            wardrobe
+   * @throws IOException - if the change was made but could not be journaled
+   */
+  public void removeClothing(String description, String brand) throws IOException {
+    long seq;
+    lock.lock();
+    try {
+      checkOpen();
+      wardrobe.removeClothing(description, brand);
+      seq = append(record('R').append(description).append(',').append(brand));
+    } finally {
+      lock.unlock();
+    }
+    commit(seq);
+  }
+
+  /**
+   * Removes every piece of clothing that matches the given condition from the wardrobe, the same way as
+   * Wardrobe.removeAllClothingMatching(). Since a condition cannot be written down, each piece of clothing removed
+   * is journaled as its own removal.
+   *
+   * @param toRemove - the condition that a piece of clothing must meet to be removed
+   * @return the pieces of clothing that were removed, in the order they appeared in the wardrobe
+   * @throws IOException - if the change was made but could not be journaled
+   */
+  public Clothing[] removeAllClothingMatching(Predicate<Clothing> toRemove) throws IOException {
+    long seq = 0;
+    Clothing[] removed;
+    lock.lock();
+    try {
+      checkOpen();
+      removed = wardrobe.removeAllClothingMatching(toRemove);
+      for (Clothing cloth : removed) {
+        seq = append(record('R').append(cloth.getDescription()).append(',').append(cloth.getBrand()));
+      }
+    } finally {
+      lock.unlock();
+    }
+    commit(seq);
+    return removed;
+  }
+
+  /**
+   * Removes all clothing last worn before the given date, or never worn, the same way as
+   * Wardrobe.removeAllClothingWornBefore(), and journals the removal.
+   *
+   * @param year - the year of the date to use to remove clothing
+   * @param month - month to use to remove cloth
+   * @param day - day to use to remove cloth
+   * @return the number of pieces of clothing removed
+   * @throws IOException - if the change was made but could not be journaled
+   */
+  public int removeAllClothingWornBefore(int year, int month, int day) throws IOException {
+    long seq;
+    int removed;
+    lock.lock();
+    try {
+      checkOpen();
+      removed = wardrobe.removeAllClothingWornBefore(year, month, day);
+      seq = append(record('O').append(EpochDays.of(year, month, day)));
+    } finally {
+      lock.unlock();
+    }
+    commit(seq);
+    return removed;
+  }
+
+  /**
+   * Removes all clothing worn fewer times than the threshold, the same way as
+   * Wardrobe.removeAllClothingWornNumTimes(), and journals the removal.
+   *
+   * @param threshold - the number of times worn below which clothing is removed
+   * @return the number of pieces of clothing removed
+   * @throws IOException - if the change was made but could not be journaled
+   */
+  public int removeAllClothingWornNumTimes(int threshold) throws IOException {
+    long seq;
+    int removed;
+    lock.lock();
+    try {
+      checkOpen();
+      removed = wardrobe.removeAllClothingWornNumTimes(threshold);
+      seq = append(record('I').append(threshold));
+    } finally {
+      lock.unlock();
+    }
+    commit(seq);
+    return removed;
+  }
+
+  /**
+   * Compacts the journal: the whole wardrobe is saved as the snapshot of a new generation, a new empty journal is
+   * started, and the files of the old generation are deleted. This also makes durable any change made outside of the
+   * journal, such as loading clothing from a file.
+   *
+   * @throws IOException - if the snapshot or the new journal cannot be written
+   */
+  public void checkpoint() throws IOException {
+    lock.lock();
+    try {
+      checkOpen();
+      while (flushing) {
+        flushed.awaitUninterruptibly();
+      }
+      if (failure != null) {
+        throw new IOException("The journal could not be written.", failure);
+      }
+
+      //the snapshot goes first: until the new journal exists, recovery replays an empty journal after it
+      long next = generation + 1;
+      if (!wardrobe.saveToFile(file(directory, next, SNAPSHOT_SUFFIX))) {
+        throw new IOException("The snapshot could not be saved.");
+      }
+      FileChannel nextChannel = FileChannel.open(file(directory, next, JOURNAL_SUFFIX).toPath(),
+          StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+      syncDirectory(directory);
+      FileChannel oldChannel = channel;
+      channel = nextChannel;
+      generation = next;
+      pending.setLength(0); //every pending change is in the snapshot
+      durableSeq = appendedSeq;
+      changesSinceSnapshot = 0;
+      flushed.signalAll();
+      oldChannel.close();
+      deleteOlderGenerations(directory, generation);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Forces every journaled change to disk and closes the journal. Changes can no longer be made through it.
+   *
+   * @throws IOException - if the last changes cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    long seq;
+    lock.lock();
+    try {
+      if (channel == null) {
+        return;
+      }
+      seq = appendedSeq;
+    } finally {
+      lock.unlock();
+    }
+    try {
+      commit(seq);
+    } finally {
+      lock.lock();
+      try {
+        while (flushing) {
+          flushed.awaitUninterruptibly();
+        }
+        if (channel != null) {
+          channel.close();
+          channel = null;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Makes sure the journal has not been closed. Must be called with the lock held.
+   *
+   * @throws IllegalStateException - with a descriptive message if the journal is closed
+   */
+  private void checkOpen() {
+    if (channel == null) {
+      throw new IllegalStateException("The journal is closed.");
+    }
+  }
+
+  /**
+   * Starts a new line in the pending buffer for a change of the given kind, leaving room for its CRC.
+   *
+   * @param kind - the letter of the change, the same as its WardrobeManager command
+   * @return the pending buffer, to append the fields of the change to
+   */
+  private StringBuilder record(char kind) {
+    return pending.append("00000000,").append(kind).append(',');
+  }
+
+  /**
+   * Journals the wears of a piece of clothing. Must be called with the lock held.
+   *
+   * @param cloth - the piece of clothing that was worn
+   * @param count - the number of wears
+   * @param epochDay - the date of the latest wear as an epoch day
+   * @return the number of the change
+   */
+  private long appendWears(Clothing cloth, int count, int epochDay) {
+    return append(record('W').append(count).append(',').append(epochDay).append(',')
+                      .append(cloth.getDescription()).append(',').append(cloth.getBrand()));
+  }
+
+  /**
+   * Finishes the line of the change being appended to the pending buffer: fills in the CRC of the change and ends
+   * the line. Must be called with the lock held.
+   *
+   * @param line - the pending buffer, with the change as its last line
+   * @return the number of the change
+   */
+  private long append(StringBuilder line) {
+    int start = line.lastIndexOf("\n") + 1;
+    byte[] change = line.substring(start + 9).getBytes(StandardCharsets.UTF_8);
+    crc.reset();
+    crc.update(change, 0, change.length);
+    String hex = Integer.toHexString((int) crc.getValue());
+    line.replace(start + 8 - hex.length(), start + 8, hex);
+    line.append('\n');
+    changesSinceSnapshot++;
+    return ++appendedSeq;
+  }
+
+  /**
+   * Waits until the change with the given number is on disk, writing it and every other pending change if no
+   * other thread is already doing so, then compacts the journal if it has grown long enough.
+   *
+   * @param seq - the number of the change
+   * @throws IOException - if the journal could not be written
+   */
+  private void commit(long seq) throws IOException {
+    boolean compact = false;
+    lock.lock();
+    try {
+      while (durableSeq < seq) {
+        if (failure != null) {
+          throw new IOException("The journal could not be written.", failure);
+        }
+        if (flushing) { //someone else is writing, their sync or the next one will cover this change
+          flushed.awaitUninterruptibly();
+          continue;
+        }
+
+        //become the leader: take every pending line and write them all with one sync, outside the lock
+        flushing = true;
+        byte[] batch = pending.toString().getBytes(StandardCharsets.UTF_8);
+        pending.setLength(0);
+        long upTo = appendedSeq;
+        FileChannel out = channel;
+        lock.unlock();
+        IOException error = null;
+        try {
+          ByteBuffer buffer = ByteBuffer.wrap(batch);
+          while (buffer.hasRemaining()) {
+            out.write(buffer);
+          }
+          out.force(false);
+        } catch (IOException e) {
+          error = e;
+        } finally {
+          lock.lock();
+        }
+        flushing = false;
+        if (error != null) {
+          failure = error;
+        } else {
+          durableSeq = Math.max(durableSeq, upTo);
+        }
+        flushed.signalAll();
+      }
+      compact = changesSinceSnapshot >= compactEvery && channel != null;
+    } finally {
+      lock.unlock();
+    }
+    if (compact) {
+      checkpoint();
+    }
+  }
+
+  /**
+   * Replays every complete, undamaged line of the journal read through the given channel onto the wardrobe, stopping
+   * at the first line that is torn or whose CRC does not match.
+   *
+   * @param channel - the journal to replay
+   * @param wardrobe - the wardrobe to apply the changes to
+   * @param counts - filled in with the number of changes replayed and the number of lines skipped
+   * @return the length of the journal up to the end of its last good line
+   * @throws IOException - if the journal cannot be read
+   */
+  private static long replay(FileChannel channel, Wardrobe wardrobe, int[] counts) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE - 8));
+    while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+      //keep reading until the buffer is full or the file ends
+    }
+    byte[] bytes = buffer.array();
+    int length = buffer.position();
+
+    CRC32 crc = new CRC32();
+    ClothingParser parser = new ClothingParser();
+    int start = 0;
+    while (start < length) {
+      int end = start;
+      while (end < length && bytes[end] != '\n') {
+        end++;
+      }
+      if (end == length || end - start < 11 || bytes[start + 8] != ',') {
+        break; //torn or damaged, and so is everything after it
+      }
+      crc.reset();
+      crc.update(bytes, start + 9, end - start - 9);
+      String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+      int expected;
+      try {
+        expected = Integer.parseUnsignedInt(line.substring(0, 8), 16);
+      } catch (NumberFormatException e) {
+        break;
+      }
+      if (expected != (int) crc.getValue()) {
+        break;
+      }
+      if (apply(line.substring(9), wardrobe, parser)) {
+        counts[0]++;
+      } else {
+        counts[1]++;
+      }
+      start = end + 1;
+    }
+    counts[1] += (start < length) ? 1 : 0;
+    return start;
+  }
+
+  /**
+   * Applies one journaled change to the wardrobe.
+   *
+   * @param change - the change, without its CRC
+   * @param wardrobe - the wardrobe to apply it to
+   * @param parser - the parser for added clothing
+   * @return true if the change was applied, false if it is not properly formatted or no longer applies
+   */
+  private static boolean apply(String change, Wardrobe wardrobe, ClothingParser parser) {
+    try {
+      String body = change.substring(2);
+      switch (change.charAt(0)) {
+        case 'A': {
+          Clothing toAdd = parser.parse(body);
+          return toAdd != null && wardrobe.addIfAbsent(toAdd);
+        }
+        case 'W': {
+          String[] parts = body.split(",", -1);
+          if (parts.length != 4) {
+            return false;
+          }
+          Clothing cloth = wardrobe.findClothing(parts[2], parts[3]);
+          if (cloth == null) {
+            return false;
+          }
+          wardrobe.applyWears(cloth, Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+          return true;
+        }
+        case 'R': {
+          String[] parts = body.split(",", -1);
+          if (parts.length != 2) {
+            return false;
+          }
+          wardrobe.removeClothing(parts[0], parts[1]);
+          return true;
+        }
+        case 'O': {
+          LocalDate date = LocalDate.ofEpochDay(Integer.parseInt(body));
+          wardrobe.removeAllClothingWornBefore(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+          return true;
+        }
+        case 'I':
+          wardrobe.removeAllClothingWornNumTimes(Integer.parseInt(body));
+          return true;
+        default:
+          return false;
+      }
+    } catch (RuntimeException e) { //a change that no longer applies, such as removing clothing that is gone
+      return false;
+    }
+  }
+
+  /**
+   * Syncs the given directory to disk, so that a journal just created in it survives a crash. Not every platform
+   * allows this, in which case nothing is done.
+   *
+   * @param directory - the directory to sync
+   */
+  private static void syncDirectory(File directory) {
+    try (FileChannel dir = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      //the journal itself is still written, only its creation might not survive a crash
+    }
+  }
+
+  /**
+   * Deletes the snapshots and journals of every generation before the given one.
+   *
+   * @param directory - the directory of the journal
+   * @param generation - the current generation
+   */
+  private static void deleteOlderGenerations(File directory, long generation) {
+    File[] files = directory.listFiles();
+    for (File f : (files == null) ? new File[0] : files) {
+      long fileGeneration = generationOf(f.getName());
+      if (fileGeneration >= 0 && fileGeneration < generation) {
+        f.delete();
+      }
+    }
+  }
+
+  /**
+   * Finds the generation of a snapshot or journal from its file name.
+   *
+   * @param name - the name of the file
+   * @return the generation, or -1 if the file is not a snapshot or journal
+   */
+  private static long generationOf(String name) {
+    String suffix = name.endsWith(SNAPSHOT_SUFFIX) ? SNAPSHOT_SUFFIX
+                    : name.endsWith(JOURNAL_SUFFIX) ? JOURNAL_SUFFIX : null;
+    if (suffix == null || !name.startsWith(PREFIX)) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(name.substring(PREFIX.length(), name.length() - suffix.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Finds the snapshot or journal file of the given generation.
+   *
+   * @param directory - the directory of the journal
+   * @param generation - the generation
+   * @param suffix - SNAPSHOT_SUFFIX or JOURNAL_SUFFIX
+   * @return the file
+   */
+  private static File file(File directory, long generation, String suffix) {
+    return new File(directory, PREFIX + generation + suffix);
+  }
+}
@@ -0,0 +1,217 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A load test for WardrobeServer, run from the command line. It adds a set of clothing to the served wardrobe, then
+ * opens a number of connections on the loopback address that each send find and wear commands for randomly picked
+ * clothing as fast as the server answers them, one command at a time. A warmup round is run first and thrown away so
+ * that the JIT compiler has settled on both sides. The requests per second of the measured round are printed along
+ * with the mean and tail latency of each kind of command, as seen by the clients.
+ * <p>
+ * Usage: java WardrobeLoadTest [option=value ...] with the options
+ * <pre>
+ *   port=N          the port of a running server (default: start one in this process on a ConcurrentWardrobe)
+ *   clients=N       the number of connections sending commands at once (default 16)
+ *   requests=N      the number of commands each connection sends in the measured round (default 20000)
+ *   warmup=N        the number of commands each connection sends in the warmup round (default 5000)
+ *   items=N         the number of pieces of clothing the commands pick from (default 1000)
+ *   reads=N         the percentage of the commands that are finds rather than wears (default 80)
+ * </pre>
+ * For use in the Wardrobe Manager project.
+ */
+public class WardrobeLoadTest {
+
+  private static final String DESCRIPTION = "Load test shirt "; //the description of the clothing, with its number
+  private static final int BRANDS = 10; //the number of brands the clothing is spread over
+
+  /**
+   * One connection to the server, sending a command and reading its answer.
+   */
+  static final class Client implements AutoCloseable {
+    private final Socket socket;
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    /**
+     * Connects to the server on the given port of the loopback address.
+     *
+     * @param port - the port of the server
+     * @throws IOException - if the server cannot be connected to
+     */
+    Client(int port) throws IOException {
+      socket = new Socket(InetAddress.getLoopbackAddress(), port);
+      socket.setTcpNoDelay(true);
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()), false, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends a command and reads the server's answer up to its OK or ERROR line.
+     *
+     * @param command - the command to send
+     * @param answer - where to append the lines of the answer before the OK or ERROR line, or null to skip them
+     * @return true if the server answered OK, false if it answered ERROR
+     * @throws IOException - if the connection fails or is closed before the answer ends
+     */
+    boolean send(String command, StringBuilder answer) throws IOException {
+      out.println(command);
+      out.flush();
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (line.equals(WardrobeServer.OK)) {
+          return true;
+        }
+        if (line.equals(WardrobeServer.ERROR)) {
+          return false;
+        }
+        if (answer != null) {
+          answer.append(line).append('\n');
+        }
+      }
+      throw new EOFException("The server closed the connection.");
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  /**
+   * Adds the clothing the commands pick from to the served wardrobe. Clothing that is already there, from an earlier
+   * run against the same server, is left as it is.
+   *
+   * @param port - the port of the server
+   * @param items - the number of pieces of clothing
+   * @throws IOException - if the server cannot be reached
+   */
+  static void addItems(int port, int items) throws IOException {
+    try (Client client = new Client(port)) {
+      for (int i = 0; i < items; i++) {
+        client.send("A," + DESCRIPTION + i + ",Brand " + (i % BRANDS), null);
+      }
+    }
+  }
+
+  /**
+   * Runs one round of the load test: the given number of connections each send the given number of find and wear
+   * commands, and the time each command took to be answered is recorded in the metrics, as a GET or a WEAR.
+   *
+   * @param port - the port of the server
+   * @param clients - the number of connections
+   * @param requests - the number of commands each connection sends
+   * @param items - the number of pieces of clothing the commands pick from
+   * @param readPercent - the percentage of the commands that are finds rather than wears
+   * @param seed - the seed of the random picks
+   * @param metrics - where to record the time each command took
+   * @return the number of commands the server answered with ERROR
+   * @throws Exception - if a connection failed
+   */
+  static long runRound(int port, int clients, int requests, int items, int readPercent, long seed,
+                       WardrobeMetrics metrics) throws Exception {
+    AtomicLong errors = new AtomicLong();
+    AtomicReference<Exception> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[clients];
+    for (int c = 0; c < clients; c++) {
+      Random random = new Random(seed + c);
+      threads[c] = new Thread(() -> {
+        try (Client client = new Client(port)) {
+          for (int r = 0; r < requests; r++) {
+            int item = random.nextInt(items);
+            String key = DESCRIPTION + item + ",Brand " + (item % BRANDS);
+            boolean read = random.nextInt(100) < readPercent;
+            String command = read ? "F," + key : "W," + key + ",2024," + (1 + r % 12) + "," + (1 + r % 28);
+            long start = System.nanoTime();
+            if (!client.send(command, null)) {
+              errors.incrementAndGet();
+            }
+            metrics.record(read ? WardrobeMetrics.GET : WardrobeMetrics.WEAR, start);
+          }
+        } catch (Exception e) {
+          failure.compareAndSet(null, e);
+        }
+      }, "load-test-client-" + c);
+      threads[c].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    return errors.get();
+  }
+
+  /**
+   * Runs the load test with the options given on the command line.
+   *
+   * @param args - the options, each as option=value
+   * @throws Exception - if the server cannot be started or reached
+   */
+  public static void main(String[] args) throws Exception {
+    //read the options
+    HashMap<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (equals < 0) {
+        System.out.println("Not a valid option: " + arg);
+        return;
+      }
+      options.put(arg.substring(0, equals), arg.substring(equals + 1));
+    }
+    int clients = Integer.parseInt(options.getOrDefault("clients", "16"));
+    int requests = Integer.parseInt(options.getOrDefault("requests", "20000"));
+    int warmup = Integer.parseInt(options.getOrDefault("warmup", "5000"));
+    int items = Integer.parseInt(options.getOrDefault("items", "1000"));
+    int readPercent = Integer.parseInt(options.getOrDefault("reads", "80"));
+    if (clients <= 0 || requests <= 0 || warmup < 0 || items <= 0 || readPercent < 0 || readPercent > 100) {
+      System.out.println("Not a valid option: clients, requests and items must be positive, warmup not negative,"
+          + " and reads in the range [0,100]");
+      return;
+    }
+
+    //start a server in this process unless one is given
+    WardrobeServer server = null;
+    int port;
+    if (options.containsKey("port")) {
+      port = Integer.parseInt(options.get("port"));
+    } else {
+      server = WardrobeManager.startServer(new ConcurrentWardrobe(items), 0);
+      port = server.getPort();
+      System.out.println("Started a server on localhost:" + port + " ("
+          + (server.usesVirtualThreads() ? "virtual" : "pooled") + " threads)");
+    }
+
+    try {
+      addItems(port, items);
+      WardrobeMetrics metrics = new WardrobeMetrics();
+      if (warmup > 0) {
+        runRound(port, clients, warmup, items, readPercent, 1, metrics);
+      }
+      metrics.reset();
+      long start = System.nanoTime();
+      long errors = runRound(port, clients, requests, items, readPercent, 2, metrics);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      long total = (long) clients * requests;
+      System.out.printf(Locale.ROOT, "%d requests from %d clients in %.3f s: %.0f requests/sec, %d errors%n",
+                        total, clients, seconds, total / seconds, errors);
+      System.out.print(metrics.snapshot());
+    } finally {
+      if (server != null) {
+        server.close();
+      }
+    }
+  }
+}
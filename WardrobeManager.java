@@ -1,6 +1,21 @@
+import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 
 /**
  * Driver class for users to manage their wardrobe using 
@@ -14,107 +29,193 @@ public class WardrobeManager {
   private static Wardrobe wardrobe; //the wardrobe for the manger to manage
   private static Scanner readIn; // a scanner object used to read in user input from the console
   private static boolean keepRunning; //a boolean to keep track of if the program should continue running
+  private static final long PARALLEL_LOAD_SIZE = 64L << 20; //files this large, in bytes, are loaded in parallel
+  private static final String BINARY_EXTENSION = ".wrdb"; //files saved with this extension use the binary format
+  private static WardrobeJournal journal; //makes every change durable as it is made, null if not journaling
+  private static final int BATCH_BUFFER_SIZE = 64 * 1024; //the size of the buffers commands are read and printed by
   
   /**
    * Prints out a list of commands to the console.
+   * @param out where to print the commands
    */
-  private static void printCommands() {
-    System.out.println("Please pick on of the following commands: ");
-    System.out.println("\t [V]  View wardrobe");
-    System.out.println("\t [F],<description>,<brand>  Find a piece of clothing");
-    System.out.println("\t [A],<description>,<brand> Add a piece of new clothing");
-    System.out.println("\t [W],<description>,<brand>,<year>,<month>,<day> Wear a piece clothing");
-    System.out.println("\t [R],<description>,<brand> Remove a piece of clothing");
-    System.out.println("\t [O],<year>,<month>,<day> Remove all old clothing");
-    System.out.println("\t [I],<threshold> Remove all clothing infrequently worn");
-    System.out.println("\t [L],<filename.txt>Load a wardobe from a file");
-    System.out.println("\t [S],<filename.txt>Save the wardrobe to a file");
-    System.out.println("\t [H]  View list of commands");
-    System.out.println("\t [Q]  Quit");
+  private static void printCommands(PrintStream out) {
+    out.println("Please pick on of the following commands: ");
+    out.println("\t [V]  View wardrobe");
+    out.println("\t [V],<offset>,<count>  View a page of the wardrobe");
+    out.println("\t [F],<description>,<brand>  Find a piece of clothing");
+    out.println("\t [A],<description>,<brand> Add a piece of new clothing");
+    out.println("\t [W],<description>,<brand>,<year>,<month>,<day> Wear a piece clothing");
+    out.println("\t [R],<description>,<brand> Remove a piece of clothing");
+    out.println("\t [O],<year>,<month>,<day> Remove all old clothing");
+    out.println("\t [I],<threshold> Remove all clothing infrequently worn");
+    out.println("\t [L],<filename.txt>Load a wardobe from a file");
+    out.println("\t [S],<filename.txt>Save the wardrobe to a file (binary if named <filename.wrdb>)");
+    out.println("\t [M]  View how many operations were done and how long they took");
+    out.println("\t [H]  View list of commands");
+    out.println("\t [Q]  Quit");
   }
   
+  /**
+   * Parses and executes the view command. Without arguments the whole wardrobe is printed, otherwise only the
+   * page of clothing starting at the given offset. The wardrobe is streamed to the console through a buffer
+   * rather than built into one String first. Will print out a message if something went wrong parsing
+   * or executing the command.
+   * @param wardrobe the wardrobe to run the command on
+   * @param parts the command given by the user, split at its commas
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
+   */
+  private static boolean viewWardrobe(Wardrobe wardrobe, String[] parts, PrintStream out) {
+
+    //check it has the proper number of args
+    if(parts.length != 1 && parts.length != 3) {
+      out.println("Not a valid command.");
+      return false;
+    }
+
+    try {
+      //parse the page, if given
+      int offset = 0;
+      int count = Integer.MAX_VALUE;
+      if(parts.length == 3) {
+        offset = Integer.parseInt(parts[1]);
+        count = Integer.parseInt(parts[2]);
+      }
+      if(offset < 0 || count < 0) {
+        out.println("Not a valid command. Offset and count cannot be negative.");
+        return false;
+      }
+
+      out.println("Here is your current wardrobe: ");
+      Writer writer = new BufferedWriter(new OutputStreamWriter(out));
+      wardrobe.writeTo(writer, offset, count);
+      writer.flush(); //flush but do not close, that would close the console
+      out.println();
+      return true;
+    }catch(NumberFormatException e) { //inform user the page arguments aren't ints
+      out.println("Not a valid command. Offset and count must be numbers.");
+    }catch(IOException e) { //inform user the wardrobe could not be printed
+      out.println("There was an issue printing the wardrobe.");
+    }
+    return false;
+  }
+
   /**
    * Parses and executes the load command. Will print out a message if something went wrong parsing
    * or executing the command.
-   * @param input the command String given by the user that has already been trimmed of trailing
-   * whitespace
+   * @param wardrobe the wardrobe to run the command on
+   * @param journal the journal every change to the wardrobe goes through, null if not journaling
+   * @param parts the command given by the user, split at its commas
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
    */
-  private static void loadWardrobe(String input) {
+  private static boolean loadWardrobe(Wardrobe wardrobe, WardrobeJournal journal, String[] parts, PrintStream out) {
     
     //check it has the proper number of args
-    String[] parts = input.split(",");
     if(parts.length != 2) {
-      System.out.println("Not a valid command.");
-      return;
+      out.println("Not a valid command.");
+      return false;
     }
     
-    //load from file, if not successful inform the user
-    if(!wardrobe.loadFromFile(new File(parts[1])))
-      System.out.println("There was an issue loading from the file.");
-    else
-      System.out.println("Loaded successfully from file!");
-    
+    //load from file, detecting the binary format and loading large text files in parallel,
+    //if not successful inform the user
+    try {
+      File file = new File(parts[1]);
+      LoadReport report;
+      if(Wardrobe.isBinaryFile(file))
+        report = wardrobe.loadBinary(file);
+      else if(file.length() >= PARALLEL_LOAD_SIZE)
+        report = wardrobe.loadFromFileParallel(file, Runtime.getRuntime().availableProcessors());
+      else
+        report = wardrobe.loadFromFile(file, Wardrobe.DEFAULT_BUFFER_SIZE);
+      if(report.getItemsLoaded() == 0)
+        out.println("There was an issue loading from the file.");
+      else
+        out.println("Loaded successfully from file!");
+      out.println(report);
+      if(journal != null) //the loaded clothing is not in the journal, so take a snapshot that has it
+        journal.checkpoint();
+      return report.getItemsLoaded() > 0;
+    }catch(IOException e) { //inform user the file could not be read
+      out.println("There was an issue loading from the file.");
+    }
+    return false;
   }
   
   /**
    * Parses and executes the save command. Will print out a message if something went wrong parsing
    * or executing the command.
-   * @param input the command String given by the user that has already been trimmed of trailing
-   * whitespace
+   * @param wardrobe the wardrobe to run the command on
+   * @param parts the command given by the user, split at its commas
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
    */
-  private static void saveWardrobe(String input) {
+  private static boolean saveWardrobe(Wardrobe wardrobe, String[] parts, PrintStream out) {
     
   //check it has the proper number of args
-    String[] parts = input.split(",");
     if(parts.length != 2) {
-      System.out.println("Not a valid command.");
-      return;
+      out.println("Not a valid command.");
+      return false;
     }
     
-  //save to file, if not successful inform the user
-    if(!wardrobe.saveToFile(new File(parts[1])))
-      System.out.println("There was an issue saving to the file.");
+  //save to file, in the binary format if the file name asks for it, if not successful inform the user
+    File file = new File(parts[1]);
+    boolean saved = file.getName().endsWith(BINARY_EXTENSION)
+        ? wardrobe.saveBinary(file) : wardrobe.saveToFile(file);
+    if(!saved)
+      out.println("There was an issue saving to the file.");
     else
-      System.out.println("Saved successfully to file!");
-    
+      out.println("Saved successfully to file!");
+    return saved;
   }
   
   /**
    * Parses and executes the remove infrequently worn clothing command. 
    * Will print out a message if something went wrong parsing or executing the command.
-   * @param input the command String given by the user that has already been trimmed of trailing
-   * whitespace
+   * @param wardrobe the wardrobe to run the command on
+   * @param journal the journal every change to the wardrobe goes through, null if not journaling
+   * @param parts the command given by the user, split at its commas
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
    */
-  private static void removeInfrequentlyWornClothing(String input) {
+  private static boolean removeInfrequentlyWornClothing(Wardrobe wardrobe, WardrobeJournal journal, String[] parts,
+      PrintStream out) {
   //check it has the proper number of args
-    String[] parts = input.split(",");
     if(parts.length != 2) {
-      System.out.println("Not a valid command.");
-      return;
+      out.println("Not a valid command.");
+      return false;
     }
     
     try {
       //remove all clothing worn less than the threshold
-      wardrobe.removeAllClothingWornNumTimes(Integer.parseInt(parts[1]));
-      System.out.println("Removed all infrequently worn clothing!");
-      
+      int threshold = Integer.parseInt(parts[1]);
+      int removed = (journal != null) ? journal.removeAllClothingWornNumTimes(threshold)
+          : wardrobe.removeAllClothingWornNumTimes(threshold);
+      out.println("Removed all infrequently worn clothing! (" + removed + " removed)");
+      return true;
     }catch(NumberFormatException e) { //threshold value isn't a number, inform user
-      System.out.println("Not a valid command. Threshold must be a number.");
+      out.println("Not a valid command. Threshold must be a number.");
+    }catch(IOException e) { //inform user the change may be lost
+      out.println("There was an issue writing to the journal.");
     }
+    return false;
   }
   
   /**
    * Parses and executes the remove old clothing command. 
    * Will print out a message if something went wrong parsing or executing the command.
-   * @param input the command String given by the user that has already been trimmed of trailing
-   * whitespace
+   * @param wardrobe the wardrobe to run the command on
+   * @param journal the journal every change to the wardrobe goes through, null if not journaling
+   * @param parts the command given by the user, split at its commas
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
    */
-  private static void removeOldClothing(String input) {
+  private static boolean removeOldClothing(Wardrobe wardrobe, WardrobeJournal journal, String[] parts,
+      PrintStream out) {
   //check it has the proper number of args
-    String[] parts = input.split(",");
     if(parts.length != 4) {
-      System.out.println("Not a valid command.");
-      return;
+      out.println("Not a valid command.");
+      return false;
     }
     
     try {
@@ -125,56 +226,74 @@ public class WardrobeManager {
       int day = Integer.parseInt(parts[3]);
       
       //remove all clothing based on the given date
-      wardrobe.removeAllClothingWornBefore(year, month, day);
-      System.out.println("Removed all old clothing!");
+      int removed = (journal != null) ? journal.removeAllClothingWornBefore(year, month, day)
+          : wardrobe.removeAllClothingWornBefore(year, month, day);
+      out.println("Removed all old clothing! (" + removed + " removed)");
+      return true;
     }catch(NumberFormatException e) { //inform user arguments aren't ints
-      System.out.println("Not a valid command. Day, month, and year must be numbers.");
+      out.println("Not a valid command. Day, month, and year must be numbers.");
+    }catch(DateTimeException e) { //inform user the date does not exist, like February 30th
+      out.println("Not a valid date.");
+    }catch(IOException e) { //inform user the change may be lost
+      out.println("There was an issue writing to the journal.");
     }
+    return false;
   }
   
   /**
    * Parses and executes the remove clothing command. 
    * Will print out a message if something went wrong parsing or executing the command.
-   * @param input the command String given by the user that has already been trimmed of trailing
-   * whitespace
+   * @param wardrobe the wardrobe to run the command on
+   * @param journal the journal every change to the wardrobe goes through, null if not journaling
+   * @param parts the command given by the user, split at its commas
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
    */
-  private static void removeClothing(String input) {
+  private static boolean removeClothing(Wardrobe wardrobe, WardrobeJournal journal, String[] parts, PrintStream out) {
   //check it has the proper number of args
-    String[] parts = input.split(",");
     if(parts.length != 3) {
-      System.out.println("Not a valid command.");
-      return;
+      out.println("Not a valid command.");
+      return false;
     }
     
     //check that the description and brand are not blank
     String description = parts[1];
     String brand = parts[2];
     if(description.isBlank() || brand.isBlank()) {
-      System.out.println("Description and/or brand cannot be blank.");
-      return;
+      out.println("Description and/or brand cannot be blank.");
+      return false;
     }
     
     try {
       //remove clothing
-      wardrobe.removeClothing(description, brand);
-      System.out.println("Removed that piece of clothing!");
+      if(journal != null)
+        journal.removeClothing(description, brand);
+      else
+        wardrobe.removeClothing(description, brand);
+      out.println("Removed that piece of clothing!");
+      return true;
     }catch(NoSuchElementException e) { //inform user unable to remove
-      System.out.println("That piece of clothing is not in the wardrobe.");
-    } 
+      out.println("That piece of clothing is not in the wardrobe.");
+    }catch(IOException e) { //inform user the change may be lost
+      out.println("There was an issue writing to the journal.");
+    }
+    return false;
   }
   
   /**
    * Parses and executes the wear clothing command. 
    * Will print out a message if something went wrong parsing or executing the command.
-   * @param input the command String given by the user that has already been trimmed of trailing
-   * whitespace
+   * @param wardrobe the wardrobe to run the command on
+   * @param journal the journal every change to the wardrobe goes through, null if not journaling
+   * @param parts the command given by the user, split at its commas
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
    */
-  private static void wearClothing(String input) {
+  private static boolean wearClothing(Wardrobe wardrobe, WardrobeJournal journal, String[] parts, PrintStream out) {
   //check it has the proper number of args
-    String[] parts = input.split(",");
     if(parts.length != 6) {
-      System.out.println("Not a valid command.");
-      return;
+      out.println("Not a valid command.");
+      return false;
     }
     
     try {
@@ -182,135 +301,357 @@ public class WardrobeManager {
       Clothing toWear = new Clothing(parts[1], parts[2]);
       
       //wear the clothing
-      wardrobe.wearClothing(toWear, Integer.parseInt(parts[3]), Integer.parseInt(parts[4]),
-          Integer.parseInt(parts[5]));
-      System.out.println("Piece of clothing has been updated!");
-
+      int year = Integer.parseInt(parts[3]);
+      int month = Integer.parseInt(parts[4]);
+      int day = Integer.parseInt(parts[5]);
+      if(journal != null)
+        journal.wearClothing(toWear, year, month, day);
+      else
+        wardrobe.wearClothing(toWear, year, month, day);
+      out.println("Piece of clothing has been updated!");
+      return true;
     }catch(NumberFormatException e) { //inform user date arguments are not numbers
-      System.out.println("Not a valid command. Day, month, and year must be numbers.");
+      out.println("Not a valid command. Day, month, and year must be numbers.");
+    }catch(DateTimeException e) { //inform user the date does not exist, like February 30th
+      out.println("Not a valid date.");
     }catch(IllegalArgumentException e) { //inform user arguments cannot be blank
-      System.out.println("Description and/or brand cannot be blank.");
+      out.println("Description and/or brand cannot be blank.");
+    }catch(IOException e) { //inform user the change may be lost
+      out.println("There was an issue writing to the journal.");
     }
+    return false;
   }
   
   /**
    * Parses and executes the add clothing command. 
    * Will print out a message if something went wrong parsing
    * or executing the command.
-   * @param input the command String given by the user that has already been trimmed of trailing
-   * whitespace
+   * @param wardrobe the wardrobe to run the command on
+   * @param journal the journal every change to the wardrobe goes through, null if not journaling
+   * @param parts the command given by the user, split at its commas
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
    */
-  private static void addClothing(String input) {
+  private static boolean addClothing(Wardrobe wardrobe, WardrobeJournal journal, String[] parts, PrintStream out) {
   //check it has the proper number of args
-    String[] parts = input.split(",");
     if(parts.length != 3) {
-      System.out.println("Not a valid command.");
-      return;
+      out.println("Not a valid command.");
+      return false;
     }
     
     try {
       //create the clothing and add it to wardrobe
       Clothing toAdd = new Clothing(parts[1], parts[2]);
-      wardrobe.addClothing(toAdd);
-      System.out.println("Added clothing to wardrobe!");
+      if(journal != null)
+        journal.addClothing(toAdd);
+      else
+        wardrobe.addClothing(toAdd);
+      out.println("Added clothing to wardrobe!");
+      return true;
     }catch(IllegalStateException e) {//inform user of duplicate
-      System.out.println("Cannot add a duplicate piece of clothing to the wardrobe.");
+      out.println("Cannot add a duplicate piece of clothing to the wardrobe.");
     }catch(IllegalArgumentException e) { //inform user arguments cannot be blank
-      System.out.println("Cannot add a piece of clothing with no description and/or brand.");
+      out.println("Cannot add a piece of clothing with no description and/or brand.");
+    }catch(IOException e) { //inform user the change may be lost
+      out.println("There was an issue writing to the journal.");
     }
+    return false;
   }
   
   /**
    * Parses and executes the find clothing command. 
    * Will print out a message if something went wrong parsing or executing the command.
-   * @param input the command String given by the user that has already been trimmed of trailing
-   * whitespace
+   * @param wardrobe the wardrobe to run the command on
+   * @param parts the command given by the user, split at its commas
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
    */
-  private static void findClothing(String input) {
+  private static boolean findClothing(Wardrobe wardrobe, String[] parts, PrintStream out) {
   //check it has the proper number of args
-    String[] parts = input.split(",");
     if(parts.length != 3) {
-      System.out.println("Not a valid command.");
-      return;
+      out.println("Not a valid command.");
+      return false;
     }
     
     try {
       //print out the piece of clothing found
-      System.out.println(wardrobe.getClothing(parts[1], parts[2]));
+      out.println(wardrobe.getClothing(parts[1], parts[2]));
+      return true;
+    }catch(NoSuchElementException e) { //inform user it was not found
+      out.println("That piece of clothing is not in the wardrobe.");
     }catch(IllegalArgumentException e) {//inform user arguments are bad
-      System.out.println("Cannot look for a piece of clothing with no description and/or brand.");
+      out.println("Cannot look for a piece of clothing with no description and/or brand.");
+    }
+    return false;
+  }
+  
+  /**
+   * Prints out the number of operations done on the wardrobe, how many were done per second, and how long they took.
+   * @param wardrobe the wardrobe whose metrics to print
+   * @param out where to print the metrics
+   */
+  private static void printMetrics(Wardrobe wardrobe, PrintStream out) {
+    WardrobeMetrics.Snapshot snapshot = wardrobe.getMetrics().snapshot();
+    out.println("Here are the metrics of the wardrobe operations: ");
+    out.print(snapshot);
+  }
+  
+  /**
+   * Runs the user input command against the wardrobe of the text interface, see runCommand(Wardrobe,
+   * WardrobeJournal, String, PrintStream). The quit command stops the text interface.
+   * @param input the command String given by the user that has already been trimmed of trailing
+   * whitespace
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
+   */
+  private static boolean runCommand(String input, PrintStream out) {
+    if(!input.isEmpty() && (input.charAt(0) == 'Q' || input.charAt(0) == 'q')) { //quit
+      keepRunning = false;
+      return true;
     }
+    return runCommand(wardrobe, journal, input, out);
   }
   
   /**
-   * Runs and calls the corresponding method based on the user input command.
+   * Runs and calls the corresponding method based on the user input command. The command is split at its commas
+   * once, here, and the parts are handed to the method. Everything the command needs is passed in, so many threads
+   * can run commands at once against a wardrobe that can be shared by them.
+   * @param wardrobe the wardrobe to run the command on
+   * @param journal the journal every change to the wardrobe goes through, null if not journaling
    * @param input the command String given by the user that has already been trimmed of trailing
    * whitespace
+   * @param out where to print the result of the command
+   * @return true if the command was carried out, false if it was not valid or something went wrong
    */
-  private static void runCommand(String input) {
+  private static boolean runCommand(Wardrobe wardrobe, WardrobeJournal journal, String input, PrintStream out) {
+    if(input.isEmpty()) { //inform user of non-valid command
+      out.println("Not a valid command.");
+      return false;
+    }
+    String[] parts = input.split(",");
     switch(input.charAt(0)) {
       case 'V','v': //view current wardrobe
-        System.out.println("Here is your current wardrobe: ");
-        System.out.println(wardrobe);
-        break;
+        return viewWardrobe(wardrobe, parts, out);
       case 'F','f': //find a piece of clothing
-        findClothing(input);
-        break;
+        return findClothing(wardrobe, parts, out);
       case 'A', 'a': //add a piece of clothing
-        addClothing(input);
-        break;
+        return addClothing(wardrobe, journal, parts, out);
       case 'W', 'w': //wear a piece of clothing
-        wearClothing(input);
-        break;
+        return wearClothing(wardrobe, journal, parts, out);
       case 'R', 'r': //remove a piece of clothing
-        removeClothing(input);
-        break;
+        return removeClothing(wardrobe, journal, parts, out);
       case 'O', 'o': //remove old clothing
-        removeOldClothing(input);
-        break;
+        return removeOldClothing(wardrobe, journal, parts, out);
       case 'I', 'i': //remove infrequently worn clothing
-        removeInfrequentlyWornClothing(input);
-        break;
+        return removeInfrequentlyWornClothing(wardrobe, journal, parts, out);
       case 'L', 'l': //load wardrobe
-        loadWardrobe(input);
-        break;
+        return loadWardrobe(wardrobe, journal, parts, out);
       case 'S', 's': //save wardrobe
-        saveWardrobe(input);
-        break;
+        return saveWardrobe(wardrobe, parts, out);
+      case 'M', 'm': //print metrics
+        printMetrics(wardrobe, out);
+        return true;
       case 'H', 'h': //print commands again
-        printCommands();
-        break;
-      case 'Q', 'q': //quit
-        keepRunning = false;
-        break;
+        printCommands(out);
+        return true;
       default: //inform user of non-valid command
-        System.out.println("Not a valid command.");
-        break;
+        out.println("Not a valid command.");
+        return false;
  
     }
   }
   
-  public static void main(String[] args) {
-    //some primary set-up
-    wardrobe = new Wardrobe(10);
-    readIn = new Scanner(System.in);
+  /**
+   * Runs every command read from the given reader on the given wardrobe, one per line, the same way as if they were
+   * typed in, until the reader runs out or a quit command is read. Blank lines and lines starting with # are
+   * skipped, and a command that throws is counted as failed and does not stop the rest. The results of the
+   * commands are printed to out, which should be buffered since nothing waits on them, and a summary of how many
+   * commands ran and how fast is printed to summary once all of them have.
+   * @param target the wardrobe to run the commands on
+   * @param in the commands to run
+   * @param out where to print the results of the commands
+   * @param summary where to print the summary
+   * @return the number of commands that were not valid or went wrong
+   * @throws IOException if the commands cannot be read
+   */
+  static long runBatch(Wardrobe target, BufferedReader in, PrintStream out, PrintStream summary)
+      throws IOException {
+    wardrobe = target;
+    long startTime = System.nanoTime();
+    long commands = 0;
+    long failed = 0;
     keepRunning = true;
+    String line;
+    while(keepRunning && (line = in.readLine()) != null) {
+      line = line.trim();
+      if(line.isEmpty() || line.charAt(0) == '#') //skip blank lines and comments
+        continue;
+      commands++;
+      boolean worked;
+      try {
+        worked = runCommand(line, out);
+      }catch(RuntimeException e) { //a bad command must not end the batch
+        out.println("There was an issue running the command.");
+        worked = false;
+      }
+      if(!worked)
+        failed++;
+    }
+    out.flush();
     
-    //welcome the user
-    System.out.println("--- Welcome to the Wardrobe Management System! ---");
-    printCommands();
+    //print how many commands ran and how fast
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    summary.println(String.format(Locale.ROOT, "Ran %d commands (%d failed) in %.3f s, %.0f commands/sec.",
+        commands, failed, seconds, commands / Math.max(seconds, 1e-9)));
+    summary.flush();
+    return failed;
+  }
+  
+  /**
+   * Runs the commands in the given file, or piped in if the file is "-", as a batch. The results of the commands
+   * are printed through a large buffer rather than a line at a time, or not at all if quiet.
+   * @param source the file of commands, or "-" to read them from the console
+   * @param quiet whether to print only the summary and not the result of each command
+   */
+  private static void runBatch(String source, boolean quiet) {
+    PrintStream out = quiet ? new PrintStream(OutputStream.nullOutputStream())
+        : new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BATCH_BUFFER_SIZE));
+    try(BufferedReader in = source.equals("-")
+        ? new BufferedReader(new InputStreamReader(System.in), BATCH_BUFFER_SIZE)
+        : new BufferedReader(new InputStreamReader(new FileInputStream(source), StandardCharsets.UTF_8),
+            BATCH_BUFFER_SIZE)) {
+      runBatch(wardrobe, in, out, System.out);
+    }catch(IOException e) { //inform user the commands could not be read
+      out.flush();
+      System.out.println("There was an issue reading the commands.");
+    }
+  }
+  
+  /**
+   * Starts a server on the given port of the loopback address that runs the commands its clients send against the
+   * given wardrobe, the same way as if they were typed in. Many clients are served at once, so the wardrobe must be
+   * one that can be shared by many threads, such as a ConcurrentWardrobe.
+   * @param target the wardrobe to run the commands on
+   * @param port the port to listen on, or 0 for any free port
+   * @return the server, already accepting connections
+   * @throws IOException if the port cannot be listened on
+   */
+  static WardrobeServer startServer(Wardrobe target, int port) throws IOException {
+    return startServer(target, null, port);
+  }
+  
+  /**
+   * Starts a server on the given port of the loopback address that runs the commands its clients send against the
+   * given wardrobe, journaling every change if a journal is given.
+   * @param target the wardrobe to run the commands on
+   * @param log the journal of the wardrobe, or null if not journaling
+   * @param port the port to listen on, or 0 for any free port
+   * @return the server, already accepting connections
+   * @throws IOException if the port cannot be listened on
+   */
+  private static WardrobeServer startServer(Wardrobe target, WardrobeJournal log, int port) throws IOException {
+    return WardrobeServer.start(port, (input, out) -> runCommand(target, log, input, out));
+  }
+  
+  /**
+   * Serves the wardrobe to clients on the given port until Q is typed in. If nothing can be typed in, because
+   * the console has been closed, the wardrobe is served until the program is stopped.
+   * @param port the port to listen on, or 0 for any free port
+   */
+  private static void serve(int port) {
+    try(WardrobeServer server = startServer(wardrobe, journal, port)) {
+      System.out.println("Serving the wardrobe on localhost:" + server.getPort() + " ("
+          + (server.usesVirtualThreads() ? "virtual" : "pooled") + " threads). Type Q to stop.");
+      BufferedReader console = new BufferedReader(new InputStreamReader(System.in));
+      String line;
+      do {
+        line = console.readLine();
+      } while(line != null && !line.trim().equalsIgnoreCase("Q"));
+      if(line == null) //no console to type Q into
+        server.awaitClose();
+    }catch(IOException | IllegalArgumentException e) { //inform user the server could not be started
+      System.out.println("There was an issue starting the server.");
+    }catch(InterruptedException e) { //stop serving
+      Thread.currentThread().interrupt();
+    }
+  }
+  
+  /**
+   * Starts the text interface, or runs a batch of commands without it. If a directory is given, the wardrobe is
+   * recovered from the journal in that directory and every change made is journaled there, so nothing is lost if
+   * the program stops without saving. With --batch, the commands are read from the given file, or piped in if it is
+   * "-", and run one after the other with only a summary printed at the end if --quiet is also given. With --serve,
+   * the wardrobe is shared with clients on the same host through the given port instead, see WardrobeServer.
+   * @param args optionally, the directory of the journal, then optionally --batch followed by the file of commands
+   * and --quiet, or --serve followed by the port
+   */
+  public static void main(String[] args) {
+    //read the arguments
+    String journalDirectory = null;
+    String batchSource = null;
+    boolean quiet = false;
+    int servePort = -1;
+    for(int i = 0; i < args.length; i++) {
+      if(args[i].equals("--batch") && i + 1 < args.length && servePort < 0)
+        batchSource = args[++i];
+      else if(args[i].equals("--serve") && i + 1 < args.length && batchSource == null
+          && args[i + 1].matches("\\d{1,5}"))
+        servePort = Integer.parseInt(args[++i]);
+      else if(args[i].equals("--quiet"))
+        quiet = true;
+      else if(journalDirectory == null && !args[i].startsWith("--"))
+        journalDirectory = args[i];
+      else { //inform user of the arguments that can be given
+        System.out.println("Usage: java WardrobeManager [journal directory] [--batch <file, or - to pipe>]"
+            + " [--quiet] [--serve <port>]");
+        return;
+      }
+    }
     
-    //loop to recieve input from user and execute commands
-    while(keepRunning) {
-      System.out.print(">> ");
-      String input = readIn.nextLine();
-      runCommand(input.trim());
+    //some primary set-up, the wardrobe is shared by many threads when served
+    wardrobe = (servePort >= 0) ? new ConcurrentWardrobe(10) : new Wardrobe(10);
+    keepRunning = true;
+    if(journalDirectory != null) {
+      try {
+        journal = WardrobeJournal.open(new File(journalDirectory), wardrobe);
+        System.out.println("Recovered " + wardrobe.size() + " pieces of clothing from the journal ("
+            + journal.getReplayedChanges() + " changes replayed).");
+      }catch(IOException e) { //inform user the journal could not be opened
+        System.out.println("There was an issue opening the journal.");
+        return;
+      }
     }
     
-    readIn.close(); //close all scanners to release resources and prevent memory leak
+    if(batchSource != null) {
+      runBatch(batchSource, quiet);
+    } else if(servePort >= 0) {
+      serve(servePort);
+    } else {
+      //welcome the user
+      System.out.println("--- Welcome to the Wardrobe Management System! ---");
+      printCommands(System.out);
+      
+      //loop to recieve input from user and execute commands
+      readIn = new Scanner(System.in);
+      while(keepRunning) {
+        System.out.print(">> ");
+        String input = readIn.nextLine();
+        runCommand(input.trim(), System.out);
+      }
+      readIn.close(); //close all scanners to release resources and prevent memory leak
+    }
+    
+    if(journal != null) {
+      try {
+        journal.close();
+      }catch(IOException e) { //inform user the last changes may be lost
+        System.out.println("There was an issue writing to the journal.");
+      }
+    }
     
     //say farewell to user
-    System.out.println("------------------- Goodbye! -------------------");
+    if(batchSource == null && servePort < 0)
+      System.out.println("------------------- Goodbye! -------------------");
     
   }
 }
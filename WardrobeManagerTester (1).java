@@ -1,6 +1,21 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 //////////////// FILE HEADER  //////////////////////////
 //
@@ -556,6 +571,1393 @@ public class WardrobeManagerTester {
     return true; // all tests passed
   }
 
+  /**
+   * Tests that Clothing's hashCode() is consistent with equals() and that the Wardrobe's index finds,
+   * wears and rejects duplicate clothing ignoring case.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testClothingIndexIgnoresCase() {
+    try {
+      Clothing c1 = new Clothing("Black Jeans", "DIOR");
+      Clothing c2 = new Clothing("black jeans", "dior");
+      if (!c1.equals(c2) || c1.hashCode() != c2.hashCode()) return false;
+
+      Wardrobe wardrobe = new Wardrobe(2);
+      wardrobe.addClothing(c1);
+      wardrobe.addClothing(new Clothing("Green t-shirt", "Lv"));
+      wardrobe.addClothing(new Clothing("Blue t-shirt", "Dior"));
+      Clothing held = wardrobe.getClothing("BLACK jeans", "Dior");
+      if (!held.equals(c1) || !held.getDescription().equals("Black Jeans")) return false;
+
+      // the array keeps the order the clothing was added in
+      Clothing[] array = wardrobe.getArray();
+      if (array[0] != held || !array[2].getDescription().equals("Blue t-shirt")) return false;
+
+      // the wardrobe wears its own copy of the clothing
+      wardrobe.wearClothing(c2, 2024, 3, 1);
+      if (held.getNumOfTimesWorn() != 1 || c1.getNumOfTimesWorn() != 0) return false;
+
+      try {
+        wardrobe.addClothing(c2);
+        return false; // no exception was thrown for a duplicate
+      } catch (IllegalArgumentException e) {
+        if (e.getMessage() == null || e.getMessage().isBlank()) return false;
+      }
+
+      // removed clothing can no longer be found
+      wardrobe.removeClothing("black JEANS", "dior");
+      if (wardrobe.size() != 2 || wardrobe.getArray()[0] == held) return false;
+      try {
+        wardrobe.getClothing("Black Jeans", "DIOR");
+        return false; // no exception was thrown
+      } catch (NoSuchElementException e) {
+        if (e.getMessage() == null || e.getMessage().isBlank()) return false;
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that Clothing shares one instance of each spelling of a brand, including clothing parsed from text,
+   * and that brands still match ignoring case.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testBrandsAreShared() {
+    try {
+      Clothing c1 = new Clothing("Black jeans", new String("Levi's"));
+      Clothing c2 = Wardrobe.parseClothing("Blue jeans,Levi's,06/01/2022,2");
+      Clothing c3 = new Clothing("black JEANS", "LEVI'S");
+      if (c1.getBrand() != c2.getBrand()) return false; // the same spelling is one shared instance
+      if (!c3.getBrand().equals("LEVI'S")) return false; // other spellings keep their case
+      if (!c1.equals(c3) || c1.hashCode() != c3.hashCode() || c1.equals(c2)) return false;
+
+      Wardrobe wardrobe = new Wardrobe(2);
+      wardrobe.addClothing(c1);
+      if (!wardrobe.getClothing("BLACK JEANS", "levi's").getDescription().equals("Black jeans")) return false;
+      try {
+        wardrobe.getClothing("Black jeans", "A brand nobody has heard of");
+        return false; // no exception was thrown
+      } catch (NoSuchElementException e) {
+        if (e.getMessage() == null || e.getMessage().isBlank()) return false;
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that the brand dictionary drops brands once no clothing uses them, and keeps the id of a brand that is
+   * still in use.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testUnusedBrandsAreDropped() {
+    try {
+      BrandDictionary dictionary = new BrandDictionary();
+      BrandDictionary.Brand kept = dictionary.intern(new String("Levi's"));
+      for (int i = 0; i < 10_000; i++) {
+        dictionary.intern("Brand " + i); // nothing keeps these
+      }
+      for (int i = 0; i < 100 && dictionary.size() > 1; i++) {
+        System.gc();
+        Thread.sleep(10);
+      }
+      if (dictionary.size() != 1) return false; // only the brand in use is left
+      if (dictionary.find("Brand 5") != null) return false;
+      if (dictionary.intern("Levi's") != kept) return false;
+      if (dictionary.intern("LEVI'S").id != kept.id) return false; // a new spelling of a brand in use
+      if (dictionary.intern("Brand 5").id == kept.id) return false; // a dropped brand comes back with a new id
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the Wardrobe's removeAllClothingMatching() method for correctness. The removed clothing should be
+   * returned in order and the remaining clothing should keep its order and still be findable.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testRemoveAllClothingMatching() {
+    try {
+      Wardrobe wardrobe = new Wardrobe(10);
+      wardrobe.addClothing(new Clothing("Blue t-shirt", "Dior", 5, LocalDate.of(2024, 12, 3)));
+      wardrobe.addClothing(new Clothing("Green t-shirt", "Lv", 1, LocalDate.of(2023, 1, 12)));
+      wardrobe.addClothing(new Clothing("Black t-shirt", "Dior", 7, LocalDate.of(2022, 12, 20)));
+      wardrobe.addClothing(new Clothing("Black jeans", "Dior", 2, LocalDate.of(2022, 6, 1)));
+      wardrobe.addClothing(new Clothing("Red scarf", "Gucci"));
+
+      Clothing[] removed = wardrobe.removeAllClothingMatching(c -> c.getBrand().equals("Dior"));
+      if (removed.length != 3 || wardrobe.size() != 2) return false;
+      if (!removed[0].getDescription().equals("Blue t-shirt")
+          || !removed[2].getDescription().equals("Black jeans")) return false;
+
+      Clothing[] array = wardrobe.getArray();
+      if (!array[0].getDescription().equals("Green t-shirt")
+          || !array[1].getDescription().equals("Red scarf") || array[2] != null) return false;
+      if (wardrobe.getClothing("red scarf", "gucci") != array[1]) return false;
+
+      // the never worn scarf and the green t-shirt worn in 2023 are both old
+      if (wardrobe.removeAllClothingWornBefore(2024, 1, 1) != 2 || wardrobe.size() != 0) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the Wardrobe's last worn date queries for correctness, including after clothing is worn and removed.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testClothingWornDateQueries() {
+    try {
+      Wardrobe wardrobe = new Wardrobe(10);
+      wardrobe.addClothing(new Clothing("Blue t-shirt", "Dior", 5, LocalDate.of(2024, 12, 3)));
+      wardrobe.addClothing(new Clothing("Green t-shirt", "Lv", 6, LocalDate.of(2023, 1, 12)));
+      wardrobe.addClothing(new Clothing("Black t-shirt", "Dior", 7, LocalDate.of(2022, 12, 20)));
+      wardrobe.addClothing(new Clothing("Black jeans", "Dior"));
+
+      Clothing[] between = wardrobe.getClothingWornBetween(LocalDate.of(2022, 12, 20),
+                                                           LocalDate.of(2023, 1, 12));
+      if (between.length != 2 || !between[0].getDescription().equals("Black t-shirt")) return false;
+
+      // never worn clothing comes first
+      Clothing[] before = wardrobe.getClothingWornBefore(LocalDate.of(2023, 1, 12));
+      if (before.length != 2 || !before[0].getDescription().equals("Black jeans")) return false;
+
+      // wearing the jeans moves them out of the never worn clothing
+      wardrobe.wearClothing(new Clothing("black jeans", "dior"), 2025, 1, 1);
+      if (wardrobe.getClothingWornBefore(LocalDate.of(2023, 1, 12)).length != 1) return false;
+      if (wardrobe.getClothingWornBetween(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 1)).length != 1)
+        return false;
+
+      wardrobe.removeClothing("Black jeans", "Dior");
+      if (wardrobe.getClothingWornBetween(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 1)).length != 0)
+        return false;
+      if (wardrobe.removeAllClothingWornBefore(2024, 1, 1) != 2) return false;
+      if (wardrobe.getClothingWornBefore(LocalDate.of(2030, 1, 1)).length != 1) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the Wardrobe's times worn queries for correctness, including after clothing is worn.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testClothingTimesWornQueries() {
+    try {
+      Wardrobe wardrobe = new Wardrobe(10);
+      wardrobe.addClothing(new Clothing("Blue t-shirt", "Dior", 5, LocalDate.of(2024, 12, 3)));
+      wardrobe.addClothing(new Clothing("Green t-shirt", "Lv", 6, LocalDate.of(2023, 1, 12)));
+      wardrobe.addClothing(new Clothing("Black t-shirt", "Dior", 7, LocalDate.of(2022, 12, 20)));
+      wardrobe.addClothing(new Clothing("Black jeans", "Dior"));
+
+      Clothing[] most = wardrobe.getMostWornClothing(2);
+      if (most.length != 2 || most[0].getNumOfTimesWorn() != 7 || most[1].getNumOfTimesWorn() != 6)
+        return false;
+      Clothing[] least = wardrobe.getLeastWornClothing(10);
+      if (least.length != 4 || !least[0].getDescription().equals("Black jeans")) return false;
+      if (wardrobe.getClothingWornFewerThan(6).length != 2) return false;
+
+      // wearing the green t-shirt twice makes it the most worn
+      Clothing green = new Clothing("green t-shirt", "lv");
+      wardrobe.wearClothing(green, 2024, 1, 1);
+      wardrobe.wearClothing(green, 2024, 1, 2);
+      if (!wardrobe.getMostWornClothing(1)[0].equals(green)) return false;
+
+      if (wardrobe.removeAllClothingWornNumTimes(7) != 2 || wardrobe.size() != 2) return false;
+      if (wardrobe.getLeastWornClothing(1)[0].getNumOfTimesWorn() != 7) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that clothing worn directly through Clothing.wearClothing() stays sorted in the wardrobe's indexes, so that
+   * the date and times worn queries and removals see the wear, and that removed clothing leaves every index.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testDirectWearsKeepIndexesSorted() {
+    try {
+      Wardrobe wardrobe = new Wardrobe(10);
+      wardrobe.addClothing(new Clothing("White shirt", "Gap"));
+      wardrobe.addClothing(new Clothing("Black jeans", "Dior", 3, LocalDate.of(1999, 5, 1)));
+
+      // the shirt is worn in 2024 without going through the wardrobe
+      wardrobe.getClothing("white shirt", "GAP").wearClothing(2024, 5, 1);
+      if (wardrobe.getClothingWornBefore(LocalDate.of(2000, 1, 1)).length != 1) return false;
+      if (wardrobe.getClothingWornBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)).length != 1)
+        return false;
+      if (wardrobe.getClothingWornFewerThan(1).length != 0) return false;
+      if (wardrobe.removeAllClothingWornBefore(2000, 1, 1) != 1 || wardrobe.size() != 1) return false;
+      if (!wardrobe.getClothing("White shirt", "Gap").getLastWornDate().equals(LocalDate.of(2024, 5, 1)))
+        return false;
+
+      // wearing the shirt more than the jeans makes it the most worn
+      Clothing shirt = wardrobe.getClothing("White shirt", "Gap");
+      wardrobe.addClothing(new Clothing("Black jeans", "Dior", 3, LocalDate.of(1999, 5, 1)));
+      for (int i = 0; i < 3; i++) {
+        shirt.wearClothing(2024, 6, 1 + i);
+      }
+      if (!wardrobe.getMostWornClothing(1)[0].equals(shirt)) return false;
+
+      // removed clothing leaves the indexes even though it was worn after it was indexed
+      wardrobe.removeClothing("White shirt", "Gap");
+      wardrobe.removeClothing("Black jeans", "Dior");
+      if (wardrobe.size() != 0) return false;
+      if (wardrobe.getLeastWornClothing(10).length != 0 || wardrobe.getMostWornClothing(10).length != 0) return false;
+      if (wardrobe.getClothingWornBefore(LocalDate.of(2100, 1, 1)).length != 0) return false;
+
+      // clothing that left the wardrobe can still be worn on its own
+      shirt.wearClothing(2025, 1, 1);
+      if (shirt.getNumOfTimesWorn() != 5 || wardrobe.getMostWornClothing(1).length != 0) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the Wardrobe's toString() and writeTo() methods for correctness, including writing a page.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testWardrobeWriteTo() {
+    try {
+      Wardrobe wardrobe = new Wardrobe(10);
+      wardrobe.addClothing(new Clothing("Blue t-shirt", "Dior", 5, LocalDate.of(2024, 12, 3)));
+      wardrobe.addClothing(new Clothing("Green t-shirt", "Lv", 16, LocalDate.of(923, 1, 12)));
+      wardrobe.addClothing(new Clothing("Black jeans", "Dior"));
+
+      String expected = "[Blue t-shirt,Dior,12/03/2024,5]\n[Green t-shirt,Lv,01/12/923,16]\n"
+          + "[Black jeans,Dior,null,0]";
+      if (!wardrobe.toString().equals(expected)) return false;
+
+      StringBuilder page = new StringBuilder();
+      if (wardrobe.writeTo(page, 1, 5) != 2) return false;
+      if (!page.toString().equals("[Green t-shirt,Lv,01/12/923,16]\n[Black jeans,Dior,null,0]")) return false;
+
+      // a page past the end of the wardrobe is empty
+      page = new StringBuilder();
+      if (wardrobe.writeTo(page, 3, 5) != 0 || page.length() != 0) return false;
+      if (!new Wardrobe(1).toString().isEmpty()) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the ClothingParser for correctness, including parsing a range of a larger text and the error codes and
+   * columns reported for badly formatted text.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testClothingParser() {
+    try {
+      ClothingParser parser = new ClothingParser();
+      StringBuilder text = new StringBuilder("Blue t-shirt,Dior,12/03/2024,5\nBlack jeans,Dior,,2\n");
+      Clothing c = parser.parse(text, 31, text.length() - 1);
+      if (c == null || parser.getErrorCode() != ClothingParser.OK) return false;
+      if (!c.getDescription().equals("Black jeans") || c.getLastWornDate() != null || c.getNumOfTimesWorn() != 2)
+        return false;
+
+      if (parser.parse("Black jeans,Dior,06/01/2024,2,35") != null
+          || parser.getErrorCode() != ClothingParser.WRONG_NUMBER_OF_FIELDS || parser.getErrorColumn() != 29)
+        return false;
+      if (parser.parse("Black jeans,Dior,2021/2,2") != null
+          || parser.getErrorCode() != ClothingParser.BAD_DATE_FORMAT || parser.getErrorColumn() != 17)
+        return false;
+      if (parser.parse("Black jeans,Dior,13/01/2021,2") != null
+          || parser.getErrorCode() != ClothingParser.INVALID_DATE) return false;
+      if (parser.parse("Black jeans,Dior,06/01/2023,2147483648") != null
+          || parser.getErrorCode() != ClothingParser.BAD_TIMES_WORN || parser.getErrorColumn() != 28)
+        return false;
+      if (parser.parse("Black jeans, ,06/01/2023,2") != null
+          || parser.getErrorCode() != ClothingParser.BLANK_BRAND || parser.getErrorColumn() != 12)
+        return false;
+
+      // parseClothing() reports the same column as the error offset
+      try {
+        Wardrobe.parseClothing("Black jeans,Dior,06/01/2023,hello");
+        return false; // no exception was thrown
+      } catch (ParseException e) {
+        if (e.getErrorOffset() != 28) return false;
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the Wardrobe's saveToFile() method for correctness. Only the clothing in the wardrobe should be written,
+   * not its spare capacity, and no temporary files should be left behind.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testSaveToFile() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("wardrobe").toFile();
+      File saveFile = new File(directory, "wardrobe.txt");
+      Files.writeString(saveFile.toPath(), "old contents\n");
+
+      Wardrobe wardrobe = new Wardrobe(10);
+      wardrobe.addClothing(new Clothing("Blue t-shirt", "Dior", 5, LocalDate.of(2024, 12, 3)));
+      wardrobe.addClothing(new Clothing("Black jeans", "Dior"));
+      if (!wardrobe.saveToFile(saveFile, 16)) return false;
+
+      List<String> lines = Files.readAllLines(saveFile.toPath());
+      if (lines.size() != 2 || !lines.get(0).equals("Blue t-shirt,Dior,12/03/2024,5")
+          || !lines.get(1).equals("Black jeans,Dior,null,0")) return false;
+      if (directory.list().length != 1) return false; // the temporary file was renamed
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the Wardrobe's loadFromFile() method for correctness. Properly formatted lines should be loaded, while
+   * badly formatted lines and duplicates should be skipped and counted in the report.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testLoadFromFile() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("wardrobe").toFile();
+      File saveFile = new File(directory, "wardrobe.txt");
+      Files.writeString(saveFile.toPath(), "Blue t-shirt,Dior,12/03/2024,5\n"
+          + "Black jeans,Dior,null,0\n"
+          + "Green t-shirt,Lv,02/30/2023,6\n" // no such date
+          + "Red scarf,Gucci,1/2/2023,1\n" // badly formatted date
+          + "Black belt,Gucci,01/02/2023,once\n" // times worn is not a number
+          + "Black jeans,Dior,01/01/2020,3\n" // duplicate
+          + "Too,many,01/01/2020,3,fields\n"
+          + " ,Gucci,01/01/2020,3\n" // blank description
+          + "Blue t-shirt,Lv,02/29/2024,-2\n");
+
+      Wardrobe wardrobe = new Wardrobe(1);
+      LoadReport report = wardrobe.loadFromFile(saveFile, 8);
+      if (report.getLinesRead() != 9 || report.getItemsLoaded() != 3) return false;
+      if (report.getRejectedLines() != 5 || report.getDuplicateLines() != 1) return false;
+      if (report.getBytesRead() != saveFile.length()) return false;
+
+      Clothing shirt = wardrobe.getClothing("Blue t-shirt", "Lv");
+      if (!shirt.getLastWornDate().equals(LocalDate.of(2024, 2, 29)) || shirt.getNumOfTimesWorn() != -2)
+        return false;
+      if (wardrobe.getClothing("black jeans", "dior").getLastWornDate() != null) return false;
+
+      // what is saved can be loaded back
+      wardrobe.saveToFile(saveFile);
+      Wardrobe loaded = new Wardrobe(1);
+      if (!loaded.loadFromFile(saveFile) || !loaded.toString().equals(wardrobe.toString())) return false;
+      if (new Wardrobe(1).loadFromFile(new File(directory, "missing.txt"))) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the Wardrobe's loadFromFileParallel() method for correctness. A file large enough to be split into
+   * several chunks should load the same clothing, in the same order, as loadFromFile().
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testLoadFromFileParallel() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("wardrobe").toFile();
+      File saveFile = new File(directory, "wardrobe.txt");
+      StringBuilder contents = new StringBuilder();
+      for (int i = 0; i < 120000; i++) {
+        if (i % 1000 == 0) {
+          contents.append("not a piece of clothing\r\n");
+        }
+        // every piece of clothing appears twice, the second time as a duplicate
+        contents.append("Shirt ").append(i % 100000).append(",Brand ").append(i % 10)
+            .append(",01/").append(10 + i % 18).append("/2024,").append(i % 5).append('\n');
+      }
+      Files.writeString(saveFile.toPath(), contents);
+
+      Wardrobe sequential = new Wardrobe(1);
+      LoadReport expected = sequential.loadFromFile(saveFile, Wardrobe.DEFAULT_BUFFER_SIZE);
+      Wardrobe parallel = new Wardrobe(1);
+      LoadReport actual = parallel.loadFromFileParallel(saveFile, 4);
+
+      if (actual.getLinesRead() != expected.getLinesRead() || actual.getItemsLoaded() != 100000) return false;
+      if (actual.getRejectedLines() != 120 || actual.getDuplicateLines() != 20000) return false;
+      if (!parallel.toString().equals(sequential.toString())) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the Wardrobe's saveBinary() and loadBinary() methods for correctness. What is saved should load back the
+   * same, and the binary file should be smaller than the text file.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testSaveAndLoadBinary() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("wardrobe").toFile();
+      File binaryFile = new File(directory, "wardrobe.wrdb");
+      File textFile = new File(directory, "wardrobe.txt");
+
+      Wardrobe wardrobe = new Wardrobe(10);
+      for (int i = 0; i < 500; i++) {
+        wardrobe.addClothing(new Clothing("Shirt " + i, "Brand " + (i % 3), i,
+                                          LocalDate.of(1900 + i % 200, 1 + i % 12, 1 + i % 28)));
+      }
+      wardrobe.addClothing(new Clothing("Black jeans ünïcödé", "Dior"));
+      if (!wardrobe.saveBinary(binaryFile) || !wardrobe.saveToFile(textFile)) return false;
+      if (!Wardrobe.isBinaryFile(binaryFile) || Wardrobe.isBinaryFile(textFile)) return false;
+      if (binaryFile.length() * 2 > textFile.length()) return false;
+
+      Wardrobe loaded = new Wardrobe(1);
+      LoadReport report = loaded.loadBinary(binaryFile);
+      if (report.getItemsLoaded() != 501 || !loaded.toString().equals(wardrobe.toString())) return false;
+
+      // loading the same file again only finds duplicates
+      report = loaded.loadBinary(binaryFile);
+      if (report.getItemsLoaded() != 0 || report.getDuplicateLines() != 501) return false;
+
+      try {
+        loaded.loadBinary(textFile);
+        return false; // no exception was thrown for a text file
+      } catch (IOException e) {
+        if (e.getMessage() == null || e.getMessage().isBlank()) return false;
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that loading a corrupt binary save file fails with an IOException, whichever value in it is wrong, rather
+   * than with another exception or by running out of memory, and that the load command reports it.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testLoadCorruptBinary() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("wardrobe").toFile();
+      File file = new File(directory, "corrupt.wrdb");
+
+      // a well formed file loads
+      Files.write(file.toPath(), binaryFile(1, 1, 5, 0, 0, WardrobeBinaryFormat.zigZag(3)));
+      Wardrobe wardrobe = new Wardrobe(1);
+      if (wardrobe.loadBinary(file).getItemsLoaded() != 1) return false;
+      if (!wardrobe.toString().equals("[Jeans,Dior,null,3]")) return false;
+
+      byte[][] corrupt = {
+          binaryFile(1, 1, 5, -1, 0, 0), // negative brand index
+          binaryFile(1, 1, 5, 1, 0, 0), // brand index past the brands
+          binaryFile(1, 1, 5, 0, WardrobeBinaryFormat.zigZag(Integer.MAX_VALUE) + 1, 0), // date out of range
+          binaryFile(1, 1, 5, 0, 0, WardrobeBinaryFormat.zigZag(-3)), // negative number of times worn
+          binaryFile(1, 1, Integer.MAX_VALUE, 0, 0, 0), // description longer than the file
+          binaryFile(Integer.MAX_VALUE, Integer.MAX_VALUE, 5, 0, 0, 0), // more brands than the file holds
+      };
+      for (byte[] bytes : corrupt) {
+        Files.write(file.toPath(), bytes);
+        try {
+          new Wardrobe(1).loadBinary(file);
+          return false; // no exception was thrown for a corrupt file
+        } catch (IOException e) {
+          if (e.getMessage() == null || e.getMessage().isBlank()) return false;
+        }
+      }
+
+      // the load command reports the corrupt file as a failed command
+      ByteArrayOutputStream results = new ByteArrayOutputStream();
+      long failed = WardrobeManager.runBatch(new Wardrobe(1),
+          new BufferedReader(new StringReader("L," + file.getPath() + "\n")),
+          new PrintStream(results, true, "UTF-8"), new PrintStream(new ByteArrayOutputStream(), true, "UTF-8"));
+      if (failed != 1 || !results.toString("UTF-8").contains("There was an issue loading from the file.")) {
+        return false;
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that a ColumnarWardrobe behaves the same as a Wardrobe when given the same operations, and that the
+   * clothing it hands out are views of the clothing in the wardrobe.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testColumnarWardrobe() {
+    try {
+      Wardrobe expected = new Wardrobe(1);
+      ColumnarWardrobe columnar = new ColumnarWardrobe(1);
+      for (int i = 0; i < 300; i++) {
+        Clothing cloth = new Clothing("Shirt " + i, "Brand " + (i % 4), i % 9,
+                                      (i % 5 == 0) ? null : LocalDate.of(2000 + i % 20, 1 + i % 12, 1 + i % 28));
+        expected.addClothing(cloth);
+        columnar.addClothing(cloth);
+      }
+      if (columnar.size() != 300 || columnar.capacity() < 300) return false;
+      try {
+        columnar.addClothing(new Clothing("SHIRT 7", "brand 3"));
+        return false; // no exception was thrown for a duplicate
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+
+      // wear some clothing both directly and through a view, then remove some
+      for (int i = 0; i < 300; i += 7) {
+        expected.wearClothing(expected.getClothing("shirt " + i, "brand " + (i % 4)), 2030, 1 + i % 12, 3);
+        columnar.getClothing("shirt " + i, "brand " + (i % 4)).wearClothing(2030, 1 + i % 12, 3);
+      }
+      for (int i = 1; i < 300; i += 10) {
+        expected.removeClothing("Shirt " + i, "Brand " + (i % 4));
+        columnar.removeClothing("Shirt " + i, "Brand " + (i % 4));
+      }
+      if (!columnar.toString().equals(expected.toString())) return false;
+
+      // the queries find the same clothing
+      LocalDate date = LocalDate.of(2010, 6, 1);
+      if (!sameClothing(columnar.getClothingWornBefore(date), expected.getClothingWornBefore(date))) return false;
+      if (!sameClothing(columnar.getClothingWornBetween(date, LocalDate.of(2015, 1, 1)),
+                        expected.getClothingWornBetween(date, LocalDate.of(2015, 1, 1)))) return false;
+      if (!sameClothing(columnar.getClothingWornFewerThan(4), expected.getClothingWornFewerThan(4))) return false;
+      if (columnar.getMostWornClothing(5).length != 5 || columnar.getLeastWornClothing(400).length != 270) {
+        return false;
+      }
+      if (columnar.getMostWornClothing(1)[0].getNumOfTimesWorn()
+          != expected.getMostWornClothing(1)[0].getNumOfTimesWorn()) return false;
+      // the first k pieces of clothing are the same whether all of them or only k are asked for
+      Clothing[] allMost = columnar.getMostWornClothing(columnar.size());
+      Clothing[] allLeast = columnar.getLeastWornClothing(columnar.size());
+      for (int k : new int[] {0, 1, 5, 50, columnar.size() - 1}) {
+        if (!Arrays.toString(columnar.getMostWornClothing(k)).equals(Arrays.toString(Arrays.copyOf(allMost, k))))
+          return false;
+        if (!Arrays.toString(columnar.getLeastWornClothing(k)).equals(Arrays.toString(Arrays.copyOf(allLeast, k))))
+          return false;
+      }
+      for (int i = 1; i < allMost.length; i++) {
+        if (allMost[i].getNumOfTimesWorn() > allMost[i - 1].getNumOfTimesWorn()) return false;
+      }
+
+      // a view is invalid once its clothing is removed, and the purges match
+      Clothing view = columnar.getClothing("Shirt 2", "Brand 2");
+      if (columnar.removeAllClothingWornBefore(2010, 6, 1) != expected.removeAllClothingWornBefore(2010, 6, 1)) {
+        return false;
+      }
+      try {
+        view.getNumOfTimesWorn();
+        return false; // no exception was thrown for a removed piece of clothing
+      } catch (IllegalStateException e) {
+        // expected
+      }
+      if (columnar.removeAllClothingWornNumTimes(3) != expected.removeAllClothingWornNumTimes(3)) return false;
+      Clothing[] removed = columnar.removeAllClothingMatching(c -> c.getDescription().endsWith("5"));
+      if (!sameClothing(removed, expected.removeAllClothingMatching(c -> c.getDescription().endsWith("5")))) {
+        return false;
+      }
+      if (!columnar.toString().equals(expected.toString())) return false;
+
+      // freed slots are reused and the copies that were removed can be added back
+      for (Clothing cloth : removed) {
+        columnar.addClothing(cloth);
+        expected.addClothing(cloth);
+      }
+      if (!columnar.toString().equals(expected.toString())) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that Clothing keeps its last worn date as an epoch day correctly: the conversions agree with LocalDate,
+   * and the date reads and prints the same as before.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testClothingEpochDays() {
+    try {
+      // the conversions agree with LocalDate on every day of several centuries and around the era boundaries
+      for (LocalDate date = LocalDate.of(1599, 12, 1); date.getYear() < 2401; date = date.plusDays(1)) {
+        int epochDay = EpochDays.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+        if (epochDay != date.toEpochDay() || !date.equals(EpochDays.toDate(epochDay))) return false;
+        StringBuilder printed = new StringBuilder();
+        EpochDays.appendDate(printed, epochDay);
+        if (!printed.toString().equals(String.format("%02d/%02d/%d", date.getMonthValue(), date.getDayOfMonth(),
+                                                     date.getYear()))) return false;
+      }
+      try {
+        EpochDays.of(2023, 2, 29);
+        return false; // no exception was thrown for a day that does not exist
+      } catch (java.time.DateTimeException e) {
+        // expected
+      }
+
+      Clothing cloth = new Clothing("Black jeans", "Dior");
+      if (cloth.getLastWornEpochDay() != Clothing.NEVER_WORN || cloth.getLastWornDate() != null) return false;
+      cloth.wearClothing(2024, 2, 29);
+      if (cloth.getLastWornEpochDay() != LocalDate.of(2024, 2, 29).toEpochDay()) return false;
+      if (!cloth.getLastWornDate().equals(LocalDate.of(2024, 2, 29))) return false;
+      if (!cloth.toString().equals("Black jeans,Dior,02/29/2024,1")) return false;
+      Clothing old = new Clothing("Coat", "Gucci", 3, LocalDate.of(1, 1, 1));
+      if (!old.toString().equals("Coat,Gucci,01/01/1,3")) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that wearing clothing on a date before its last worn date counts the wear but keeps the later date, for a
+   * piece of clothing on its own and for clothing in both kinds of wardrobe.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testWearKeepsLatestDate() {
+    try {
+      Clothing cloth = new Clothing("Black jeans", "Dior");
+      cloth.wearClothing(2024, 6, 25);
+      cloth.wearClothing(2023, 1, 1);
+      if (cloth.getNumOfTimesWorn() != 2 || !cloth.getLastWornDate().equals(LocalDate.of(2024, 6, 25))) return false;
+
+      for (Wardrobe wardrobe : new Wardrobe[] {new Wardrobe(2), new ColumnarWardrobe(2)}) {
+        wardrobe.addClothing(new Clothing("Black jeans", "Dior"));
+        wardrobe.addClothing(new Clothing("White shirt", "Gap"));
+        Clothing jeans = wardrobe.getClothing("Black jeans", "Dior");
+        wardrobe.wearClothing(jeans, 2024, 6, 25);
+        wardrobe.wearClothing(jeans, 2020, 1, 1);
+        if (jeans.getNumOfTimesWorn() != 2 || !jeans.getLastWornDate().equals(LocalDate.of(2024, 6, 25))) {
+          return false;
+        }
+        // the jeans were last worn in 2024, so only the shirt was worn before 2021
+        Clothing[] before = wardrobe.getClothingWornBefore(LocalDate.of(2021, 1, 1));
+        if (before.length != 1 || !before[0].getDescription().equals("White shirt")) return false;
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests the Wardrobe's wearAll() method for correctness, for both kinds of wardrobe. The wears of each piece of
+   * clothing should be grouped ignoring case, counted and given the latest date, and clothing that is not in the
+   * wardrobe should be reported.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testWearAll() {
+    try {
+      for (Wardrobe wardrobe : new Wardrobe[] {new Wardrobe(2), new ColumnarWardrobe(2)}) {
+        wardrobe.addClothing(new Clothing("Black jeans", "Dior", 1, LocalDate.of(2024, 3, 1)));
+        wardrobe.addClothing(new Clothing("White shirt", "Gap"));
+        List<WearEvent> events = List.of(
+            new WearEvent("black jeans", "DIOR", 2024, 5, 1),
+            new WearEvent("Blue hat", "Nike", 2024, 5, 2),
+            new WearEvent("Black Jeans", "Dior", 2024, 2, 1),
+            new WearEvent("White shirt", "Gap", LocalDate.of(2024, 4, 1)),
+            new WearEvent("BLUE HAT", "nike", 2024, 5, 3),
+            new WearEvent("black jeans", "dior", 2024, 4, 30));
+        List<WearOutcome> outcomes = wardrobe.wearAll(events);
+        if (outcomes.size() != 3) return false;
+
+        // the outcomes are in the order each piece of clothing first appeared
+        WearOutcome jeans = outcomes.get(0);
+        if (!jeans.isKnown() || jeans.getWears() != 3 || !jeans.getLatestDate().equals(LocalDate.of(2024, 5, 1))) {
+          return false;
+        }
+        if (!jeans.getDescription().equals("black jeans") || !jeans.getClothing().getBrand().equals("Dior")) {
+          return false;
+        }
+        WearOutcome hat = outcomes.get(1);
+        if (hat.isKnown() || hat.getClothing() != null || hat.getWears() != 2) return false;
+        if (!outcomes.get(2).isKnown() || outcomes.get(2).getWears() != 1) return false;
+
+        Clothing worn = wardrobe.getClothing("Black jeans", "Dior");
+        if (worn.getNumOfTimesWorn() != 4 || !worn.getLastWornDate().equals(LocalDate.of(2024, 5, 1))) return false;
+        // the indexes were updated along with the clothing
+        if (wardrobe.getMostWornClothing(1)[0].getNumOfTimesWorn() != 4) return false;
+        if (wardrobe.getClothingWornBefore(LocalDate.of(2024, 4, 2)).length != 1) return false;
+
+        // a stream of events works the same way
+        outcomes = wardrobe.wearAll(events.stream().filter(e -> e.getBrand().equalsIgnoreCase("gap")));
+        if (outcomes.size() != 1 || wardrobe.getClothing("White shirt", "Gap").getNumOfTimesWorn() != 2) return false;
+      }
+
+      try {
+        new WearEvent("Black jeans", "Dior", 2024, 13, 1);
+        return false; // no exception was thrown for a bad month
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that a WardrobeJournal recovers every change made through it after the wardrobe is thrown away, drops a
+   * torn last line, and compacts itself into a snapshot.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testWardrobeJournal() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("journal").toFile();
+      Wardrobe wardrobe = new Wardrobe(2);
+      WardrobeJournal journal = WardrobeJournal.open(directory, wardrobe, 1000);
+      if (journal.getReplayedChanges() != 0 || wardrobe.size() != 0) return false;
+      journal.addClothing(new Clothing("Black jeans", "Dior", 2, LocalDate.of(2024, 1, 1)));
+      journal.addClothing(new Clothing("White shirt", "Gap"));
+      journal.addClothing(new Clothing("Blue hat", "Nike"));
+      journal.addClothing(new Clothing("Red socks", "Gap"));
+      journal.wearClothing(new Clothing("black jeans", "DIOR"), 2024, 5, 1);
+      journal.wearClothing(new Clothing("Green scarf", "Gap"), 2024, 5, 1); // not in the wardrobe, not journaled
+      journal.wearAll(List.of(new WearEvent("White shirt", "Gap", 2024, 4, 1),
+                              new WearEvent("white shirt", "gap", 2024, 4, 3)));
+      journal.removeClothing("Blue hat", "Nike");
+      journal.removeAllClothingWornBefore(2024, 4, 2); // removes the never worn socks
+      journal.removeAllClothingWornNumTimes(1);
+      try {
+        journal.addClothing(new Clothing("White shirt", "Gap"));
+        return false; // no exception was thrown for a duplicate
+      } catch (IllegalArgumentException e) {
+        // expected, and nothing was journaled
+      }
+      String expected = wardrobe.toString();
+      journal.close();
+
+      // a line that was only partly written when the program stopped is dropped
+      Files.writeString(new File(directory, "wardrobe-0.journal").toPath(), "0badc0de,W,1,19",
+                        StandardOpenOption.APPEND);
+      Wardrobe recovered = new ColumnarWardrobe(1);
+      journal = WardrobeJournal.open(directory, recovered, 1000);
+      if (!recovered.toString().equals(expected) || recovered.size() != 2) return false;
+      if (journal.getReplayedChanges() != 9 || journal.getSkippedChanges() != 1) return false;
+      Clothing jeans = recovered.getClothing("Black jeans", "Dior");
+      if (jeans.getNumOfTimesWorn() != 3 || !jeans.getLastWornDate().equals(LocalDate.of(2024, 5, 1))) return false;
+      if (recovered.getClothing("White shirt", "Gap").getNumOfTimesWorn() != 2) return false;
+
+      // the journal is compacted into a snapshot, and later changes go to the journal after it
+      journal.checkpoint();
+      journal.wearClothing(jeans, 2024, 6, 1);
+      journal.close();
+      if (!new File(directory, "wardrobe-1.snapshot").exists()
+          || new File(directory, "wardrobe-0.journal").exists()) return false;
+      Wardrobe compacted = new Wardrobe(1);
+      journal = WardrobeJournal.open(directory, compacted, 2);
+      if (journal.getReplayedChanges() != 1 || compacted.getClothing("Black jeans", "Dior").getNumOfTimesWorn() != 4)
+        return false;
+
+      // enough changes compact the journal on their own
+      journal.addClothing(new Clothing("Blue hat", "Nike"));
+      journal.close();
+      if (!new File(directory, "wardrobe-2.snapshot").exists()) return false;
+      Wardrobe reopened = new Wardrobe(1);
+      journal = WardrobeJournal.open(directory, reopened);
+      journal.close();
+      if (journal.getReplayedChanges() != 0 || !reopened.toString().equals(compacted.toString())) return false;
+      try {
+        journal.removeClothing("Blue hat", "Nike");
+        return false; // no exception was thrown for a closed journal
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that saveIncremental() only appends the changed clothing to a delta file, that loadIncremental() reads the
+   * base file and its delta back to the same wardrobe, and that the delta is merged into the base file once it grows
+   * past the merge ratio.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testSaveIncremental() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("wardrobe").toFile();
+      File base = new File(directory, "wardrobe.txt");
+      File delta = new File(directory, "wardrobe.txt.delta");
+      for (Wardrobe wardrobe : new Wardrobe[] {new Wardrobe(4), new ColumnarWardrobe(4)}) {
+        for (int i = 0; i < 100; i++) {
+          wardrobe.addClothing(new Clothing("Shirt " + i, "Brand " + (i % 3)));
+        }
+        // plain saves do not start tracking changes, only incremental saves do
+        if (!wardrobe.saveToFile(base) || wardrobe.isTrackingChanges()) return false;
+        // the first save has no base to add to, so it is a full save
+        if (!wardrobe.saveIncremental(base) || !base.exists() || delta.exists()) return false;
+        if (!wardrobe.isTrackingChanges()) return false;
+        long baseLength = base.length();
+
+        // only the changes are written, next to the untouched base file
+        wardrobe.wearClothing(wardrobe.getClothing("Shirt 1", "Brand 1"), 2024, 5, 1);
+        wardrobe.wearClothing(wardrobe.getClothing("Shirt 2", "Brand 2"), 2024, 5, 3);
+        wardrobe.removeClothing("Shirt 3", "Brand 0");
+        wardrobe.addClothing(new Clothing("Blue hat", "Nike", 4, LocalDate.of(2023, 1, 1)));
+        if (!wardrobe.saveIncremental(base) || base.length() != baseLength || !delta.exists()) return false;
+        if (Files.readAllLines(delta.toPath()).size() != 5) return false; // the header and four entries
+        // once more clothing changed than is left, a full save is cheaper
+        wardrobe.removeAllClothingWornNumTimes(1);
+        if (!wardrobe.saveIncremental(base) || delta.exists()) return false;
+        baseLength = base.length();
+        wardrobe.addClothing(new Clothing("Shirt 3", "Brand 0", 7, LocalDate.of(2022, 1, 1)));
+        if (!wardrobe.saveIncremental(base, 1.0) || base.length() != baseLength || !delta.exists()) return false;
+
+        // a torn last entry is ignored
+        Files.writeString(delta.toPath(), "+Torn,Nik", StandardOpenOption.APPEND);
+        Wardrobe loaded = new Wardrobe(1);
+        loaded.loadIncremental(base);
+        if (!loaded.toString().equals(wardrobe.toString()) || loaded.size() != 4) return false;
+
+        // the loaded wardrobe saves only its own changes, and merges them once there are too many
+        loaded.wearClothing(loaded.getClothing("Blue hat", "Nike"), 2024, 6, 1);
+        if (!loaded.saveIncremental(base, 1.0) || !delta.exists()) return false;
+        loaded.wearClothing(loaded.getClothing("Shirt 3", "Brand 0"), 2024, 6, 1);
+        if (!loaded.saveIncremental(base, 0.5) || delta.exists()) return false;
+        Wardrobe merged = new Wardrobe(1);
+        merged.loadFromFile(base, Wardrobe.DEFAULT_BUFFER_SIZE);
+        if (!merged.toString().equals(loaded.toString())) return false;
+        if (!base.delete()) return false;
+      }
+
+      // the delta puts added and added again clothing back in the order it has in the wardrobe
+      for (Wardrobe wardrobe : new Wardrobe[] {new Wardrobe(4), new ColumnarWardrobe(4)}) {
+        wardrobe.addClothing(new Clothing("Base", "Gap"));
+        wardrobe.addClothing(new Clothing("Other base", "Gap"));
+        if (!wardrobe.saveIncremental(base, 10.0)) return false;
+        wardrobe.wearClothing(wardrobe.getClothing("Other base", "Gap"), 2024, 5, 1);
+        for (int i = 0; i < 8; i++) {
+          wardrobe.addClothing(new Clothing("Item" + i, "Nike"));
+        }
+        wardrobe.removeClothing("Base", "Gap");
+        wardrobe.addClothing(new Clothing("Base", "Gap"));
+        wardrobe.removeClothing("Item3", "Nike");
+        if (!wardrobe.saveIncremental(base, 10.0) || !delta.exists()) return false;
+        Wardrobe loaded = new Wardrobe(1);
+        loaded.loadIncremental(base);
+        if (!loaded.toString().equals(wardrobe.toString())) return false;
+        if (!base.delete() || !delta.delete()) return false;
+      }
+
+      try {
+        new Wardrobe(1).saveIncremental(base, -1);
+        return false; // no exception was thrown for a negative ratio
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that a MappedWardrobe stores every change in its file as it is made, so that opening the file again gives
+   * back the same wardrobe in the same order, and that removed clothing frees its record for the next addition.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testMappedWardrobe() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("wardrobe").toFile();
+      File store = new File(directory, "wardrobe.wrdm");
+      String expected;
+      try (MappedWardrobe wardrobe = MappedWardrobe.open(store)) {
+        if (wardrobe.size() != 0) return false;
+        for (int i = 0; i < 300; i++) {
+          wardrobe.addClothing(new Clothing("Shirt " + i, "Brand " + (i % 3), i % 5,
+                                            LocalDate.of(2020, 1, 1 + i % 28)));
+        }
+        wardrobe.addClothing(new Clothing("Black jeans ünïcödé", "Dior"));
+        wardrobe.wearClothing(wardrobe.getClothing("Shirt 7", "Brand 1"), 2024, 5, 1);
+        wardrobe.getClothing("Shirt 8", "Brand 2").wearClothing(2024, 5, 2); // views wear in place too
+        wardrobe.removeClothing("Shirt 0", "Brand 0");
+        if (wardrobe.removeAllClothingWornNumTimes(1) != 60) return false;
+        expected = wardrobe.toString();
+      }
+
+      long length = store.length();
+      try (MappedWardrobe wardrobe = MappedWardrobe.open(store)) {
+        if (!wardrobe.toString().equals(expected) || wardrobe.size() != 240) return false;
+        Clothing worn = wardrobe.getClothing("shirt 8", "brand 2");
+        if (worn.getNumOfTimesWorn() != 4 || !worn.getLastWornDate().equals(LocalDate.of(2024, 5, 2))) return false;
+
+        // new clothing goes at the end of the wardrobe, in the records freed by the removals
+        wardrobe.addClothing(new Clothing("Blue hat", "Nike", 1, LocalDate.of(2023, 2, 3)));
+        wardrobe.flush();
+        expected = wardrobe.toString();
+      }
+      if (store.length() != length) return false;
+      try (MappedWardrobe wardrobe = MappedWardrobe.open(store)) {
+        if (!wardrobe.toString().equals(expected)) return false;
+        if (!wardrobe.clothingAt(wardrobe.size() - 1).getDescription().equals("Blue hat")) return false;
+      }
+
+      // a file that is not a store is rejected
+      File textFile = new File(directory, "wardrobe.txt");
+      Files.writeString(textFile.toPath(), "Black jeans,Dior,null,0\n".repeat(10));
+      try {
+        MappedWardrobe.open(textFile);
+        return false; // no exception was thrown for a text file
+      } catch (IOException e) {
+        // expected
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that the wardrobe operations are counted and timed in the metrics of the wardrobe, that the percentiles
+   * of a snapshot are ordered and within the histogram's accuracy, and that reset() forgets everything counted.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testWardrobeMetrics() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("wardrobe").toFile();
+      File saveFile = new File(directory, "wardrobe.txt");
+      for (Wardrobe wardrobe : new Wardrobe[] {new Wardrobe(10), new ColumnarWardrobe(10)}) {
+        WardrobeMetrics metrics = new WardrobeMetrics();
+        wardrobe.setMetrics(metrics);
+        for (int i = 0; i < 20; i++) {
+          wardrobe.addClothing(new Clothing("Shirt " + i, "Gap", i % 4, LocalDate.of(2021, 1 + i % 12, 1)));
+        }
+        wardrobe.wearClothing(wardrobe.getClothing("Shirt 3", "Gap"), 2024, 1, 1);
+        try {
+          wardrobe.getClothing("Blue hat", "Gap");
+          return false; // no exception was thrown for clothing that is not in the wardrobe
+        } catch (NoSuchElementException e) {
+          // expected, and still counted
+        }
+        wardrobe.removeClothing("Shirt 0", "Gap");
+        wardrobe.removeAllClothingWornNumTimes(1);
+        wardrobe.removeAllClothingWornBefore(2021, 3, 1);
+        if (!wardrobe.saveToFile(saveFile)) return false;
+        new Wardrobe(10).loadFromFile(saveFile); // a different wardrobe, recording to the global metrics
+
+        WardrobeMetrics.Snapshot snapshot = metrics.snapshot();
+        if (snapshot.getCount(WardrobeMetrics.ADD) != 20 || snapshot.getCount(WardrobeMetrics.GET) != 2
+            || snapshot.getCount(WardrobeMetrics.WEAR) != 1 || snapshot.getCount(WardrobeMetrics.REMOVE) != 1
+            || snapshot.getCount(WardrobeMetrics.REMOVE_WORN_BEFORE) != 1
+            || snapshot.getCount(WardrobeMetrics.REMOVE_WORN_NUM_TIMES) != 1
+            || snapshot.getCount(WardrobeMetrics.SAVE) != 1 || snapshot.getCount(WardrobeMetrics.LOAD) != 0) {
+          return false;
+        }
+        long p50 = snapshot.getPercentileNanos(WardrobeMetrics.ADD, 50);
+        long p99 = snapshot.getPercentileNanos(WardrobeMetrics.ADD, 99);
+        long max = snapshot.getMaxNanos(WardrobeMetrics.ADD);
+        if (p50 <= 0 || p50 > p99 || p99 > max || snapshot.getPercentileNanos(WardrobeMetrics.ADD, 100) != max) {
+          return false;
+        }
+        if (snapshot.getThroughput(WardrobeMetrics.ADD) <= 0 || !snapshot.toString().contains("removeWornBefore")) {
+          return false;
+        }
+        metrics.reset();
+        if (metrics.snapshot().getCount(WardrobeMetrics.ADD) != 0
+            || metrics.snapshot().getPercentileNanos(WardrobeMetrics.ADD, 99) != 0) {
+          return false;
+        }
+      }
+
+      // every time falls in a bucket whose upper bound is at most an eighth above it
+      for (long nanos = 0; nanos < 1 << 20; nanos += 1 + nanos / 100) {
+        long bound = WardrobeMetrics.upperBound(WardrobeMetrics.bucketOf(nanos));
+        if (bound < nanos || bound > nanos + nanos / 8) return false;
+      }
+
+      try {
+        new Wardrobe(10).setMetrics(null);
+        return false; // no exception was thrown for null metrics
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that loads, saves and bulk removals are recorded as flight recorder events with their counts once a
+   * recording enables them, and that they are not recorded by a recording that does not.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testWardrobeEvents() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("wardrobe").toFile();
+      File saveFile = new File(directory, "wardrobe.txt");
+      File recordingFile = new File(directory, "wardrobe.jfr");
+      Files.writeString(saveFile.toPath(), "Black jeans,Dior,null,0\nnot clothing\nBlue hat,Nike,03/04/2022,2\n");
+
+      try (Recording recording = new Recording()) {
+        recording.enable("wardrobe.Load");
+        recording.enable("wardrobe.Save");
+        recording.enable("wardrobe.RemoveAll");
+        recording.start();
+        Wardrobe wardrobe = new ColumnarWardrobe(10);
+        wardrobe.loadFromFile(saveFile, Wardrobe.DEFAULT_BUFFER_SIZE);
+        if (!wardrobe.saveToFile(saveFile)) return false;
+        wardrobe.removeAllClothingWornBefore(2022, 1, 1);
+        new Wardrobe(10).removeAllClothingWornNumTimes(3);
+        recording.stop();
+        recording.dump(recordingFile.toPath());
+      }
+      int events = 0;
+      for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile.toPath())) {
+        switch (event.getEventType().getName()) {
+          case "wardrobe.Load":
+            if (event.getLong("linesRead") != 3 || event.getLong("itemsLoaded") != 2
+                || event.getLong("rejectedLines") != 1 || !event.getBoolean("succeeded")) return false;
+            break;
+          case "wardrobe.Save":
+            if (event.getLong("itemsSaved") != 2 || event.getLong("bytes") != saveFile.length()) return false;
+            break;
+          case "wardrobe.RemoveAll":
+            if (event.getString("criterion").equals("wornBefore")) {
+              if (!event.getString("threshold").equals("2022-01-01") || event.getLong("itemsRemoved") != 1
+                  || event.getLong("itemsRemaining") != 1) return false;
+            } else if (!event.getString("threshold").equals("3") || event.getLong("itemsRemoved") != 0) {
+              return false;
+            }
+            break;
+          default:
+            continue;
+        }
+        events++;
+      }
+      if (events != 4) return false;
+
+      // the events are disabled unless a recording enables them
+      try (Recording recording = new Recording()) {
+        recording.start();
+        new Wardrobe(10).loadFromFile(saveFile, Wardrobe.DEFAULT_BUFFER_SIZE);
+        recording.stop();
+        recording.dump(recordingFile.toPath());
+      }
+      for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile.toPath())) {
+        if (event.getEventType().getName().startsWith("wardrobe.")) return false;
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that the batch mode of WardrobeManager runs every command in a script like the text interface would,
+   * skipping blank lines and comments, stopping at a quit command, and counting the commands that failed.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testBatchMode() {
+    try {
+      String script = "A,Black jeans,Dior\n"
+          + "\n"
+          + "# a comment\n"
+          + "A,Blue hat,Nike\n"
+          + "W,black jeans,dior,2024,3,4\n"
+          + "F,Blue hat,Nike\n"
+          + "F,Red socks,Gap\n" // not in the wardrobe
+          + "R,Blue hat,Nike\n"
+          + "X\n" // not a command
+          + "W,Black jeans,Dior,year,3,4\n" // not a date
+          + "Q\n"
+          + "A,Never added,Gap\n"; // after the quit command
+      Wardrobe wardrobe = new Wardrobe(10);
+      ByteArrayOutputStream results = new ByteArrayOutputStream();
+      ByteArrayOutputStream summary = new ByteArrayOutputStream();
+      long failed = WardrobeManager.runBatch(wardrobe, new BufferedReader(new StringReader(script)),
+          new PrintStream(results, true, "UTF-8"), new PrintStream(summary, true, "UTF-8"));
+      if (failed != 3) return false;
+      if (!wardrobe.toString().equals("[Black jeans,Dior,03/04/2024,1]")) return false;
+      String printed = results.toString("UTF-8");
+      if (!printed.contains("Blue hat,Nike,null,0") || !printed.contains("That piece of clothing is not in the")
+          || printed.contains("Never added")) {
+        return false;
+      }
+      if (!summary.toString("UTF-8").startsWith("Ran 9 commands (3 failed)")) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that the batch mode of WardrobeManager reports dates that do not exist and commands that throw as failed,
+   * and keeps running the rest of the script.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testBatchModeBadCommands() {
+    try {
+      String script = "A,Black jeans,Dior\n"
+          + "W,Black jeans,Dior,2024,2,30\n" // February 30th does not exist
+          + "O,2024,2,30\n"
+          + "O,2024,13,1\n"
+          + "I,5\n" // throws in this wardrobe
+          + "W,Black jeans,Dior,2024,3,4\n";
+      Wardrobe wardrobe = new Wardrobe(10) {
+        @Override
+        public int removeAllClothingWornNumTimes(int threshold) {
+          throw new IllegalStateException("The wardrobe is broken.");
+        }
+      };
+      ByteArrayOutputStream results = new ByteArrayOutputStream();
+      ByteArrayOutputStream summary = new ByteArrayOutputStream();
+      long failed = WardrobeManager.runBatch(wardrobe, new BufferedReader(new StringReader(script)),
+          new PrintStream(results, true, "UTF-8"), new PrintStream(summary, true, "UTF-8"));
+      if (failed != 4) return false;
+      if (!wardrobe.toString().equals("[Black jeans,Dior,03/04/2024,1]")) return false;
+      String printed = results.toString("UTF-8");
+      if (printed.split("Not a valid date\\.", -1).length != 4) return false; // printed for each of the 3 dates
+      if (!printed.contains("There was an issue running the command.")) return false;
+      if (!summary.toString("UTF-8").startsWith("Ran 6 commands (4 failed)")) return false;
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Tests that TenantWardrobeManager keeps a separate wardrobe for each tenant, keeps no more of them loaded than
+   * allowed by saving and dropping the least recently used ones, loads them back from their files when they are
+   * needed again, and saves every changed wardrobe when it is closed.
+   *
+   * @return true if all tests pass, false otherwise
+   */
+  public static boolean testTenantWardrobeManager() {
+    File directory = null;
+    try {
+      directory = Files.createTempDirectory("tenants").toFile();
+      try (TenantWardrobeManager manager = TenantWardrobeManager.open(directory, 2, 3)) {
+        for (int t = 0; t < 20; t++) {
+          int tenant = t;
+          manager.update("user-" + t, wardrobe -> {
+            for (int i = 0; i <= tenant; i++) {
+              wardrobe.addClothing(new Clothing("Shirt " + i, "Gap"));
+            }
+            return null;
+          }).join();
+        }
+        if (manager.getLoadedCount() > 6 || manager.getEvictions() != 20 - manager.getLoadedCount()) return false;
+        if (manager.getLoads() != 20) return false;
+
+        // an evicted wardrobe is loaded back from its file, names are compared ignoring case
+        if (manager.query("USER-0", Wardrobe::size).join() != 1) return false;
+        if (manager.query("user-7", wardrobe -> wardrobe.getClothing("Shirt 7", "Gap").getNumOfTimesWorn()).join()
+            != 0) return false;
+        manager.update("user-7", wardrobe -> {
+          wardrobe.wearClothing(new Clothing("Shirt 7", "Gap"), 2024, 2, 3);
+          return null;
+        }).join();
+
+        // a failed operation fails its future and nothing else
+        try {
+          manager.query("user-1", wardrobe -> wardrobe.getClothing("Blue hat", "Nike")).join();
+          return false; // no exception was thrown for clothing that is not in the wardrobe
+        } catch (CompletionException e) {
+          if (!(e.getCause() instanceof NoSuchElementException)) return false;
+        }
+        try {
+          manager.query("../user-1", Wardrobe::size);
+          return false; // no exception was thrown for a name that is not a safe file name
+        } catch (IllegalArgumentException e) {
+          // expected
+        }
+      }
+
+      // every wardrobe was saved, including the changed ones that were still loaded
+      if (directory.list().length != 20) return false;
+      try (TenantWardrobeManager manager = TenantWardrobeManager.open(directory, 3, 1)) {
+        for (int t = 0; t < 20; t++) {
+          if (manager.query("user-" + t, Wardrobe::size).join() != t + 1) return false;
+        }
+        if (!manager.query("user-7", Wardrobe::toString).join().contains("Shirt 7,Gap,02/03/2024,1")) return false;
+      }
+      TenantWardrobeManager closed = TenantWardrobeManager.open(directory, 1, 1);
+      closed.close();
+      try {
+        closed.query("user-7", Wardrobe::size);
+        return false; // no exception was thrown for a closed manager
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    } catch (Exception e) { // any other type of exception is not good
+      e.printStackTrace();
+      return false;
+    } finally {
+      deleteDirectory(directory);
+    }
+
+    return true; // all tests passed
+  }
+
+  /**
+   * Checks that two arrays hold the same pieces of clothing with the same information, in any order.
+   *
+   * @param actual - the clothing found
+   * @param expected - the clothing that should have been found
+   * @return true if the arrays hold the same clothing, false otherwise
+   */
+  private static boolean sameClothing(Clothing[] actual, Clothing[] expected) {
+    if (actual.length != expected.length) return false;
+    HashSet<String> expectedStrings = new HashSet<>();
+    for (Clothing cloth : expected) expectedStrings.add(cloth.toString());
+    for (Clothing cloth : actual) {
+      if (!expectedStrings.contains(cloth.toString())) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Builds a binary save file holding the brand Dior and then the given values for the description "Jeans", where
+   * the description is cut short if it is said to be longer. The values are written as they are, so the file may be
+   * corrupt.
+   *
+   * @param count - the number of pieces of clothing in the header
+   * @param brandCount - the number of brands in the header
+   * @param length - the length of the description
+   * @param brandId - the index of the brand of the description
+   * @param date - the encoded last worn date
+   * @param timesWorn - the encoded number of times worn
+   * @return the bytes of the file
+   * @throws IOException - if the bytes cannot be written
+   */
+  private static byte[] binaryFile(int count, int brandCount, int length, int brandId, int date, int timesWorn)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(WardrobeBinaryFormat.MAGIC);
+    out.write(WardrobeBinaryFormat.VERSION);
+    WardrobeBinaryFormat.writeVarInt(out, count);
+    WardrobeBinaryFormat.writeVarInt(out, brandCount);
+    WardrobeBinaryFormat.writeVarInt(out, 4);
+    out.write("Dior".getBytes("UTF-8"));
+    WardrobeBinaryFormat.writeVarInt(out, length);
+    out.write("Jeans".getBytes("UTF-8"), 0, Math.min(length, 5));
+    WardrobeBinaryFormat.writeVarInt(out, brandId);
+    WardrobeBinaryFormat.writeVarInt(out, date);
+    WardrobeBinaryFormat.writeVarInt(out, timesWorn);
+    return out.toByteArray();
+  }
+
+  /**
+   * Deletes a temporary directory used by a test, along with the files in it.
+   *
+   * @param directory - the directory to delete, may be null
+   */
+  private static void deleteDirectory(File directory) {
+    if (directory == null) return;
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File f : files) f.delete();
+    }
+    directory.delete();
+  }
+
   /**
    * Runs all testing methods and prints out their results.
    *
@@ -608,8 +2010,81 @@ public class WardrobeManagerTester {
     boolean test15 = testParseClothing();
     System.out.println("testParseClothing(): " + (test15 ? "pass" : "FAIL"));
 
+    boolean test16 = testClothingIndexIgnoresCase();
+    System.out.println("testClothingIndexIgnoresCase(): " + (test16 ? "pass" : "FAIL"));
+
+    boolean test17 = testRemoveAllClothingMatching();
+    System.out.println("testRemoveAllClothingMatching(): " + (test17 ? "pass" : "FAIL"));
+
+    boolean test18 = testClothingWornDateQueries();
+    System.out.println("testClothingWornDateQueries(): " + (test18 ? "pass" : "FAIL"));
+
+    boolean test19 = testClothingTimesWornQueries();
+    System.out.println("testClothingTimesWornQueries(): " + (test19 ? "pass" : "FAIL"));
+
+    boolean test20 = testWardrobeWriteTo();
+    System.out.println("testWardrobeWriteTo(): " + (test20 ? "pass" : "FAIL"));
+
+    boolean test21 = testSaveToFile();
+    System.out.println("testSaveToFile(): " + (test21 ? "pass" : "FAIL"));
+
+    boolean test22 = testLoadFromFile();
+    System.out.println("testLoadFromFile(): " + (test22 ? "pass" : "FAIL"));
+
+    boolean test23 = testLoadFromFileParallel();
+    System.out.println("testLoadFromFileParallel(): " + (test23 ? "pass" : "FAIL"));
+
+    boolean test24 = testClothingParser();
+    System.out.println("testClothingParser(): " + (test24 ? "pass" : "FAIL"));
+
+    boolean test25 = testSaveAndLoadBinary();
+    System.out.println("testSaveAndLoadBinary(): " + (test25 ? "pass" : "FAIL"));
+
+    boolean test26 = testBrandsAreShared();
+    System.out.println("testBrandsAreShared(): " + (test26 ? "pass" : "FAIL"));
+
+    boolean test27 = testColumnarWardrobe();
+    System.out.println("testColumnarWardrobe(): " + (test27 ? "pass" : "FAIL"));
+
+    boolean test28 = testClothingEpochDays();
+    System.out.println("testClothingEpochDays(): " + (test28 ? "pass" : "FAIL"));
+
+    boolean test29 = testWearKeepsLatestDate();
+    System.out.println("testWearKeepsLatestDate(): " + (test29 ? "pass" : "FAIL"));
+
+    boolean test30 = testWearAll();
+    System.out.println("testWearAll(): " + (test30 ? "pass" : "FAIL"));
+
+    boolean test31 = testWardrobeJournal();
+    System.out.println("testWardrobeJournal(): " + (test31 ? "pass" : "FAIL"));
+
+    boolean test32 = testSaveIncremental();
+    System.out.println("testSaveIncremental(): " + (test32 ? "pass" : "FAIL"));
+
+    boolean test33 = testMappedWardrobe();
+    System.out.println("testMappedWardrobe(): " + (test33 ? "pass" : "FAIL"));
+    boolean test34 = testWardrobeMetrics();
+    System.out.println("testWardrobeMetrics(): " + (test34 ? "pass" : "FAIL"));
+    boolean test35 = testWardrobeEvents();
+    System.out.println("testWardrobeEvents(): " + (test35 ? "pass" : "FAIL"));
+    boolean test36 = testBatchMode();
+    System.out.println("testBatchMode(): " + (test36 ? "pass" : "FAIL"));
+    boolean test37 = testTenantWardrobeManager();
+    System.out.println("testTenantWardrobeManager(): " + (test37 ? "pass" : "FAIL"));
+    boolean test38 = testDirectWearsKeepIndexesSorted();
+    System.out.println("testDirectWearsKeepIndexesSorted(): " + (test38 ? "pass" : "FAIL"));
+    boolean test39 = testUnusedBrandsAreDropped();
+    System.out.println("testUnusedBrandsAreDropped(): " + (test39 ? "pass" : "FAIL"));
+    boolean test40 = testBatchModeBadCommands();
+    System.out.println("testBatchModeBadCommands(): " + (test40 ? "pass" : "FAIL"));
+    boolean test41 = testLoadCorruptBinary();
+    System.out.println("testLoadCorruptBinary(): " + (test41 ? "pass" : "FAIL"));
+
     return test1 && test2 && test3 && test4 && test5 && test6 && test7 && test8 && test9 && test10
-        && test11 && test12 && test13 && test14 && test15;
+        && test11 && test12 && test13 && test14 && test15 && test16 && test17 && test18 && test19
+        && test20 && test21 && test22 && test23 && test24 && test25 && test26
+        && test27 && test28 && test29 && test30 && test31 && test32 && test33 && test34 && test35 && test36 && test37
+        && test38 && test39 && test40 && test41;
   }
 
   public static void main(String[] args) {
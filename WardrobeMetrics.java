@@ -0,0 +1,303 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An instantiable class that counts the operations done on wardrobes and how long they took. For each kind of
+ * operation it keeps the number of operations, their total time, the longest one, and a histogram of their times
+ * from which percentiles are estimated. The histogram has 8 buckets for every power of two nanoseconds, so a
+ * percentile is accurate to within an eighth of its value. Recording an operation only adds to a few LongAdders, so
+ * it allocates nothing and many threads can record at once without waiting on each other. Every wardrobe records to
+ * GLOBAL unless it is given metrics of its own with Wardrobe.setMetrics(). For use in the Wardrobe Manager project.
+ */
+public class WardrobeMetrics {
+
+  /**
+   * Adding a piece of clothing, including each piece of clothing added while loading a file.
+   */
+  public static final int ADD = 0;
+
+  /**
+   * Looking up a piece of clothing with getClothing().
+   */
+  public static final int GET = 1;
+
+  /**
+   * Wearing a piece of clothing with wearClothing().
+   */
+  public static final int WEAR = 2;
+
+  /**
+   * Removing a piece of clothing with removeClothing().
+   */
+  public static final int REMOVE = 3;
+
+  /**
+   * Removing all clothing worn before a date.
+   */
+  public static final int REMOVE_WORN_BEFORE = 4;
+
+  /**
+   * Removing all clothing worn fewer times than a threshold.
+   */
+  public static final int REMOVE_WORN_NUM_TIMES = 5;
+
+  /**
+   * Loading a wardrobe from a text save file.
+   */
+  public static final int LOAD = 6;
+
+  /**
+   * Saving a wardrobe to a text save file.
+   */
+  public static final int SAVE = 7;
+
+  private static final String[] NAMES = {"add", "get", "wear", "remove", "removeWornBefore", "removeWornNumTimes",
+                                         "load", "save"};
+  private static final int SUB_BUCKETS = 8; //buckets for every power of two
+  private static final int EXACT = 2 * SUB_BUCKETS; //times below this many nanoseconds get a bucket each
+  private static final int BUCKETS = EXACT + (63 - 4) * SUB_BUCKETS;
+
+  /**
+   * The metrics every wardrobe records to unless it is given metrics of its own.
+   */
+  public static final WardrobeMetrics GLOBAL = new WardrobeMetrics();
+
+  //data fields, indexed by operation
+  private final LongAdder[] counts;
+  private final LongAdder[] totalNanos;
+  private final LongAccumulator[] maxNanos;
+  private final LongAdder[][] histograms;
+  private volatile long startNanos; //when counting started or was last reset
+
+  /**
+   * A copy of the metrics of every operation, taken at one point in time.
+   */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long[] totalNanos;
+    private final long[] maxNanos;
+    private final long[][] histograms;
+    private final long elapsedNanos; //how long the metrics had been counting when the snapshot was taken
+
+    /**
+     * Creates a snapshot holding the given values.
+     *
+     * @param counts - the number of operations of each kind
+     * @param totalNanos - the total time of the operations of each kind
+     * @param maxNanos - the longest operation of each kind
+     * @param histograms - the histogram of the times of each kind of operation
+     * @param elapsedNanos - how long the metrics had been counting
+     */
+    private Snapshot(long[] counts, long[] totalNanos, long[] maxNanos, long[][] histograms, long elapsedNanos) {
+      this.counts = counts;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+      this.histograms = histograms;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Getter for the number of operations of the given kind.
+     *
+     * @param operation - the kind of operation, one of the constants of WardrobeMetrics
+     * @return the number of operations
+     */
+    public long getCount(int operation) {
+      return counts[operation];
+    }
+
+    /**
+     * Finds the average time of the operations of the given kind.
+     *
+     * @param operation - the kind of operation, one of the constants of WardrobeMetrics
+     * @return the mean time in nanoseconds, 0 if there were none
+     */
+    public double getMeanNanos(int operation) {
+      return (counts[operation] == 0) ? 0 : (double) totalNanos[operation] / counts[operation];
+    }
+
+    /**
+     * Getter for the time of the longest operation of the given kind.
+     *
+     * @param operation - the kind of operation, one of the constants of WardrobeMetrics
+     * @return the longest time in nanoseconds, 0 if there were none
+     */
+    public long getMaxNanos(int operation) {
+      return maxNanos[operation];
+    }
+
+    /**
+     * Estimates the time that the given percentage of the operations of the given kind took at most.
+     *
+     * @param operation - the kind of operation, one of the constants of WardrobeMetrics
+     * @param percentile - the percentage of operations, in the range [0,100]
+     * @return the estimated time in nanoseconds, never more than the longest time, 0 if there were none
+     * @throws IllegalArgumentException - with a descriptive message if percentile is outside the range [0,100]
+     */
+    public long getPercentileNanos(int operation, double percentile) {
+      if (!(percentile >= 0 && percentile <= 100)) {
+        throw new IllegalArgumentException("Invalid percentile: " + percentile);
+      }
+      long[] histogram = histograms[operation];
+      long total = 0;
+      for (long count : histogram) {
+        total += count;
+      }
+      if (total == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+      long seen = 0;
+      for (int bucket = 0; bucket < histogram.length; bucket++) {
+        seen += histogram[bucket];
+        if (seen >= rank) {
+          return Math.min(upperBound(bucket), maxNanos[operation]);
+        }
+      }
+      return maxNanos[operation];
+    }
+
+    /**
+     * Finds how many operations of the given kind were done per second, on average, while the metrics counted.
+     *
+     * @param operation - the kind of operation, one of the constants of WardrobeMetrics
+     * @return the operations per second
+     */
+    public double getThroughput(int operation) {
+      return counts[operation] * 1e9 / Math.max(1, elapsedNanos);
+    }
+
+    /**
+     * Creates and returns a table of the metrics of every kind of operation that was done at least once.
+     *
+     * @return the String representation of this snapshot
+     */
+    @Override
+    public String toString() {
+      StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-19s %10s %10s %10s %10s %10s %10s %12s%n",
+          "operation", "count", "ops/s", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+      for (int op = 0; op < NAMES.length; op++) {
+        if (counts[op] == 0) {
+          continue;
+        }
+        table.append(String.format(Locale.ROOT, "%-19s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %12.2f%n", NAMES[op],
+            counts[op], getThroughput(op), getMeanNanos(op) / 1e3, getPercentileNanos(op, 50) / 1e3,
+            getPercentileNanos(op, 99) / 1e3, getPercentileNanos(op, 99.9) / 1e3, maxNanos[op] / 1e3));
+      }
+      return table.toString();
+    }
+  }
+
+  /**
+   * Creates new metrics with nothing counted yet.
+   */
+  public WardrobeMetrics() {
+    counts = new LongAdder[NAMES.length];
+    totalNanos = new LongAdder[NAMES.length];
+    maxNanos = new LongAccumulator[NAMES.length];
+    histograms = new LongAdder[NAMES.length][BUCKETS];
+    for (int op = 0; op < NAMES.length; op++) {
+      counts[op] = new LongAdder();
+      totalNanos[op] = new LongAdder();
+      maxNanos[op] = new LongAccumulator(Math::max, 0);
+      for (int bucket = 0; bucket < BUCKETS; bucket++) {
+        histograms[op][bucket] = new LongAdder();
+      }
+    }
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Records an operation of the given kind that started at the given time and has just finished.
+   *
+   * @param operation - the kind of operation, one of the constants of this class
+   * @param start - the value of System.nanoTime() when the operation started
+   */
+  public void record(int operation, long start) {
+    long nanos = Math.max(0, System.nanoTime() - start);
+    counts[operation].increment();
+    totalNanos[operation].add(nanos);
+    maxNanos[operation].accumulate(nanos);
+    histograms[operation][bucketOf(nanos)].increment();
+  }
+
+  /**
+   * Takes a snapshot of the metrics. Operations recorded while the snapshot is taken may be only partly included.
+   *
+   * @return the snapshot
+   */
+  public Snapshot snapshot() {
+    long[] snapshotCounts = new long[NAMES.length];
+    long[] snapshotTotals = new long[NAMES.length];
+    long[] snapshotMaxes = new long[NAMES.length];
+    long[][] snapshotHistograms = new long[NAMES.length][BUCKETS];
+    for (int op = 0; op < NAMES.length; op++) {
+      snapshotCounts[op] = counts[op].sum();
+      snapshotTotals[op] = totalNanos[op].sum();
+      snapshotMaxes[op] = maxNanos[op].get();
+      for (int bucket = 0; bucket < BUCKETS; bucket++) {
+        snapshotHistograms[op][bucket] = histograms[op][bucket].sum();
+      }
+    }
+    return new Snapshot(snapshotCounts, snapshotTotals, snapshotMaxes, snapshotHistograms,
+                        System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Forgets everything counted so far and starts counting again from now.
+   */
+  public void reset() {
+    for (int op = 0; op < NAMES.length; op++) {
+      counts[op].reset();
+      totalNanos[op].reset();
+      maxNanos[op].reset();
+      for (LongAdder bucket : histograms[op]) {
+        bucket.reset();
+      }
+    }
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Finds the name of the given kind of operation.
+   *
+   * @param operation - the kind of operation, one of the constants of this class
+   * @return its name
+   */
+  public static String nameOf(int operation) {
+    return NAMES[operation];
+  }
+
+  /**
+   * Finds the histogram bucket of the given time: times below EXACT get a bucket each, and every larger power of two
+   * is split into SUB_BUCKETS buckets of equal width.
+   *
+   * @param nanos - the time in nanoseconds, not negative
+   * @return the bucket
+   */
+  static int bucketOf(long nanos) {
+    if (nanos < EXACT) {
+      return (int) nanos;
+    }
+    int power = 63 - Long.numberOfLeadingZeros(nanos); //at least 4
+    int sub = (int) (nanos >>> (power - 3)) & (SUB_BUCKETS - 1);
+    return EXACT + (power - 4) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Finds the largest time that falls in the given histogram bucket.
+   *
+   * @param bucket - the bucket
+   * @return the largest time in nanoseconds
+   */
+  static long upperBound(int bucket) {
+    if (bucket < EXACT) {
+      return bucket;
+    }
+    int power = (bucket - EXACT) / SUB_BUCKETS + 4;
+    int sub = (bucket - EXACT) % SUB_BUCKETS;
+    long width = 1L << (power - 3);
+    return (1L << power) + (sub + 1) * width - 1;
+  }
+}
@@ -0,0 +1,257 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+/**
+ * A server that lets many clients on the same host run wardrobe commands against one wardrobe in memory, instead of
+ * each running its own WardrobeManager and loading its own copy. The server only listens on the loopback address.
+ * Clients send one command per line, in the same format as typed into WardrobeManager, and the server answers each
+ * one with whatever the command printed followed by a line holding OK if the command was carried out or ERROR if it
+ * was not. A Q command, or closing the connection, ends the session. Each connection is served by a thread of its
+ * own, a virtual thread when the Java runtime has them and a pooled platform thread otherwise, so the commands must
+ * be run against a wardrobe that can be shared by many threads, such as a ConcurrentWardrobe. On runtimes
+ * without virtual threads, such as Java 17, at most MAX_POOLED_CONNECTIONS connections are served at once; any more
+ * are told the server is busy and closed.
+ * For use in the Wardrobe Manager project.
+ */
+public class WardrobeServer implements AutoCloseable {
+
+  /**
+   * The line the server answers a command with once it has been carried out.
+   */
+  public static final String OK = "OK";
+
+  /**
+   * The line the server answers a command with if it was not valid or something went wrong.
+   */
+  public static final String ERROR = "ERROR";
+
+  /**
+   * The most connections served at once when they run on platform threads. Further connections are turned away.
+   */
+  public static final int MAX_POOLED_CONNECTIONS = 256;
+
+  private static final int BUFFER_SIZE = 8 * 1024; //the size of the buffers each connection reads and writes by
+  private static final int MAX_KEPT_ANSWER = 1024 * 1024; //answers larger than this get a new buffer afterwards
+
+  //data fields
+  private final ServerSocket serverSocket;
+  private final BiPredicate<String, PrintStream> commands; //runs a command, printing its result, true if it worked
+  private final ExecutorService connections; //runs each connection on a thread of its own
+  private final boolean virtualThreads; //whether connections run on virtual threads
+  private final Set<Socket> openSockets; //the connections being served, closed when the server is
+  private final Thread acceptor;
+  private volatile boolean closed;
+
+  /**
+   * Creates a server on the given socket and starts accepting connections.
+   *
+   * @param serverSocket - the bound socket to accept connections on
+   * @param commands - runs a command, printing its result to the given stream, and returns whether it worked
+   */
+  private WardrobeServer(ServerSocket serverSocket, BiPredicate<String, PrintStream> commands) {
+    this.serverSocket = serverSocket;
+    this.commands = commands;
+    ExecutorService virtual = newVirtualThreadExecutor();
+    this.virtualThreads = virtual != null;
+    this.connections = virtualThreads ? virtual : new ThreadPoolExecutor(0, MAX_POOLED_CONNECTIONS, 60,
+        TimeUnit.SECONDS, new SynchronousQueue<>(), task -> {
+          Thread thread = new Thread(task, "wardrobe-connection");
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.openSockets = ConcurrentHashMap.newKeySet();
+    this.acceptor = new Thread(this::accept, "wardrobe-server");
+    this.acceptor.setDaemon(true);
+    this.acceptor.start();
+  }
+
+  /**
+   * Starts a server on the given port of the loopback address.
+   *
+   * @param port - the port to listen on, or 0 for any free port
+   * @param commands - runs a command, printing its result to the given stream, and returns whether it worked. It is
+   *                 called by many threads at once.
+   * @return the server, already accepting connections
+   * @throws IllegalArgumentException - with a descriptive message if the port is outside the range [0,65535]
+   * @throws IOException - if the port cannot be listened on
+   */
+  public static WardrobeServer start(int port, BiPredicate<String, PrintStream> commands) throws IOException {
+    if (port < 0 || port > 65535) {
+      throw new IllegalArgumentException("Invalid port: " + port);
+    }
+    return new WardrobeServer(new ServerSocket(port, 128, InetAddress.getLoopbackAddress()), commands);
+  }
+
+  /**
+   * Getter for the port this server listens on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Checks whether this server serves its connections on virtual threads.
+   *
+   * @return true if it uses virtual threads, false if it uses pooled platform threads
+   */
+  public boolean usesVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Waits until this server is closed by another thread.
+   *
+   * @throws InterruptedException - if the waiting thread is interrupted
+   */
+  public void awaitClose() throws InterruptedException {
+    acceptor.join();
+  }
+
+  /**
+   * Stops accepting connections, closes the ones being served, and waits briefly for their commands to finish.
+   * A command that is running when its connection is closed still runs to the end.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      //the socket is being closed anyway
+    }
+    for (Socket socket : openSockets) {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        //the socket is being closed anyway
+      }
+    }
+    connections.shutdown();
+    try {
+      connections.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Accepts connections until the server is closed, handing each one to a thread of its own.
+   */
+  private void accept() {
+    while (!closed) {
+      try {
+        Socket socket = serverSocket.accept();
+        openSockets.add(socket);
+        try {
+          connections.execute(() -> serve(socket));
+        } catch (RejectedExecutionException e) { //every pooled thread is serving a connection
+          turnAway(socket);
+        }
+      } catch (IOException e) {
+        if (!closed) {
+          e.printStackTrace(); //keep accepting, the failure was with one connection
+        }
+      }
+    }
+  }
+
+  /**
+   * Tells a client that the server is serving as many connections as it can, and closes its connection.
+   *
+   * @param socket - the connection
+   */
+  private void turnAway(Socket socket) {
+    try (socket) {
+      socket.getOutputStream().write(("The server is busy, try again later.\n" + ERROR + "\n")
+          .getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      //the client is turned away either way
+    } finally {
+      openSockets.remove(socket);
+    }
+  }
+
+  /**
+   * Runs the commands sent over a connection until the client sends Q or closes it. Each answer is printed into a
+   * buffer and only written to the client once the command has returned, so a command never holds a lock of the
+   * wardrobe while it waits on a slow client.
+   *
+   * @param socket - the connection
+   */
+  private void serve(Socket socket) {
+    try (socket;
+         BufferedReader in = new BufferedReader(
+             new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+         OutputStream out = socket.getOutputStream()) {
+      socket.setTcpNoDelay(true); //answers are written whole, so do not wait to fill a packet
+      ByteArrayOutputStream answer = new ByteArrayOutputStream(BUFFER_SIZE);
+      PrintStream page = new PrintStream(answer, false, StandardCharsets.UTF_8);
+      String line;
+      while ((line = in.readLine()) != null) {
+        line = line.trim();
+        if (line.equalsIgnoreCase("Q")) {
+          break;
+        }
+        boolean worked;
+        try {
+          worked = commands.test(line, page);
+        } catch (RuntimeException e) { //a bad command must not end the session
+          page.println("There was an issue running the command.");
+          worked = false;
+        }
+        page.println(worked ? OK : ERROR);
+        page.flush();
+        answer.writeTo(out);
+        out.flush();
+        if (answer.size() > MAX_KEPT_ANSWER) { //do not hold on to the buffer of a large view
+          answer = new ByteArrayOutputStream(BUFFER_SIZE);
+          page = new PrintStream(answer, false, StandardCharsets.UTF_8);
+        } else {
+          answer.reset();
+        }
+      }
+    } catch (SocketException e) {
+      //the client or the server closed the connection
+    } catch (IOException e) {
+      if (!closed) {
+        e.printStackTrace();
+      }
+    } finally {
+      openSockets.remove(socket);
+    }
+  }
+
+  /**
+   * Creates an executor that runs each task on a new virtual thread, if the Java runtime has them. They are looked up
+   * by reflection so that the server still runs on runtimes that do not.
+   *
+   * @return the executor, or null if virtual threads are not available
+   */
+  static ExecutorService newVirtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+      return null; //virtual threads are not available, or are a preview feature that is not enabled
+    }
+  }
+}
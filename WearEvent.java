@@ -0,0 +1,90 @@
+import java.time.LocalDate;
+
+/**
+ * An instantiable class that represents one wear of a piece of clothing, identified by its description and brand, on
+ * a given date. Wear events are validated when they are created, so a batch of them can be applied to a Wardrobe with
+ * Wardrobe.wearAll() without checking each one again. For use in the Wardrobe Manager project.
+ */
+public class WearEvent {
+
+  //data fields
+  private final String description;
+  private final String brand;
+  private final int epochDay; //the date of the wear as an epoch day
+
+  /**
+   * Creates a new wear event for the piece of clothing with the given description and brand on the given date.
+   *
+   * @param description - the description of the piece of clothing that was worn
+   * @param brand - the brand of the piece of clothing that was worn
+   * @param year - the year that it was worn
+   * @param month - the month that it was worn
+   * @param day - the day that it was worn
+   * @throws IllegalArgumentException - with a descriptive message if the description or brand is blank, the year is
+   *                                    less than 1, or the month is outside the range [1,12]
+   * @throws java.time.DateTimeException - if the day does not exist in the month
+   */
+  public WearEvent(String description, String brand, int year, int month, int day) {
+    if (description == null || description.isBlank()) {
+      throw new IllegalArgumentException("No information provided for description.");
+    }
+    if (brand == null || brand.isBlank()) {
+      throw new IllegalArgumentException("No information provided for brand.");
+    }
+    if (year < 1 || month < 1 || month > 12) {
+      throw new IllegalArgumentException("Invalid year or month: " + year + ", " + month);
+    }
+    this.description = description;
+    this.brand = brand;
+    this.epochDay = EpochDays.of(year, month, day);
+  }
+
+  /**
+   * Creates a new wear event for the piece of clothing with the given description and brand on the given date.
+   *
+   * @param description - the description of the piece of clothing that was worn
+   * @param brand - the brand of the piece of clothing that was worn
+   * @param date - the date that it was worn
+   * @throws IllegalArgumentException - with a descriptive message if the description or brand is blank, or the year
+   *                                    of the date is less than 1
+   */
+  public WearEvent(String description, String brand, LocalDate date) {
+    this(description, brand, date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+  }
+
+  /**
+   * Getter for the description of the piece of clothing that was worn.
+   *
+   * @return the description
+   */
+  public String getDescription() {
+    return this.description;
+  }
+
+  /**
+   * Getter for the brand of the piece of clothing that was worn.
+   *
+   * @return the brand
+   */
+  public String getBrand() {
+    return this.brand;
+  }
+
+  /**
+   * Getter for the date of the wear.
+   *
+   * @return the date that the clothing was worn
+   */
+  public LocalDate getDate() {
+    return EpochDays.toDate(this.epochDay);
+  }
+
+  /**
+   * Getter for the date of the wear as an epoch day.
+   *
+   * @return the date that the clothing was worn, as the number of days since 01/01/1970
+   */
+  int getEpochDay() {
+    return this.epochDay;
+  }
+}
@@ -0,0 +1,113 @@
+import java.time.LocalDate;
+
+/**
+ * An instantiable class that reports what Wardrobe.wearAll() did with all the wear events of one piece of clothing:
+ * which piece of clothing they were applied to, or that it is not in the wardrobe, how many wears there were and
+ * the latest date among them. For use in the Wardrobe Manager project.
+ */
+public class WearOutcome {
+
+  //data fields
+  private final String description; //as spelled in the first event for this piece of clothing
+  private final String brand;
+  private final Clothing clothing; //null if the clothing is not in the wardrobe
+  private int wears;
+  private int latestEpochDay;
+
+  /**
+   * Creates a new outcome with no wears yet, for the piece of clothing of the given event.
+   *
+   * @param first - the first event for the piece of clothing
+   * @param clothing - the piece of clothing in the wardrobe, or null if it is not in the wardrobe
+   */
+  WearOutcome(WearEvent first, Clothing clothing) {
+    this.description = first.getDescription();
+    this.brand = first.getBrand();
+    this.clothing = clothing;
+    this.latestEpochDay = EpochDays.NEVER_WORN;
+  }
+
+  /**
+   * Counts one more wear event for this piece of clothing.
+   *
+   * @param epochDay - the date of the wear as an epoch day
+   */
+  void record(int epochDay) {
+    this.wears++;
+    this.latestEpochDay = Math.max(this.latestEpochDay, epochDay);
+  }
+
+  /**
+   * Getter for the description of the piece of clothing, as spelled in its first wear event.
+   *
+   * @return the description
+   */
+  public String getDescription() {
+    return this.description;
+  }
+
+  /**
+   * Getter for the brand of the piece of clothing, as spelled in its first wear event.
+   *
+   * @return the brand
+   */
+  public String getBrand() {
+    return this.brand;
+  }
+
+  /**
+   * Checks if the piece of clothing was found in the wardrobe and its wears were applied.
+   *
+   * @return true if the wears were applied, false if the clothing is not in the wardrobe
+   */
+  public boolean isKnown() {
+    return this.clothing != null;
+  }
+
+  /**
+   * Getter for the piece of clothing in the wardrobe that the wears were applied to.
+   *
+   * @return the piece of clothing, or null if it is not in the wardrobe
+   */
+  public Clothing getClothing() {
+    return this.clothing;
+  }
+
+  /**
+   * Getter for the number of wear events for this piece of clothing in the batch.
+   *
+   * @return the number of wears
+   */
+  public int getWears() {
+    return this.wears;
+  }
+
+  /**
+   * Getter for the latest date among the wear events for this piece of clothing in the batch.
+   *
+   * @return the latest date of a wear
+   */
+  public LocalDate getLatestDate() {
+    return EpochDays.toDate(this.latestEpochDay);
+  }
+
+  /**
+   * Getter for the latest date among the wear events for this piece of clothing, as an epoch day.
+   *
+   * @return the latest date of a wear as an epoch day
+   */
+  int getLatestEpochDay() {
+    return this.latestEpochDay;
+  }
+
+  /**
+   * Creates and returns a one line summary of this outcome.
+   *
+   * @return the String representation of this outcome
+   */
+  @Override
+  public String toString() {
+    return description + "," + brand + ": " + (isKnown() ? wears + " wears, last on " + getLatestDate()
+                                                         : "not in the wardrobe (" + wears + " wears)");
+  }
+}
@@ -0,0 +1,138 @@
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.function.IntFunction;
+import wardrobe.benchmarks.Fixture;
+
+/**
+ * The wardrobe the JMH benchmarks run against. It is in the default package so that it can use the Wardrobe classes;
+ * the benchmarks create it through Fixture.create. The i-th piece of clothing is "Shirt i" by "Brand i%100", worn
+ * i % 10 times, most recently on a day of 2024 that grows with i.
+ * For use in the Wardrobe Manager project.
+ */
+public class WardrobeBenchmarkFixture implements Fixture {
+
+  //data fields
+  private final int size; //the number of pieces of clothing of the fixture
+  private final IntFunction<Wardrobe> factory; //creates an empty wardrobe of the class being measured
+  private final String[] descriptions; //the description of each piece of clothing
+  private final String[] brands; //the brand of each piece of clothing
+  private final Clothing[] probes; //a Clothing to find each piece of clothing with
+  private final String[] lines; //each piece of clothing formatted as a line of a save file
+  private Wardrobe wardrobe; //the wardrobe being measured
+
+  /**
+   * Creates a fixture of the given size with an empty wardrobe.
+   *
+   * @param wardrobe - the Wardrobe class to measure: plain, columnar or concurrent
+   * @param size - the number of pieces of clothing of the fixture
+   * @throws IllegalArgumentException - with a descriptive message if the Wardrobe class is not known
+   */
+  public WardrobeBenchmarkFixture(String wardrobe, int size) {
+    switch (wardrobe) {
+      case "plain":
+        factory = Wardrobe::new;
+        break;
+      case "columnar":
+        factory = ColumnarWardrobe::new;
+        break;
+      case "concurrent":
+        factory = ConcurrentWardrobe::new;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown wardrobe: " + wardrobe);
+    }
+    this.size = size;
+    descriptions = new String[size];
+    brands = new String[size];
+    probes = new Clothing[size];
+    lines = new String[size];
+    for (int i = 0; i < size; i++) {
+      descriptions[i] = "Shirt " + i;
+      brands[i] = "Brand " + (i % 100);
+      probes[i] = new Clothing(descriptions[i], brands[i]);
+      lines[i] = clothing(i).toString();
+    }
+    clear();
+  }
+
+  /**
+   * Creates the i-th piece of clothing of the fixture.
+   *
+   * @param i - the number of the piece of clothing
+   * @return the piece of clothing
+   */
+  private Clothing clothing(int i) {
+    return new Clothing(descriptions[i], brands[i], i % 10, LocalDate.ofEpochDay(19723 + (i * 7L) % 366));
+  }
+
+  @Override
+  public void fill() {
+    clear();
+    addAll();
+  }
+
+  @Override
+  public void clear() {
+    wardrobe = factory.apply(16);
+  }
+
+  @Override
+  public void addAll() {
+    for (int i = 0; i < size; i++) {
+      wardrobe.addClothing(clothing(i));
+    }
+  }
+
+  @Override
+  public int timesWorn(int i) {
+    return wardrobe.getClothing(descriptions[i], brands[i]).getNumOfTimesWorn();
+  }
+
+  @Override
+  public void wear(int i, int n) {
+    wardrobe.wearClothing(probes[i], 2024, 1 + (n & 7), 1 + (n & 15));
+  }
+
+  @Override
+  public void remove(int i) {
+    wardrobe.removeClothing(descriptions[i], brands[i]);
+  }
+
+  @Override
+  public int removeWornBefore() {
+    return wardrobe.removeAllClothingWornBefore(2024, 7, 1);
+  }
+
+  @Override
+  public int removeWornNumTimes() {
+    return wardrobe.removeAllClothingWornNumTimes(5);
+  }
+
+  @Override
+  public int parse(int i) {
+    try {
+      return Wardrobe.parseClothing(lines[i]).getNumOfTimesWorn();
+    } catch (ParseException e) {
+      throw new IllegalStateException("Cannot parse " + lines[i], e);
+    }
+  }
+
+  @Override
+  public String render() {
+    return wardrobe.toString();
+  }
+
+  @Override
+  public void save(File file) throws IOException {
+    if (!wardrobe.saveToFile(file)) {
+      throw new IOException("Cannot write " + file);
+    }
+  }
+
+  @Override
+  public long load(File file) throws IOException {
+    return factory.apply(16).loadFromFile(file, Wardrobe.DEFAULT_BUFFER_SIZE).getItemsLoaded();
+  }
+}
@@ -0,0 +1,52 @@
+package wardrobe.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of filling a wardrobe, from empty, with all the clothing of the fixture. Each invocation is timed once,
+ * on an empty wardrobe made for it before the timer starts.
+ * For use in the Wardrobe Manager project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class AddBenchmark extends WardrobeState {
+
+  //data fields
+  private Fixture fixture; //the wardrobe added to
+
+  /**
+   * Creates the fixture.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    fixture = Fixture.create(wardrobe, size);
+  }
+
+  /**
+   * Empties the wardrobe before every invocation.
+   */
+  @Setup(Level.Invocation)
+  public void empty() {
+    fixture.clear();
+  }
+
+  @Benchmark
+  public void addClothing() {
+    fixture.addAll();
+  }
+}
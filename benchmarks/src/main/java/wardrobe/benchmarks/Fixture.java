@@ -0,0 +1,122 @@
+package wardrobe.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The wardrobe a benchmark runs against, with the clothing it is filled with. JMH does not run benchmarks in the
+ * default package, and a named package cannot see the Wardrobe classes, which are in the default package, so the
+ * benchmarks reach them through this interface. It is implemented by WardrobeBenchmarkFixture, in the default
+ * package. The i-th piece of clothing of a fixture is numbered i, in the range [0,size).
+ * For use in the Wardrobe Manager project.
+ */
+public interface Fixture {
+
+  /**
+   * Creates a fixture with an empty wardrobe.
+   *
+   * @param wardrobe - the Wardrobe class to measure: plain, columnar or concurrent
+   * @param size - the number of pieces of clothing of the fixture
+   * @return the fixture
+   * @throws IllegalArgumentException - with a descriptive message if the Wardrobe class is not known
+   * @throws IllegalStateException - with a descriptive message if WardrobeBenchmarkFixture cannot be created
+   */
+  static Fixture create(String wardrobe, int size) {
+    try {
+      return (Fixture) Class.forName("WardrobeBenchmarkFixture").getConstructor(String.class, int.class)
+          .newInstance(wardrobe, size);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof IllegalArgumentException) {
+        throw (IllegalArgumentException) e.getCause();
+      }
+      throw new IllegalStateException("Cannot create the fixture.", e.getCause());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Cannot create the fixture.", e);
+    }
+  }
+
+  /**
+   * Replaces the wardrobe of this fixture with a new wardrobe holding all of its clothing.
+   */
+  void fill();
+
+  /**
+   * Replaces the wardrobe of this fixture with a new empty wardrobe.
+   */
+  void clear();
+
+  /**
+   * Adds all the clothing of this fixture to its wardrobe, which must not hold any of it yet.
+   */
+  void addAll();
+
+  /**
+   * Looks up a piece of clothing in the wardrobe.
+   *
+   * @param i - the number of the piece of clothing
+   * @return the number of times it has been worn
+   */
+  int timesWorn(int i);
+
+  /**
+   * Wears a piece of clothing of the wardrobe, on a day of 2024 picked with n.
+   *
+   * @param i - the number of the piece of clothing
+   * @param n - any number
+   */
+  void wear(int i, int n);
+
+  /**
+   * Removes a piece of clothing from the wardrobe.
+   *
+   * @param i - the number of the piece of clothing
+   */
+  void remove(int i);
+
+  /**
+   * Removes the clothing last worn before July 2024 from the wardrobe, about half of it.
+   *
+   * @return the number of pieces of clothing removed
+   */
+  int removeWornBefore();
+
+  /**
+   * Removes the clothing worn fewer than 5 times from the wardrobe, half of it.
+   *
+   * @return the number of pieces of clothing removed
+   */
+  int removeWornNumTimes();
+
+  /**
+   * Parses a piece of clothing from its line of a save file.
+   *
+   * @param i - the number of the piece of clothing
+   * @return the number of times the parsed clothing has been worn
+   */
+  int parse(int i);
+
+  /**
+   * Formats the wardrobe as a string.
+   *
+   * @return the wardrobe as a string
+   */
+  String render();
+
+  /**
+   * Saves the wardrobe to a file.
+   *
+   * @param file - the file to save to
+   * @throws IOException - if the file cannot be written
+   */
+  void save(File file) throws IOException;
+
+  /**
+   * Loads a file into a new wardrobe, which replaces nothing.
+   *
+   * @param file - the file to load
+   * @return the number of pieces of clothing loaded
+   * @throws IOException - if the file cannot be read
+   */
+  long load(File file) throws IOException;
+}
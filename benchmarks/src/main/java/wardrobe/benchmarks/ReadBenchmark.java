@@ -0,0 +1,97 @@
+package wardrobe.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the wardrobe operations that do not change the wardrobe, so they share one wardrobe, filled once
+ * per trial. Saving writes a file, but does not change the wardrobe or start tracking its changes.
+ * For use in the Wardrobe Manager project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReadBenchmark extends WardrobeState {
+
+  //data fields
+  private Fixture fixture; //the wardrobe, filled with all of its clothing
+  private int[] picked; //the keys looked up
+  private int next; //the position of the next key in picked
+  private File file; //a save file of the whole wardrobe
+
+  /**
+   * Fills the wardrobe and saves it to a temporary file.
+   *
+   * @throws IOException - if the file cannot be written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    fixture = Fixture.create(wardrobe, size);
+    fixture.fill();
+    picked = pickKeys();
+    file = File.createTempFile("wardrobe-benchmark", ".txt");
+    fixture.save(file);
+  }
+
+  /**
+   * Deletes the temporary file.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    file.delete();
+  }
+
+  /**
+   * Getter for the next key, cycling through the picked keys.
+   *
+   * @return the next key
+   */
+  private int nextKey() {
+    return picked[next++ & (KEY_STREAM - 1)];
+  }
+
+  @Benchmark
+  public void getClothing(Blackhole blackhole) {
+    blackhole.consume(fixture.timesWorn(nextKey()));
+  }
+
+  @Benchmark
+  public void parseClothing(Blackhole blackhole) {
+    blackhole.consume(fixture.parse(nextKey()));
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void render(Blackhole blackhole) {
+    blackhole.consume(fixture.render());
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void saveToFile() throws IOException {
+    fixture.save(file);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void loadFromFile(Blackhole blackhole) throws IOException {
+    blackhole.consume(fixture.load(file));
+  }
+}
@@ -0,0 +1,83 @@
+package wardrobe.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of removing clothing. They change the wardrobe a lot, so each invocation is timed once, on a freshly
+ * filled wardrobe made for it before the timer starts.
+ * For use in the Wardrobe Manager project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RemoveBenchmark extends WardrobeState {
+
+  static final int REMOVALS = 500; //the pieces of clothing removed one by one per invocation, at most half of them
+
+  //data fields
+  private Fixture fixture; //the wardrobe removed from
+  private int[] toRemove; //REMOVALS distinct keys
+
+  /**
+   * Creates the fixture and picks the keys to remove.
+   *
+   * @throws IllegalStateException - with a descriptive message if the wardrobe has fewer than 2 * REMOVALS pieces of
+   *                               clothing
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    if (size < 2 * REMOVALS) {
+      throw new IllegalStateException("The wardrobe must hold at least " + 2 * REMOVALS + " pieces of clothing.");
+    }
+    fixture = Fixture.create(wardrobe, size);
+    toRemove = Arrays.stream(pickKeys()).distinct().limit(REMOVALS).toArray();
+    if (toRemove.length < REMOVALS) { //a skewed distribution can repeat a few keys; top up in order
+      toRemove = IntStream.concat(Arrays.stream(toRemove), IntStream.range(0, size)).distinct().limit(REMOVALS)
+          .toArray();
+    }
+  }
+
+  /**
+   * Refills the wardrobe before every invocation.
+   */
+  @Setup(Level.Invocation)
+  public void refill() {
+    fixture.fill();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(REMOVALS)
+  public void removeClothing() {
+    for (int key : toRemove) {
+      fixture.remove(key);
+    }
+  }
+
+  @Benchmark
+  public void removeAllClothingWornBefore(Blackhole blackhole) {
+    blackhole.consume(fixture.removeWornBefore());
+  }
+
+  @Benchmark
+  public void removeAllClothingWornNumTimes(Blackhole blackhole) {
+    blackhole.consume(fixture.removeWornNumTimes());
+  }
+}
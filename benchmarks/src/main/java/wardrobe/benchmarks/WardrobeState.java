@@ -0,0 +1,55 @@
+package wardrobe.benchmarks;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The parameters shared by the wardrobe benchmarks: the size of the wardrobe, the Wardrobe class measured, and how
+ * the clothing looked up, worn and removed is picked. Uniform keys pick every piece of clothing equally often, zipf
+ * keys favor a few pieces of clothing the way real wardrobes do (log-uniformly, so the k-th piece of clothing is
+ * picked in proportion to 1/k), and sequential keys go through the wardrobe in order.
+ * For use in the Wardrobe Manager project.
+ */
+@State(Scope.Benchmark)
+public abstract class WardrobeState {
+
+  static final int KEY_STREAM = 1 << 20; //the number of keys picked, a power of 2 so the keys can be cycled through
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int size; //the number of pieces of clothing in the wardrobe
+
+  @Param({"uniform", "zipf", "sequential"})
+  public String keys; //the key distribution
+
+  @Param({"plain", "columnar", "concurrent"})
+  public String wardrobe; //the Wardrobe class measured
+
+  /**
+   * Picks KEY_STREAM keys with the key distribution of this benchmark. The same keys are picked on every run.
+   *
+   * @return the keys, each in the range [0,size)
+   * @throws IllegalArgumentException - with a descriptive message if the key distribution is not known
+   */
+  int[] pickKeys() {
+    Random random = new Random(42);
+    int[] picked = new int[KEY_STREAM];
+    for (int i = 0; i < picked.length; i++) {
+      switch (keys) {
+        case "uniform":
+          picked[i] = random.nextInt(size);
+          break;
+        case "zipf": //size to the power of a uniform number is log-uniform, so key k has weight 1/(k+1)
+          picked[i] = Math.min(size - 1, (int) Math.pow(size, random.nextDouble()) - 1);
+          break;
+        case "sequential":
+          picked[i] = i % size;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown key distribution: " + keys);
+      }
+    }
+    return picked;
+  }
+}
@@ -0,0 +1,58 @@
+package wardrobe.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of wearing clothing. Wearing changes the wardrobe, so every iteration starts from a freshly filled
+ * wardrobe that has never been saved, and so does not track its changes; the numbers are those of the wear path
+ * alone.
+ * For use in the Wardrobe Manager project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class WearBenchmark extends WardrobeState {
+
+  //data fields
+  private Fixture fixture; //the wardrobe worn from
+  private int[] picked; //the keys worn
+  private int next; //the position of the next key in picked
+
+  /**
+   * Creates the fixture and picks the keys.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    fixture = Fixture.create(wardrobe, size);
+    picked = pickKeys();
+  }
+
+  /**
+   * Refills the wardrobe before every iteration.
+   */
+  @Setup(Level.Iteration)
+  public void refill() {
+    fixture.fill();
+    next = 0;
+  }
+
+  @Benchmark
+  public void wearClothing() {
+    int n = next++;
+    fixture.wear(picked[n & (KEY_STREAM - 1)], n);
+  }
+}